@@ -0,0 +1,73 @@
+package benchmark;
+
+import model.CaboGame;
+import org.openjdk.jmh.annotations.*;
+import util.CaboIO;
+import util.SaveFile;
+
+import java.io.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @version 1.1
+ *
+ * Benchmarks a round trip through the auto-save - saving a game with CaboIO.saveCaboGame() and loading it back with
+ * CaboIO.tryLoadAutoSave(). The auto-save is written to the savedgames directory of the working directory, just like
+ * when playing. CaboIO reports every save and load on System.out, which is silenced while benchmarking.
+ *
+ * The in-memory round trips compare the binary SaveFile format with the Java serialization that older versions used
+ * for the auto-save, without any file IO.
+ *
+ * @see CaboIO
+ * @see SaveFile
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 10, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 3, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class IOBenchmark {
+
+    private CaboGame game;
+    private PrintStream out;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        game = new CaboGame(42);
+        ScriptedGame.playInitialPeeks(game);
+        out = System.out;
+        System.setOut(new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) {}
+        }));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(out);
+    }
+
+    @Benchmark
+    public CaboGame saveAndLoadAutoSave() {
+        CaboIO.saveCaboGame(game);
+        return CaboIO.tryLoadAutoSave();
+    }
+
+    @Benchmark
+    public CaboGame saveFileRoundTrip() throws IOException {
+        return SaveFile.decode(SaveFile.encode(game, true)).getGame();
+    }
+
+    @Benchmark
+    public Object serializationRoundTrip() throws IOException, ClassNotFoundException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream objectOutputStream = new ObjectOutputStream(bytes)) {
+            objectOutputStream.writeObject(game);
+            objectOutputStream.writeObject(Boolean.TRUE);
+        }
+        try (ObjectInputStream objectInputStream = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            return objectInputStream.readObject();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package benchmark;
+
+import model.CaboGame;
+import model.Player;
+import model.card.Card;
+import model.card.Deck;
+import model.card.DiscardPile;
+import model.card.Shuffler;
+import model.turnphase.TurnPhase;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @version 1.0
+ *
+ * Benchmarks the hot paths of the object model - building and reshuffling the Deck, swapping and counting the cards of
+ * a Player, dropping a card, and playing a complete scripted game through the TurnPhase classes. All games are seeded,
+ * so every run measures exactly the same deals.
+ *
+ * @see CaboGame
+ * @see Deck
+ * @see TurnPhase
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 10, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+@State(Scope.Thread)
+public class ModelBenchmark {
+
+    private static final long SEED = 42;
+
+    private Shuffler shuffler;
+    private CaboGame game;
+    private Player player;
+    private Player opponent;
+    private Deck emptyDeck;
+    private DiscardPile fullDiscardPile;
+
+    @Setup(Level.Trial)
+    public void setupTrial() {
+        shuffler = new Shuffler(SEED);
+        game = new CaboGame(SEED);
+        player = game.getPlayer1();
+        opponent = game.getPlayer2();
+    }
+
+    /**
+     * Moves every card of a fresh Deck onto the DiscardPile, so that shuffleInDiscardPile() has the most work to do.
+     */
+    @Setup(Level.Invocation)
+    public void setupInvocation() {
+        fullDiscardPile = new DiscardPile();
+        emptyDeck = new Deck(fullDiscardPile, shuffler);
+        while (!emptyDeck.isEmpty())
+            fullDiscardPile.put(emptyDeck.draw());
+    }
+
+    @Benchmark
+    public Deck deckConstruction() {
+        return new Deck(new DiscardPile(), shuffler);
+    }
+
+    @Benchmark
+    public Deck shuffleInDiscardPile() {
+        emptyDeck.shuffleInDiscardPile(fullDiscardPile);
+        return emptyDeck;
+    }
+
+    @Benchmark
+    public Player playerSwapCards() {
+        List<Card> playerCards = player.getCards();
+        List<Card> opponentCards = opponent.getCards();
+        player.swapCards(opponent, playerCards.get(0), opponentCards.get(opponentCards.size() - 1));
+        return player;
+    }
+
+    @Benchmark
+    public int playerGetPoints() {
+        return player.getPoints();
+    }
+
+    /**
+     * Drops the first card of player 1 on a fresh game that has just entered the DrawOrCaboPhase. The game is built
+     * anew before every invocation, since a drop changes it.
+     */
+    @Benchmark
+    public boolean handleCardDrop(DropState state) {
+        return state.phase.handleCardDrop();
+    }
+
+    @Benchmark
+    public CaboGame scriptedGame() {
+        return ScriptedGame.play(new CaboGame(SEED), 20);
+    }
+
+    @State(Scope.Thread)
+    public static class DropState {
+
+        TurnPhase phase;
+
+        @Setup(Level.Invocation)
+        public void setup() {
+            CaboGame game = new CaboGame(SEED);
+            ScriptedGame.playInitialPeeks(game);
+            phase = game.getTurnPhase();
+            phase.selectCard(game.getCurrentPlayer().getCards().get(0));
+        }
+    }
+}
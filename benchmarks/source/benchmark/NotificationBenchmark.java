@@ -0,0 +1,74 @@
+package benchmark;
+
+import model.CaboGame;
+import model.turnphase.TurnPhase;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @version 1.0
+ *
+ * Counts the notifications a CaboGame sends to its observers during a turn. A turn is played as the four actions the
+ * CardDragger performs - pressing on the deck, releasing in the draw area, pressing on the drawn card, and releasing
+ * it on the player's first card. The batched benchmark wraps each action in CaboGame.performAction() like the
+ * CardDragger does, and the unbatched benchmark calls the TurnPhase directly. Compare the notifications counter with
+ * the actions counter to get the number of notifications per action.
+ *
+ * @see CaboGame#performAction(Runnable)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 10, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+@State(Scope.Thread)
+public class NotificationBenchmark {
+
+    private CaboGame game;
+    private int notifications;
+
+    @Setup(Level.Invocation)
+    public void setup() {
+        game = new CaboGame(42);
+        ScriptedGame.playInitialPeeks(game);
+        notifications = 0;
+        game.addObserver((observable, message) -> ++notifications);
+    }
+
+    @Benchmark
+    public CaboGame batchedTurn(Counters counters) {
+        game.performAction(() -> game.getTurnPhase().selectCard(game.getDeck().top()));
+        game.performAction(() -> game.getTurnPhase().releaseCard());
+        game.performAction(() -> game.getTurnPhase().selectCard(game.getDrawnCard()));
+        game.performAction(() -> game.getTurnPhase().releaseCard(game.getCurrentPlayer().getCards().get(0)));
+        counters.actions += 4;
+        counters.notifications += notifications;
+        return game;
+    }
+
+    @Benchmark
+    public CaboGame unbatchedTurn(Counters counters) {
+        game.getTurnPhase().selectCard(game.getDeck().top());
+        game.getTurnPhase().releaseCard();
+        game.getTurnPhase().selectCard(game.getDrawnCard());
+        game.getTurnPhase().releaseCard(game.getCurrentPlayer().getCards().get(0));
+        counters.actions += 4;
+        counters.notifications += notifications;
+        return game;
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Counters {
+
+        public long actions;
+        public long notifications;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            actions = 0;
+            notifications = 0;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package benchmark;
+
+import model.CaboGame;
+import model.Player;
+import model.turnphase.TurnPhase;
+
+/**
+ * @version 1.0
+ *
+ * Plays a game of Cabo through the TurnPhase classes with a fixed script, by making the same selectCard() and
+ * releaseCard() calls the CardDragger would make. Both players peek at their first two cards, then every turn draws
+ * from the deck and swaps the drawn card with their first card, until player 1 calls Cabo. Together with a seeded
+ * CaboGame the script always plays exactly the same game.
+ *
+ * @see model.turnphase.TurnPhase
+ * @see controller.CardDragger
+ */
+final class ScriptedGame {
+
+    private ScriptedGame() {}
+
+    /**
+     * Lets both players peek at their first two cards, after which player 1 is in the DrawOrCaboPhase.
+     *
+     * @param game A freshly constructed or reset CaboGame.
+     */
+    static void playInitialPeeks(CaboGame game) {
+        for (int i = 0; i < 2; ++i) {
+            Player player = game.getCurrentPlayer();
+            select(game, player, 0);
+            select(game, player, 1);
+            select(game, player, 0);
+            select(game, player, 1);
+        }
+    }
+
+    /**
+     * Plays a game until it is over.
+     *
+     * @param game A freshly constructed or reset CaboGame.
+     * @param turns The number of turns each player takes before Cabo is called.
+     * @return The game, which is over.
+     */
+    static CaboGame play(CaboGame game, int turns) {
+        playInitialPeeks(game);
+        for (int turn = 0; !game.isOver(); ++turn) {
+            if (turn == 2 * turns) {
+                game.callCabo();
+                continue;
+            }
+            TurnPhase phase = game.getTurnPhase();
+            phase.selectCard(game.getDeck().top());
+            phase.releaseCard();
+            phase = game.getTurnPhase();
+            phase.selectCard(game.getDrawnCard());
+            phase.releaseCard(game.getCurrentPlayer().getCards().get(0));
+        }
+        return game;
+    }
+
+    private static void select(CaboGame game, Player player, int index) {
+        game.getTurnPhase().selectCard(player.getCards().get(index));
+    }
+}
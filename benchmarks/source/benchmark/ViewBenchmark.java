@@ -0,0 +1,111 @@
+package benchmark;
+
+import controller.Board;
+import model.CaboGame;
+import model.card.Card;
+import org.openjdk.jmh.annotations.*;
+import view.BoardLayout;
+import view.CardTextures;
+import view.Panel;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @version 1.0
+ *
+ * Benchmarks the view - hit testing on the Board, painting the Panel into an offscreen image of several sizes, painting
+ * only the region a dragged card moves through, and fetching card textures at two alternating sizes, like while the
+ * window is being resized. The benchmarks run headless, so no window is ever shown.
+ *
+ * @see Board
+ * @see Panel
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 10, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 3, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class ViewBenchmark {
+
+    @Param({"800x600", "1280x720", "1920x1080", "3840x2160"})
+    public String size;
+
+    private Board board;
+    private Panel panel;
+    private BufferedImage image;
+    private Graphics2D graphics;
+    private Point[] points;
+    private int nextPoint;
+    private int cardWidth;
+    private int cardHeight;
+    private boolean useSmallCard;
+    private Rectangle dragRegion;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        int width = Integer.parseInt(size.substring(0, size.indexOf('x')));
+        int height = Integer.parseInt(size.substring(size.indexOf('x') + 1));
+
+        CaboGame game = new CaboGame(42);
+        ScriptedGame.playInitialPeeks(game);
+        BoardLayout layout = new BoardLayout(game);
+        layout.setDimensions(width, height);
+        board = new Board(layout);
+        panel = new Panel(layout);
+        panel.setSize(width, height);
+        image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        graphics = image.createGraphics();
+        cardWidth = (int)Math.round(layout.getCardWidth());
+        cardHeight = (int)Math.round(layout.getCardHeight());
+
+        // The region CardDragger repaints when a card moves a few pixels over the middle of player 1's hand.
+        Rectangle cardArea = layout.getPlayerCardAreas(game.getPlayer1())[1];
+        dragRegion = cardArea.union(new Rectangle(cardArea.x + 5, cardArea.y - 3, cardArea.width, cardArea.height));
+        dragRegion.grow(2, 2);
+
+        // A grid of points spread over the whole board, so that every area is hit or missed in turn.
+        points = new Point[32 * 32];
+        for (int y = 0; y < 32; ++y)
+            for (int x = 0; x < 32; ++x)
+                points[32 * y + x] = new Point(x * width / 32, y * height / 32);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        graphics.dispose();
+    }
+
+    @Benchmark
+    public Card boardGetCardAt() {
+        nextPoint = (nextPoint + 1) % points.length;
+        return board.getCardAt(points[nextPoint]);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public BufferedImage panelPaintComponent() {
+        panel.paintComponent(graphics);
+        return image;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public BufferedImage panelPaintDragRegion() {
+        graphics.setClip(dragRegion);
+        panel.paintComponent(graphics);
+        graphics.setClip(null);
+        return image;
+    }
+
+    @Benchmark
+    public Image cardTexturesAtTwoSizes() {
+        useSmallCard = !useSmallCard;
+        if (useSmallCard)
+            return CardTextures.getCardBackTexture(cardWidth / 2, cardHeight / 2);
+        else
+            return CardTextures.getCardBackTexture(cardWidth, cardHeight);
+    }
+}
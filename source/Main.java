@@ -1,27 +1,66 @@
 import model.CaboGame;
 
 import util.CaboIO;
+import util.StartupTimer;
+import view.AssetPreloader;
 import view.Frame;
+import view.SwingEffects;
 
 import javax.swing.*;
 import java.awt.*;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Runs the game. Although technically a controller this class can be found
  * more easily if it's not in that package.
  * If an old game state is available it is loaded into the game.
+ * Startup runs concurrently: the textures and sounds are preloaded in the
+ * background, the saved game is loaded on a thread of its own, and the look
+ * and feel is set on the EDT, after which the window is shown right away
+ * with a placeholder. The game board replaces the placeholder once both the
+ * saved game and the textures are ready.
+ * Run with --startup-report to print how long each stage took.
  */
 public class Main {
+
+    private static final String STARTUP_REPORT_FLAG = "--startup-report";
+
     public static void main(String[] args) {
 
-        try {
-            UIManager.setLookAndFeel(
-                    UIManager.getSystemLookAndFeelClassName());
-        } catch (Exception e) {
-            System.err.println("Couldn't set system look and feel: " + e.getLocalizedMessage());
-        }
+        StartupTimer.start(args.length > 0 && args[0].equals(STARTUP_REPORT_FLAG));
+        AssetPreloader.start();
+
+        CompletableFuture<Frame> frame = new CompletableFuture<>();
+        EventQueue.invokeLater(() -> {
+            StartupTimer.stageStarted(StartupTimer.Stage.LOOK_AND_FEEL);
+            try {
+                UIManager.setLookAndFeel(
+                        UIManager.getSystemLookAndFeelClassName());
+            } catch (Exception e) {
+                System.err.println("Couldn't set system look and feel: " + e.getLocalizedMessage());
+            }
+            StartupTimer.stageFinished(StartupTimer.Stage.LOOK_AND_FEEL);
+
+            StartupTimer.stageStarted(StartupTimer.Stage.PLACEHOLDER_FRAME);
+            frame.complete(new Frame());
+        });
+
+        CaboGame.setEffects(new SwingEffects());
+        CompletableFuture<CaboGame> game = new CompletableFuture<>();
+        Thread loader = new Thread(() -> {
+            StartupTimer.stageStarted(StartupTimer.Stage.AUTO_SAVE);
+            try {
+                game.complete(CaboIO.tryLoadAutoSave());
+            } catch (RuntimeException e) {
+                System.err.println("Couldn't load auto-save: " + e.getLocalizedMessage());
+                game.complete(new CaboGame());
+            }
+            StartupTimer.stageFinished(StartupTimer.Stage.AUTO_SAVE);
+        }, "auto-save-loader");
+        loader.start();
 
-        CaboGame game = CaboIO.tryLoadAutoSave();
-        EventQueue.invokeLater(() -> new Frame(game));
+        game.thenCombine(AssetPreloader.getTextureReadiness(), (loadedGame, ignored) -> loadedGame)
+                .thenAcceptBoth(frame, (loadedGame, loadedFrame) ->
+                        EventQueue.invokeLater(() -> loadedFrame.showGame(loadedGame)));
     }
 }
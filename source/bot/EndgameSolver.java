@@ -0,0 +1,330 @@
+package bot;
+
+import model.CompactGameState;
+import model.card.CaboCard;
+import model.turnphase.Move;
+import model.turnphase.PhaseEngine;
+import model.turnphase.TurnPhase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static model.CompactGameState.*;
+
+/**
+ * @version 1.0
+ *
+ * Solves the end of a game of Cabo exactly. Once Cabo has been called, only the turn of the other player remains, so
+ * the rest of the game is a small tree: the solver plays every legal move on a PhaseEngine - including dropping cards,
+ * and the pickups and transfers that follow - and takes the best move for whoever is to move. Drawing a card from the
+ * deck is a chance event, so the solver averages over every card that could be on top of the deck. Cards with the same
+ * value and discard ability are interchangeable, so each kind of card in the deck is only tried once, weighted by how
+ * many of that kind there are.
+ *
+ * A drop that doesn't match the discard pile leaves the card where it was and adds a card from the deck to the hand
+ * instead, after which the player can drop again - so a turn can go on for as long as the deck lasts. To keep the tree
+ * small, the solver only allows a limited number of such drops in the rest of the game, given when it is constructed.
+ * The values are exact for every line of play within that limit. Since each of these drops costs a card of 6 points on
+ * average, they are rarely worth making more than once.
+ *
+ * The value of a position is the chance that player 1 wins it, counting a tie as half a win. Values are memoized in a
+ * transposition table, keyed by the position with the order of the hands and the deck left out - a hand can be
+ * reordered without changing which moves it allows, and the order of the deck doesn't matter when every draw is
+ * averaged over. For the same reason, picking up a card is only tried at the front of the hand. The selected card is
+ * left out too, except in the PeekPhase - there, dropping a card of the opponent drops the card that is still selected,
+ * so whether a drop matches is told by whether it leads to a PickupPhase. The search stops looking at the moves of a
+ * position as soon as one of them is a sure win for the player to move.
+ *
+ * Games in which Cabo wasn't called yet are not solved, however small the deck is. When the deck runs out, the discard
+ * pile is shuffled back into it, so the game only ends after someone calls Cabo and has no bounded tree before that.
+ * The closest exact value of such a position is the value of calling Cabo, which getMoveValues() does give.
+ *
+ * The solver sees the cards in both hands, so it solves a single deal of the hidden cards. The cards in the deck it
+ * treats as unknown. A position that takes more than the node budget - or more than MAX_DEPTH moves in a row - to solve
+ * is given up on.
+ *
+ * A solver is not thread-safe, but many solvers can be used at once.
+ *
+ * @see PhaseEngine
+ * @see IsmctsController
+ */
+public class EndgameSolver {
+
+    /**
+     * The longest line of play the solver follows. A single turn only gets this long through dozens of drops.
+     */
+    public static final int MAX_DEPTH = 200;
+
+    private static final CaboCard[] CABO_CARDS = CaboCard.values();
+
+    /**
+     * The kind of every card, which is the same for cards with the same value and discard ability.
+     */
+    private static final int[] KIND_OF_CARD = new int[CARD_COUNT];
+
+    static {
+        List<CaboCard> kinds = new ArrayList<>();
+        for (CaboCard card : CABO_CARDS) {
+            int kind = 0;
+            while (kind < kinds.size()
+                    && (kinds.get(kind).value != card.value || kinds.get(kind).discardAbility != card.discardAbility))
+                ++kind;
+            if (kind == kinds.size())
+                kinds.add(card);
+            KIND_OF_CARD[card.ordinal()] = kind;
+        }
+    }
+
+    private final long maxNodes;
+    private final int maxMismatchedDrops;
+    private final Map<CompactGameState, Double> table = new HashMap<>();
+    private final List<Level> levels = new ArrayList<>();
+    private long nodes;
+
+    /**
+     * Constructs a solver with an empty transposition table.
+     *
+     * @param maxNodes The number of positions a single call may expand before it gives up.
+     * @param maxMismatchedDrops The number of drops that don't match the discard pile allowed in the rest of the game.
+     */
+    public EndgameSolver(long maxNodes, int maxMismatchedDrops) {
+        this.maxNodes = maxNodes;
+        this.maxMismatchedDrops = maxMismatchedDrops;
+    }
+
+    /**
+     * Solves the rest of a game that is in its last turn.
+     *
+     * @param state The state to solve, which isn't changed.
+     * @return The chance that the current player wins with best play by both players, or NaN if the node budget ran out.
+     * @throws IllegalArgumentException If Cabo wasn't called yet.
+     */
+    public double getValue(CompactGameState state) {
+        if (!state.caboWasCalled() && !state.isOver())
+            throw new IllegalArgumentException("Only games in which Cabo was called can be solved");
+
+        level(0).state.copyFrom(state);
+        nodes = 0;
+        try {
+            double value = value(0, maxMismatchedDrops);
+            return state.getCurrentPlayer() == 0 ? value : 1 - value;
+        } catch (BudgetExceeded e) {
+            return Double.NaN;
+        }
+    }
+
+    /**
+     * Solves the rest of a game after each of the given moves. Only moves that bring the game into its last turn can be
+     * solved - so this can value calling Cabo, as well as every move after Cabo was called.
+     *
+     * @param state The state to play the moves in, which isn't changed.
+     * @param moves Legal moves of the state.
+     * @param moveCount The number of moves.
+     * @param values The array to put the chance that the current player wins after each move in, with best play by
+     *               both players. Moves that can't be solved, that change nothing, or that drop a card beyond the limit
+     *               are valued as NaN.
+     * @return Whether the moves were solved, or false if the node budget ran out.
+     */
+    public boolean getMoveValues(CompactGameState state, int[] moves, int moveCount, double[] values) {
+        boolean firstPlayer = state.getCurrentPlayer() == 0;
+        nodes = 0;
+        try {
+            for (int i = 0; i < moveCount; ++i) {
+                if (!state.caboWasCalled() && Move.kind(moves[i]) != Move.CALL_CABO) {
+                    values[i] = Double.NaN;
+                    continue;
+                }
+                level(0).state.copyFrom(state);
+                double value = moveValue(0, moves[i], maxMismatchedDrops);
+                values[i] = firstPlayer ? value : 1 - value;
+            }
+            return true;
+        } catch (BudgetExceeded e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return The number of positions expanded by the last call.
+     */
+    public long getNodeCount() {
+        return nodes;
+    }
+
+    /**
+     * @return The number of positions in the transposition table.
+     */
+    public int getTableSize() {
+        return table.size();
+    }
+
+    /**
+     * Empties the transposition table.
+     */
+    public void clear() {
+        table.clear();
+    }
+
+    /**
+     * @return The chance that player 1 wins from the state of the given level, when the given number of drops that
+     *         don't match the discard pile are still allowed.
+     */
+    private double value(int depth, int mismatchedDropsLeft) {
+        CompactGameState state = levels.get(depth).state;
+        if (state.isOver())
+            return reward(state);
+
+        CompactGameState key = canonicalKey(state, mismatchedDropsLeft);
+        Double known = table.get(key);
+        if (known != null)
+            return known;
+        if (++nodes > maxNodes || depth >= MAX_DEPTH)
+            throw BudgetExceeded.INSTANCE;
+
+        Level level = levels.get(depth);
+        int moveCount = level.engine.getLegalMoves(level.moves);
+        boolean maximize = state.getCurrentPlayer() == 0;
+        double best = maximize ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+
+        for (int i = 0; i < moveCount; ++i) {
+            int move = level.moves[i];
+            if (Move.kind(move) == Move.PICKUP && Move.first(move) != 0)
+                continue;
+            double value = moveValue(depth, move, mismatchedDropsLeft);
+            if (Double.isNaN(value))
+                continue;
+            best = maximize ? Math.max(best, value) : Math.min(best, value);
+            if (best == (maximize ? 1 : 0))
+                break;
+        }
+
+        table.put(key, best);
+        return best;
+    }
+
+    /**
+     * @return The chance that player 1 wins after the move is played in the state of the given level, averaged over
+     *         the card on top of the deck if the move takes it - or NaN if the move changes nothing, like dropping a
+     *         card of the opponent in the PeekPhase with nothing selected, or if it drops a card that doesn't match
+     *         the discard pile when no more such drops are allowed.
+     */
+    private double moveValue(int depth, int move, int mismatchedDropsLeft) {
+        CompactGameState state = levels.get(depth).state;
+        Level child = level(depth + 1);
+
+        if (Move.kind(move) != Move.DRAW_FROM_DECK && Move.kind(move) != Move.PICKUP) {
+            child.state.copyFrom(state);
+            child.engine.play(move);
+            if (Move.kind(move) == Move.DROP && child.state.getPhaseName() == TurnPhase.PhaseName.PICKUP) {
+                if (mismatchedDropsLeft == 0)
+                    return Double.NaN;
+                --mismatchedDropsLeft;
+            }
+            if (child.state.equals(state))
+                return Double.NaN;
+            return value(depth + 1, mismatchedDropsLeft);
+        }
+
+        // The deck is shuffled first when a pickup finds it empty, like the engine would.
+        Level level = levels.get(depth);
+        level.chanceState.copyFrom(state);
+        if (level.chanceState.size(DECK) == 0)
+            level.chanceEngine.shuffleInDiscardPile();
+        int deckSize = level.chanceState.size(DECK);
+        if (deckSize == 0) {
+            child.state.copyFrom(level.chanceState);
+            child.engine.play(move);
+            return value(depth + 1, mismatchedDropsLeft);
+        }
+
+        int[] kindCounts = level.kindCounts;
+        Arrays.fill(kindCounts, 0);
+        for (int i = 0; i < deckSize; ++i)
+            ++kindCounts[KIND_OF_CARD[level.chanceState.cardAt(DECK, i)]];
+
+        double sum = 0;
+        for (int i = 0; i < deckSize; ++i) {
+            int kind = KIND_OF_CARD[level.chanceState.cardAt(DECK, i)];
+            int count = kindCounts[kind];
+            if (count == 0)
+                continue;
+            kindCounts[kind] = 0;
+            child.state.copyFrom(level.chanceState);
+            child.state.swapCards(DECK, i, DECK, deckSize - 1);
+            child.engine.play(move);
+            sum += count * value(depth + 1, mismatchedDropsLeft);
+        }
+        return sum / deckSize;
+    }
+
+    /**
+     * @return 1 if player 1 has fewer points than player 2, 0 if they have more, and 0.5 for a tie.
+     */
+    private static double reward(CompactGameState state) {
+        int points1 = state.getPoints(0);
+        int points2 = state.getPoints(1);
+        return points1 < points2 ? 1 : points1 > points2 ? 0 : 0.5;
+    }
+
+    /**
+     * @return A copy of the state with the hands and the deck sorted, and without the parts of the state that don't
+     *         change its value - what the players know, and the selected card outside of the PeekPhase. The known mask
+     *         of player 1 holds the number of drops that don't match the discard pile left instead, since that does
+     *         change the value.
+     */
+    private static CompactGameState canonicalKey(CompactGameState state, int mismatchedDropsLeft) {
+        CompactGameState key = new CompactGameState(state);
+        sortZone(key, DECK);
+        sortZone(key, PLAYER1_HAND);
+        sortZone(key, PLAYER2_HAND);
+        if (key.getPhaseName() != TurnPhase.PhaseName.PEEK)
+            key.setSelectedCard(NO_CARD);
+        key.setKnownMask(0, mismatchedDropsLeft);
+        key.setKnownMask(1, 0);
+        return key;
+    }
+
+    private static void sortZone(CompactGameState state, int zone) {
+        int size = state.size(zone);
+        for (int i = 1; i < size; ++i)
+            for (int j = i; j > 0 && state.cardAt(zone, j - 1) > state.cardAt(zone, j); --j)
+                state.swapCards(zone, j - 1, zone, j);
+    }
+
+    private Level level(int depth) {
+        while (levels.size() <= depth)
+            levels.add(new Level());
+        return levels.get(depth);
+    }
+
+    /**
+     * The buffers used at one depth of the search, so that the search itself doesn't allocate.
+     */
+    private static class Level {
+
+        final CompactGameState state = new CompactGameState();
+        final PhaseEngine engine = new PhaseEngine(state, new SplittableRandom(0));
+        final CompactGameState chanceState = new CompactGameState();
+        final PhaseEngine chanceEngine = new PhaseEngine(chanceState, new SplittableRandom(0));
+        final int[] moves = new int[Move.MAX_MOVES];
+        final int[] kindCounts = new int[CARD_COUNT];
+    }
+
+    /**
+     * Thrown to abandon a search that ran out of nodes.
+     */
+    private static class BudgetExceeded extends RuntimeException {
+
+        private static final long serialVersionUID = 42L;
+
+        static final BudgetExceeded INSTANCE = new BudgetExceeded();
+
+        BudgetExceeded() {
+            super(null, null, false, false);
+        }
+    }
+}
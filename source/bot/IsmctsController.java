@@ -0,0 +1,381 @@
+package bot;
+
+import model.CompactGameState;
+import model.turnphase.Move;
+import model.turnphase.PhaseEngine;
+import model.turnphase.TurnPhase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static model.CompactGameState.*;
+
+/**
+ * @version 1.3
+ *
+ * A computer player which chooses its moves with information set Monte Carlo tree search. Every iteration of the
+ * search deals the cards the player doesn't know at random with PlayerView.sampleState(), walks down the tree along
+ * the moves that are legal in that deal - choosing between them by their upper confidence bound - adds one new move to
+ * the tree, and plays the rest of the game out with random moves on a PhaseEngine. The result of the playout is then
+ * added to every move along the way, from the point of view of the player who made it.
+ *
+ * The search is parallelized at the root - every worker thread grows a tree of its own from its own random source, and
+ * once the time budget is spent the visits of the moves at the root of all trees are added up. The move with the most
+ * visits is played. Since the trees grow for as long as the budget lasts, the player gets stronger with more time.
+ *
+ * Once Cabo has been called only the turn of the player who didn't call it is left, which is short enough to be solved
+ * exactly with an EndgameSolver. The solver sees every card in the hands, so it is only used when the player knows all
+ * of them - the order of the deck it averages over by itself. Solving sampled deals of hands the player doesn't know
+ * lets every deal act on cards the player can't see, which plays no better than searching. Should a position be too
+ * large to solve, the player falls back to searching as well.
+ *
+ * After every move the number of playouts and the playouts per second are reported, if reporting is turned on. The
+ * worker threads keep running until the player is closed.
+ *
+ * @see PlayerView
+ * @see EndgameSolver
+ * @see PhaseEngine
+ * @see PlayerController
+ */
+public class IsmctsController implements PlayerController, AutoCloseable {
+
+    /**
+     * How strongly the search explores moves it hasn't tried much, in the upper confidence bound.
+     */
+    private static final double EXPLORATION = 0.7;
+
+    /**
+     * The number of moves after which a playout is cut off, and scored by the points the players have at that time.
+     */
+    private static final int MAX_PLAYOUT_MOVES = 500;
+
+    /**
+     * The longest time left before the deadline at which the workers stop, to leave time for merging the trees.
+     */
+    private static final long MAX_SAFETY_MARGIN_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    /**
+     * The fraction of the time budget that is kept as a safety margin, if that is shorter than the longest margin - so
+     * that short budgets are still mostly spent searching.
+     */
+    private static final double SAFETY_MARGIN_FRACTION = 0.2;
+
+    /**
+     * The number of positions the EndgameSolver may expand for a single move before the player falls back to searching.
+     */
+    private static final long MAX_SOLVER_NODES = 100_000;
+
+    /**
+     * The number of drops that don't match the discard pile the EndgameSolver looks at in the rest of the game.
+     */
+    private static final int MAX_MISMATCHED_DROPS = 1;
+
+    private static final AtomicInteger controllerNumber = new AtomicInteger();
+
+    private final int workerCount;
+    private final boolean reportMoves;
+    private final ExecutorService executor;
+    private final SplittableRandom random;
+
+    private volatile long lastPlayouts;
+    private volatile long lastElapsedNanos;
+
+    /**
+     * Constructs a player which searches on the given number of worker threads.
+     *
+     * @param workerCount The number of worker threads, each of which grows a tree of its own.
+     * @param seed The seed from which the random sources of all searches are split.
+     * @param reportMoves Whether to print the number of playouts after every move.
+     */
+    public IsmctsController(int workerCount, long seed, boolean reportMoves) {
+        this.workerCount = workerCount;
+        this.reportMoves = reportMoves;
+        this.random = new SplittableRandom(seed);
+
+        int number = controllerNumber.incrementAndGet();
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "ismcts-" + number + "-worker-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Solves the rest of the game if Cabo has been called and the player knows both hands, or else searches until
+     * shortly before the deadline, and returns the move that was visited most at the root.
+     *
+     * @param phaseName The name of the current TurnPhase.
+     * @param view The game as seen by the player who has to move.
+     * @param deadlineNanos The System.nanoTime() by which the move should be chosen.
+     * @return One of the legal moves of the view.
+     */
+    @Override
+    public int chooseMove(TurnPhase.PhaseName phaseName, PlayerView view, long deadlineNanos) {
+        if (view.getLegalMoveCount() == 1)
+            return view.getLegalMove(0);
+
+        long start = System.nanoTime();
+        long budget = Math.max(0, deadlineNanos - start);
+        long stop = deadlineNanos - Math.min(MAX_SAFETY_MARGIN_NANOS, (long) (budget * SAFETY_MARGIN_FRACTION));
+        stop = Math.max(start, stop);
+
+        if ((view.hasCalledCabo(0) || view.hasCalledCabo(1)) && knowsBothHands(view)) {
+            int solved = solveEndgame(view, start);
+            if (solved >= 0)
+                return view.getLegalMove(solved);
+        }
+
+        List<Future<Node>> searches = new ArrayList<>(workerCount);
+        for (int i = 0; i < workerCount; ++i)
+            searches.add(executor.submit(new Search(view, splitRandom(), stop)));
+
+        long[] visits = new long[view.getLegalMoveCount()];
+        double[] rewards = new double[view.getLegalMoveCount()];
+        long playouts = 0;
+        try {
+            for (Future<Node> search : searches) {
+                Node root = search.get();
+                playouts += root.visits;
+                for (Node child : root.children) {
+                    int index = indexOf(view, child.move);
+                    if (index >= 0) {
+                        visits[index] += child.visits;
+                        rewards[index] += child.reward;
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            searches.forEach(search -> search.cancel(true));
+            return view.getDefaultMove();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Search failed", e.getCause());
+        }
+
+        int best = 0;
+        for (int i = 1; i < visits.length; ++i)
+            if (visits[i] > visits[best])
+                best = i;
+
+        lastPlayouts = playouts;
+        lastElapsedNanos = System.nanoTime() - start;
+        if (reportMoves)
+            System.out.printf("Player %d: %s after %d playouts in %.0f ms (%.0f playouts/s on %d workers), " +
+                            "visited %.0f%%, won %.0f%%\n",
+                    view.getPlayer() + 1, Move.toString(view.getLegalMove(best)), playouts, lastElapsedNanos / 1e6,
+                    getLastPlayoutsPerSecond(), workerCount, 100.0 * visits[best] / Math.max(1, playouts),
+                    100.0 * rewards[best] / Math.max(1, visits[best]));
+        return view.getLegalMove(best);
+    }
+
+    /**
+     * @return The number of playouts of the last move that was chosen by searching.
+     */
+    public long getLastPlayouts() {
+        return lastPlayouts;
+    }
+
+    /**
+     * @return The number of playouts per second of the last move that was chosen by searching.
+     */
+    public double getLastPlayoutsPerSecond() {
+        return lastElapsedNanos == 0 ? 0 : lastPlayouts * 1e9 / lastElapsedNanos;
+    }
+
+    /**
+     * Stops the worker threads.
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Solves the rest of the game with an EndgameSolver, on the calling thread.
+     *
+     * @return The index of the legal move with the highest value, or -1 if the position couldn't be solved.
+     */
+    private int solveEndgame(PlayerView view, long start) {
+        int moveCount = view.getLegalMoveCount();
+        int[] moves = new int[moveCount];
+        for (int i = 0; i < moveCount; ++i)
+            moves[i] = view.getLegalMove(i);
+
+        // The hands are known, so the sample only differs from the game in the order of the deck.
+        CompactGameState state = new CompactGameState();
+        view.sampleState(state, splitRandom());
+        EndgameSolver solver = new EndgameSolver(MAX_SOLVER_NODES, MAX_MISMATCHED_DROPS);
+        double[] values = new double[moveCount];
+        if (!solver.getMoveValues(state, moves, moveCount, values))
+            return -1;
+
+        int best = -1;
+        for (int i = 0; i < moveCount; ++i)
+            if (!Double.isNaN(values[i]) && (best < 0 || values[i] > values[best]))
+                best = i;
+        if (best >= 0 && reportMoves)
+            System.out.printf("Player %d: %s after solving %d positions in %.0f ms, won %.0f%%\n",
+                    view.getPlayer() + 1, Move.toString(moves[best]), solver.getNodeCount(),
+                    (System.nanoTime() - start) / 1e6, 100.0 * values[best]);
+        return best;
+    }
+
+    /**
+     * @return Whether the player knows every card in both hands, so that only the order of the deck is unknown.
+     */
+    private static boolean knowsBothHands(PlayerView view) {
+        for (int zone = PLAYER1_HAND; zone <= PLAYER2_HAND; ++zone)
+            for (int i = 0; i < view.size(zone); ++i)
+                if (view.getKnownCard(zone, i) == NO_CARD)
+                    return false;
+        return true;
+    }
+
+    private synchronized SplittableRandom splitRandom() {
+        return random.split();
+    }
+
+    private static int indexOf(PlayerView view, int move) {
+        for (int i = 0; i < view.getLegalMoveCount(); ++i)
+            if (view.getLegalMove(i) == move)
+                return i;
+        return -1;
+    }
+
+    /**
+     * A move in the search tree. Its statistics are from the point of view of the player who made the move.
+     */
+    private static class Node {
+
+        final int move;
+        final int player;
+        final List<Node> children = new ArrayList<>(4);
+        long visits;
+        long availability;
+        double reward;
+
+        Node(int move, int player) {
+            this.move = move;
+            this.player = player;
+        }
+
+        Node getChild(int move) {
+            for (Node child : children)
+                if (child.move == move)
+                    return child;
+            return null;
+        }
+    }
+
+    /**
+     * Grows a single tree on a worker thread until the stop time, and returns its root.
+     */
+    private static class Search implements Callable<Node> {
+
+        private final PlayerView view;
+        private final SplittableRandom random;
+        private final long stop;
+        private final CompactGameState state = new CompactGameState();
+        private final PhaseEngine engine;
+        private final int[] moves = new int[Move.MAX_MOVES];
+        private final int[] untriedMoves = new int[Move.MAX_MOVES];
+        private final List<Node> path = new ArrayList<>();
+
+        Search(PlayerView view, SplittableRandom random, long stop) {
+            this.view = view;
+            this.random = random;
+            this.stop = stop;
+            engine = new PhaseEngine(state, random);
+        }
+
+        @Override
+        public Node call() {
+            Node root = new Node(0, -1);
+            do {
+                iterate(root);
+            } while (System.nanoTime() < stop && !Thread.currentThread().isInterrupted());
+            return root;
+        }
+
+        private void iterate(Node root) {
+            view.sampleState(state, random);
+            path.clear();
+            path.add(root);
+
+            Node node = root;
+            while (!state.isOver()) {
+                int moveCount = engine.getLegalMoves(moves);
+                int untriedCount = 0;
+                Node best = null;
+                double bestBound = Double.NEGATIVE_INFINITY;
+                for (int i = 0; i < moveCount; ++i) {
+                    Node child = node.getChild(moves[i]);
+                    if (child == null) {
+                        untriedMoves[untriedCount++] = moves[i];
+                        continue;
+                    }
+                    ++child.availability;
+                    double bound = child.reward / child.visits
+                            + EXPLORATION * Math.sqrt(Math.log(child.availability) / child.visits);
+                    if (bound > bestBound) {
+                        bestBound = bound;
+                        best = child;
+                    }
+                }
+
+                if (untriedCount > 0) {
+                    Node child = new Node(untriedMoves[random.nextInt(untriedCount)], state.getCurrentPlayer());
+                    node.children.add(child);
+                    path.add(child);
+                    engine.play(child.move);
+                    break;
+                }
+                path.add(best);
+                engine.play(best.move);
+                node = best;
+            }
+
+            playOut();
+
+            double reward1 = getReward(0);
+            ++root.visits;
+            for (int i = 1; i < path.size(); ++i) {
+                Node visited = path.get(i);
+                ++visited.visits;
+                visited.reward += visited.player == 0 ? reward1 : 1 - reward1;
+            }
+        }
+
+        /**
+         * Plays random moves until the game is over, never dropping cards since a random drop rarely matches.
+         */
+        private void playOut() {
+            for (int played = 0; played < MAX_PLAYOUT_MOVES && !state.isOver(); ++played) {
+                int moveCount = engine.getLegalMoves(moves);
+                int candidates = 0;
+                for (int i = 0; i < moveCount; ++i)
+                    if (Move.kind(moves[i]) != Move.DROP)
+                        moves[candidates++] = moves[i];
+                engine.play(candidates == 0 ? moves[random.nextInt(moveCount)] : moves[random.nextInt(candidates)]);
+            }
+        }
+
+        /**
+         * @return 1 if the given player has fewer points than the opponent, 0 if they have more, and 0.5 for a tie.
+         */
+        private double getReward(int player) {
+            int points = state.getPoints(player);
+            int opponentPoints = state.getPoints(1 - player);
+            return points < opponentPoints ? 1 : points > opponentPoints ? 0 : 0.5;
+        }
+    }
+}
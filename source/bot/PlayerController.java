@@ -0,0 +1,44 @@
+package bot;
+
+import model.turnphase.Move;
+import model.turnphase.TurnPhase;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * @version 1.0
+ *
+ * Chooses the moves of a computer player. Whenever it is the player's turn to move, the controller is given the name of
+ * the current TurnPhase and a PlayerView of the game, and returns one of the legal moves in the view, encoded as in
+ * Move. The move is then played on the game with CaboGame.playMove(), through the same TurnPhase methods a human player
+ * uses.
+ *
+ * Controllers are called off the EDT, and should return before the deadline they are given. A controller that doesn't
+ * is interrupted, and its player makes the default move of the view instead. The same controller is never called by two
+ * threads at once.
+ *
+ * @see PlayerView
+ * @see controller.BotDriver
+ */
+public interface PlayerController {
+
+    /**
+     * A controller which picks one of the legal moves uniformly at random, except that it never drops a card.
+     */
+    PlayerController RANDOM = (phaseName, view, deadlineNanos) -> {
+        int[] moves = new int[view.getLegalMoveCount()];
+        int moveCount = 0;
+        for (int i = 0; i < moves.length; ++i)
+            if (Move.kind(view.getLegalMove(i)) != Move.DROP)
+                moves[moveCount++] = view.getLegalMove(i);
+        return moveCount == 0 ? view.getDefaultMove() : moves[ThreadLocalRandom.current().nextInt(moveCount)];
+    };
+
+    /**
+     * @param phaseName The name of the current TurnPhase.
+     * @param view The game as seen by the player who has to move.
+     * @param deadlineNanos The System.nanoTime() by which the move should be chosen.
+     * @return One of the legal moves of the view.
+     */
+    int chooseMove(TurnPhase.PhaseName phaseName, PlayerView view, long deadlineNanos);
+}
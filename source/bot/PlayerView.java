@@ -0,0 +1,241 @@
+package bot;
+
+import model.CaboGame;
+import model.CompactGameState;
+import model.turnphase.Move;
+import model.turnphase.PhaseEngine;
+import model.turnphase.TurnPhase;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static model.CompactGameState.*;
+
+/**
+ * @version 1.1
+ *
+ * What a single player can see of a game of Cabo, at the moment they have to choose a move. A view is a snapshot - it
+ * is taken from the game on the thread that owns it, and can then be handed to a PlayerController on any other thread,
+ * since it never changes and never refers back to the game.
+ *
+ * A view reveals the cards that are face-up and the cards on the discard pile, as well as the cards the player has seen
+ * according to the known masks of the state - but not the other face-down cards in the hands and the deck, for those it
+ * only tells how many there are. Of the opponent, it only tells which of the cards they have seen, not what they are.
+ *
+ * Since a controller can't look at the hidden cards, sampleState() deals them out at random instead, which gives a state
+ * of the game that is consistent with everything the player knows. Zones, players and cards are numbered as in
+ * CompactGameState, and moves are encoded as in Move.
+ *
+ * @see PlayerController
+ * @see CompactGameState
+ * @see Move
+ */
+public class PlayerView {
+
+    private final CompactGameState state;
+    private final int player;
+    private final int[] legalMoves;
+
+    // The places of the cards the player doesn't know, and whether the opponent knows the card in each place.
+    private final int[] unknownZones;
+    private final int[] unknownIndices;
+    private final boolean[] opponentKnowsSlot;
+    private final long unknownMask;
+
+    /**
+     * Takes a snapshot of a CaboGame, as seen by one of its players.
+     *
+     * @param game The CaboGame to take the snapshot of.
+     * @param player The player who sees the game, 0 or 1.
+     * @throws IllegalArgumentException If the game can't be packed into a CompactGameState.
+     */
+    public PlayerView(CaboGame game, int player) {
+        this(CompactGameState.of(game), player);
+    }
+
+    /**
+     * Takes a snapshot of a CompactGameState, as seen by one of its players.
+     *
+     * @param state The state to take the snapshot of, which is copied.
+     * @param player The player who sees the game, 0 or 1.
+     */
+    public PlayerView(CompactGameState state, int player) {
+        this.state = new CompactGameState(state);
+        this.player = player;
+
+        int[] moves = new int[Move.MAX_MOVES];
+        int moveCount = new PhaseEngine(this.state, new SplittableRandom(0)).getLegalMoves(moves);
+        legalMoves = Arrays.copyOf(moves, moveCount);
+
+        int[] zones = new int[CARD_COUNT];
+        int[] indices = new int[CARD_COUNT];
+        boolean[] opponentKnows = new boolean[CARD_COUNT];
+        int slotCount = 0;
+        long unknown = 0;
+        for (int zone : new int[] { DECK, PLAYER1_HAND, PLAYER2_HAND }) {
+            for (int i = 0; i < this.state.size(zone); ++i) {
+                if (!isKnownBy(player, zone, i)) {
+                    int card = this.state.cardAt(zone, i);
+                    zones[slotCount] = zone;
+                    indices[slotCount] = i;
+                    opponentKnows[slotCount] = this.state.isKnown(1 - player, card);
+                    unknown |= 1L << card;
+                    ++slotCount;
+                }
+            }
+        }
+        unknownZones = Arrays.copyOf(zones, slotCount);
+        unknownIndices = Arrays.copyOf(indices, slotCount);
+        opponentKnowsSlot = Arrays.copyOf(opponentKnows, slotCount);
+        unknownMask = unknown;
+    }
+
+    /**
+     * @return The player who sees the game, 0 or 1.
+     */
+    public int getPlayer() {
+        return player;
+    }
+
+    /**
+     * @return The player whose turn it is, 0 or 1.
+     */
+    public int getCurrentPlayer() {
+        return state.getCurrentPlayer();
+    }
+
+    /**
+     * @return The name of the current TurnPhase.
+     */
+    public TurnPhase.PhaseName getPhaseName() {
+        return state.getPhaseName();
+    }
+
+    /**
+     * @param zone A zone, such as DECK or PLAYER1_HAND.
+     * @return The number of cards in the zone.
+     */
+    public int size(int zone) {
+        return state.size(zone);
+    }
+
+    /**
+     * @param zone A zone, such as DECK or PLAYER1_HAND.
+     * @param index The index of a card in the zone, from 0 to size(zone).
+     * @return The card at the index if it can be seen - because it is face-up or on the discard pile - or NO_CARD.
+     */
+    public int getVisibleCard(int zone, int index) {
+        int card = state.cardAt(zone, index);
+        return zone == DISCARD_PILE || state.isFaceUp(card) ? card : NO_CARD;
+    }
+
+    /**
+     * @param zone A zone, such as DECK or PLAYER1_HAND.
+     * @param index The index of a card in the zone, from 0 to size(zone).
+     * @return The card at the index if it can be seen or the player has seen it before, or NO_CARD.
+     */
+    public int getKnownCard(int zone, int index) {
+        return isKnownBy(player, zone, index) ? state.cardAt(zone, index) : NO_CARD;
+    }
+
+    /**
+     * @param player A player, 0 or 1.
+     * @param zone A zone, such as DECK or PLAYER1_HAND.
+     * @param index The index of a card in the zone, from 0 to size(zone).
+     * @return Whether the given player knows which card is at the index.
+     */
+    public boolean isKnownBy(int player, int zone, int index) {
+        int card = state.cardAt(zone, index);
+        return zone == DISCARD_PILE || state.isFaceUp(card) || state.isKnown(player, card);
+    }
+
+    /**
+     * Overwrites a state with the state of the game, except that every card the player doesn't know is swapped with a
+     * random other unknown card. Which cards the opponent knows stays tied to where the cards are, not to what they are.
+     * Since the view never changes, this can be called by many threads at once.
+     *
+     * @param sample The state to overwrite.
+     * @param random The random source used to deal the unknown cards.
+     */
+    public void sampleState(CompactGameState sample, SplittableRandom random) {
+        sample.copyFrom(state);
+
+        int opponent = 1 - player;
+        int slotCount = unknownZones.length;
+        for (int i = slotCount - 1; i > 0; --i) {
+            int j = random.nextInt(i + 1);
+            if (i != j)
+                sample.swapCards(unknownZones[i], unknownIndices[i], unknownZones[j], unknownIndices[j]);
+        }
+
+        long opponentMask = sample.getKnownMask(opponent) & ~unknownMask;
+        for (int i = 0; i < slotCount; ++i)
+            if (opponentKnowsSlot[i])
+                opponentMask |= 1L << sample.cardAt(unknownZones[i], unknownIndices[i]);
+        sample.setKnownMask(opponent, opponentMask);
+    }
+
+    /**
+     * @return The top card of the discard pile, or NO_CARD if it is empty.
+     */
+    public int getTopOfDiscardPile() {
+        return state.size(DISCARD_PILE) == 0 ? NO_CARD : state.top(DISCARD_PILE);
+    }
+
+    /**
+     * @param player A player, 0 or 1.
+     * @return Whether the player called Cabo.
+     */
+    public boolean hasCalledCabo(int player) {
+        return state.hasCalledCabo(player);
+    }
+
+    /**
+     * @return Whether the game is over.
+     */
+    public boolean isOver() {
+        return state.isOver();
+    }
+
+    /**
+     * @return The number of legal moves of the current player.
+     */
+    public int getLegalMoveCount() {
+        return legalMoves.length;
+    }
+
+    /**
+     * @param index The index of a legal move, from 0 to getLegalMoveCount().
+     * @return The legal move at the index.
+     */
+    public int getLegalMove(int index) {
+        return legalMoves[index];
+    }
+
+    /**
+     * @param move An encoded move.
+     * @return Whether the move is one of the legal moves.
+     */
+    public boolean isLegal(int move) {
+        for (int legalMove : legalMoves)
+            if (legalMove == move)
+                return true;
+        return false;
+    }
+
+    /**
+     * The move that is played when a PlayerController fails to choose one in time - not swapping if that is allowed,
+     * and otherwise the first legal move that doesn't drop a card, since dropping a card that doesn't match is punished.
+     *
+     * @return The default move, or 0 if there are no legal moves.
+     */
+    public int getDefaultMove() {
+        int skipSwap = Move.of(Move.SKIP_SWAP);
+        if (isLegal(skipSwap))
+            return skipSwap;
+        for (int move : legalMoves)
+            if (Move.kind(move) != Move.DROP)
+                return move;
+        return legalMoves.length > 0 ? legalMoves[0] : 0;
+    }
+}
@@ -90,6 +90,14 @@ public class Board {
         }
     }
 
+    /**
+     * @return The area covered by the DraggedCard on the screen, or null if it isn't known.
+     * @see BoardLayout#getDraggedCardBounds()
+     */
+    public Rectangle getDraggedCardBounds() {
+        return layout.getDraggedCardBounds();
+    }
+
     /**
      * @return Returns the DraggedCard of the given layout.
      */
@@ -102,10 +110,7 @@ public class Board {
      * @return Whether the given Point is in the discard area of the CaboGame.
      */
     public boolean isInDiscardArea(Point point) {
-        Rectangle extendedArea = layout.getDiscardArea();
-        extendedArea.y      -= layout.getCardSpacing() * game.getDiscardPile().size();
-        extendedArea.height += layout.getCardSpacing() * game.getDiscardPile().size();
-        return extendedArea.contains(point);
+        return isInPileArea(layout.getDiscardArea(), game.getDiscardPile().size(), point);
     }
 
     /**
@@ -113,10 +118,20 @@ public class Board {
      * @return Whether the given Point is in the deck area of the CaboGame.
      */
     public boolean isInDeckArea(Point point) {
-        Rectangle extendedArea = layout.getDeckArea();
-        extendedArea.y      -= layout.getCardSpacing() * game.getDeck().size();
-        extendedArea.height += layout.getCardSpacing() * game.getDeck().size();
-        return extendedArea.contains(point);
+        return isInPileArea(layout.getDeckArea(), game.getDeck().size(), point);
+    }
+
+    /**
+     * @param area The area of the pile, which is not modified.
+     * @param pileSize The number of cards in the pile.
+     * @param point The Point to test.
+     * @return Whether the given Point is in the area of the pile, extended upwards to cover all the stacked cards.
+     */
+    private boolean isInPileArea(Rectangle area, int pileSize, Point point) {
+        double extension = layout.getCardSpacing() * pileSize;
+        int y = (int)(area.y - extension);
+        int height = (int)(area.height + extension);
+        return point.x >= area.x && point.x < area.x + area.width && point.y >= y && point.y < y + height;
     }
 
     /**
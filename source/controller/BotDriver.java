@@ -0,0 +1,234 @@
+package controller;
+
+import bot.PlayerController;
+import bot.PlayerView;
+import model.CaboGame;
+import model.CompactGameState;
+import model.turnphase.Move;
+
+import javax.swing.*;
+import java.util.Observable;
+import java.util.Observer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @version 1.0
+ *
+ * Lets PlayerControllers play a CaboGame in place of the mouse. The driver observes the game, and whenever it becomes the
+ * turn of a player that has a controller, it takes a PlayerView of the game on the EDT and asks the controller for a
+ * move on a background thread - so the window stays responsive while the computer is thinking. The chosen move is then
+ * played on the EDT with CaboGame.playMove().
+ *
+ * Every move has a time budget. A controller that hasn't chosen a move shortly after its deadline is interrupted, and
+ * the default move of the view is played instead - as is any illegal move a controller returns. If the game changes
+ * while a controller is thinking, for example because it was reset, its move is thrown away and a new one is asked for.
+ * Moves are played no faster than MIN_MOVE_MILLIS apart, so that a human opponent can follow them.
+ *
+ * The driver is itself observed by the controls that have to be disabled while the computer is moving.
+ *
+ * @see PlayerController
+ * @see PlayerView
+ * @see CardDragger
+ */
+public class BotDriver extends Observable implements Observer {
+
+    /**
+     * The default time budget of a single move.
+     */
+    public static final long DEFAULT_TIME_BUDGET_MILLIS = 2000;
+
+    private static final int DEADLINE_GRACE_MILLIS = 250;
+    private static final int MIN_MOVE_MILLIS = 400;
+
+    private final CaboGame game;
+    private final long timeBudgetMillis;
+    private final PlayerController[] controllers = new PlayerController[2];
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "bot-player");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private MoveRequest pendingRequest;
+
+    /**
+     * Constructs a driver for the given CaboGame, in which both players are controlled by the mouse until a controller
+     * is set.
+     *
+     * @param game The CaboGame to play.
+     * @param timeBudgetMillis The time budget of a single move.
+     */
+    public BotDriver(CaboGame game, long timeBudgetMillis) {
+        this.game = game;
+        this.timeBudgetMillis = timeBudgetMillis;
+        game.addObserver(this);
+    }
+
+    /**
+     * Sets the controller of a player. Any move that is being chosen for the player is thrown away.
+     *
+     * @param player The player, 0 or 1.
+     * @param controller The controller that chooses the player's moves, or null to let the player use the mouse.
+     */
+    public void setController(int player, PlayerController controller) {
+        if (pendingRequest != null && pendingRequest.player == player)
+            cancelPendingRequest();
+        controllers[player] = controller;
+        setChanged();
+        notifyObservers();
+        requestMoveIfNeeded();
+    }
+
+    /**
+     * @param player The player, 0 or 1.
+     * @return The controller of the player, or null if the player uses the mouse.
+     */
+    public PlayerController getController(int player) {
+        return controllers[player];
+    }
+
+    /**
+     * @return Whether the current player is controlled by a PlayerController, so the mouse must be ignored.
+     */
+    public boolean isBotTurn() {
+        return !game.isOver() && controllers[currentPlayer()] != null;
+    }
+
+    /**
+     * Stops the background thread, abandoning any move that is being chosen.
+     */
+    public void close() {
+        cancelPendingRequest();
+        executor.shutdownNow();
+    }
+
+    /**
+     * Called whenever the game changes. A move that is being chosen for a state the game is no longer in is thrown away,
+     * and a new move is asked for if a controller is to move.
+     *
+     * @param observable The CaboGame.
+     * @param message The changes made to the game.
+     */
+    @Override
+    public void update(Observable observable, Object message) {
+        if (pendingRequest != null && !pendingRequest.state.equals(snapshot()))
+            cancelPendingRequest();
+        requestMoveIfNeeded();
+    }
+
+    private int currentPlayer() {
+        return game.getCurrentPlayer() == game.getPlayer2() ? 1 : 0;
+    }
+
+    private void requestMoveIfNeeded() {
+        if (pendingRequest != null || !isBotTurn() || executor.isShutdown())
+            return;
+        CompactGameState state = snapshot();
+        if (state != null)
+            pendingRequest = new MoveRequest(currentPlayer(), state);
+    }
+
+    /**
+     * @return The state of the game, or null if it can't be packed into a CompactGameState - which never happens in
+     *         games played through the CardDragger and playMove(), since both refuse drops that would nest turn phases.
+     */
+    private CompactGameState snapshot() {
+        try {
+            return CompactGameState.of(game);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private void cancelPendingRequest() {
+        if (pendingRequest != null) {
+            pendingRequest.cancel();
+            pendingRequest = null;
+        }
+    }
+
+    /**
+     * A single move being chosen by a controller. Everything but the controller call itself happens on the EDT.
+     */
+    private class MoveRequest {
+
+        private final int player;
+        private final CompactGameState state;
+        private final PlayerView view;
+        private final long startNanos = System.nanoTime();
+        private final Timer watchdog;
+        private final Future<?> future;
+        private Timer delay;
+        private boolean decided;
+
+        MoveRequest(int player, CompactGameState state) {
+            this.player = player;
+            this.state = state;
+            view = new PlayerView(state, player);
+
+            PlayerController controller = controllers[player];
+            long deadlineNanos = startNanos + TimeUnit.MILLISECONDS.toNanos(timeBudgetMillis);
+            watchdog = new Timer((int)timeBudgetMillis + DEADLINE_GRACE_MILLIS, e -> {
+                System.err.println("Player " + (player + 1) + " ran out of time, playing the default move");
+                decide(view.getDefaultMove());
+            });
+            watchdog.setRepeats(false);
+            watchdog.start();
+
+            future = executor.submit(() -> {
+                int move;
+                try {
+                    move = controller.chooseMove(view.getPhaseName(), view, deadlineNanos);
+                } catch (RuntimeException e) {
+                    System.err.println("Player " + (player + 1) + " failed to choose a move: " + e);
+                    move = view.getDefaultMove();
+                }
+                int chosenMove = move;
+                SwingUtilities.invokeLater(() -> decide(chosenMove));
+            });
+        }
+
+        /**
+         * Accepts the first move that is decided on, and plays it once MIN_MOVE_MILLIS have passed since the request.
+         */
+        private void decide(int move) {
+            if (pendingRequest != this || decided)
+                return;
+            decided = true;
+            watchdog.stop();
+            future.cancel(true);
+
+            if (!view.isLegal(move)) {
+                System.err.println("Player " + (player + 1) + " chose the illegal move " + Move.toString(move));
+                move = view.getDefaultMove();
+            }
+
+            int chosenMove = move;
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+            if (elapsedMillis >= MIN_MOVE_MILLIS) {
+                play(chosenMove);
+            } else {
+                delay = new Timer((int)(MIN_MOVE_MILLIS - elapsedMillis), e -> play(chosenMove));
+                delay.setRepeats(false);
+                delay.start();
+            }
+        }
+
+        private void play(int move) {
+            if (pendingRequest != this)
+                return;
+            pendingRequest = null;
+            game.playMove(move);
+        }
+
+        private void cancel() {
+            watchdog.stop();
+            if (delay != null)
+                delay.stop();
+            future.cancel(true);
+        }
+    }
+}
@@ -14,20 +14,26 @@ import java.awt.event.MouseEvent;
 
 /**
  * @author Jana, Boris and adapted from Demo
- * @version 4.0
+ * @version 4.1
  *
- * This controller listens for user input from the mouse and updates the model accordingly.
+ * This controller listens for user input from the mouse and updates the model accordingly. Every press and every
+ * release is performed as a single action on the CaboGame, so the view is only notified once for each. While the
+ * BotDriver is moving for a computer player, the mouse is ignored.
  * @see CaboGame
  * @see Panel
  * @see Board
  * @see Card
  * @see TurnPhase
+ * @see BotDriver
  */
 public class CardDragger extends MouseInputAdapter {
 
+    private static final int DIRTY_REGION_PADDING = 2;
+
     private final CaboGame game;
     private final Panel panel;
     private final Board board;
+    private final BotDriver botDriver;
 
     private boolean isDraggingCard;
     private int startX;
@@ -40,11 +46,13 @@ public class CardDragger extends MouseInputAdapter {
      * @param game The actual CaboGame
      * @param panel CaboPanel needed to receive mouse events from
      * @param board the CaboBoard that provides important methods indicating where a mouse is clicked
+     * @param botDriver the BotDriver that tells whether a computer player is moving
      */
-    public CardDragger(CaboGame game, Board board, Panel panel) {
+    public CardDragger(CaboGame game, Board board, Panel panel, BotDriver botDriver) {
         this.game = game;
         this.panel = panel;
         this.board = board;
+        this.botDriver = botDriver;
         panel.addMouseListener(this);
         panel.addMouseMotionListener(this);
         isDraggingCard = false;
@@ -59,18 +67,22 @@ public class CardDragger extends MouseInputAdapter {
     @Override
     public void mousePressed(MouseEvent event) {
 
+        if (botDriver.isBotTurn())
+            return;
+
         Card clickedCard = board.getCardAt(event.getPoint());
         if (clickedCard == null)
             return;
 
-        TurnPhase turnPhase = game.getTurnPhase();
-        TurnPhase.PhaseName phaseName = turnPhase.getPhaseName();
+        TurnPhase.PhaseName phaseName = game.getTurnPhase().getPhaseName();
 
-        if (phaseName == TurnPhase.PhaseName.PICKUP) {
-            if (board.isInDeckArea(event.getPoint()))
-                turnPhase.selectCard(clickedCard);
-        } else
-            turnPhase.selectCard(clickedCard);
+        game.performAction(() -> {
+            if (phaseName == TurnPhase.PhaseName.PICKUP) {
+                if (board.isInDeckArea(event.getPoint()))
+                    game.selectCard(clickedCard);
+            } else
+                game.selectCard(clickedCard);
+        });
 
         if (phaseName == TurnPhase.PhaseName.INITIAL_PEEK)
             return;
@@ -94,67 +106,73 @@ public class CardDragger extends MouseInputAdapter {
         if (!isDraggingCard)
             return;
 
-        Point releasePoint = event.getPoint();
+        game.performAction(() -> releaseDraggedCard(event.getPoint()));
+
+        board.stopDraggingCard();
+        panel.repaint();
+        isDraggingCard = false;
+    }
+
+    /**
+     * Releases the dragged card at the given point - by dropping it if it was released in the discard area, or
+     * otherwise by releasing it in the way the current turn phase expects.
+     *
+     * @param releasePoint The point at which the mouse was released.
+     */
+    private void releaseDraggedCard(Point releasePoint) {
+
         Card cardUnderReleasePoint = board.getCardAt(releasePoint);
 
         Player currentPlayer = game.getCurrentPlayer();
         Player opponent = game.getOpponent();
 
-        TurnPhase turnPhase = game.getTurnPhase();
-        TurnPhase.PhaseName phaseName = turnPhase.getPhaseName();
+        TurnPhase.PhaseName phaseName = game.getTurnPhase().getPhaseName();
 
         if (phaseName != TurnPhase.PhaseName.INITIAL_PEEK
                 && phaseName != TurnPhase.PhaseName.PICKUP
                 && phaseName != TurnPhase.PhaseName.TRANSFER_CARD
-                && board.isInDiscardArea(event.getPoint())){
-            if (turnPhase.handleCardDrop()){
-                board.stopDraggingCard();
-                panel.repaint();
-                isDraggingCard = false;
+                && board.isInDiscardArea(releasePoint)){
+            if (game.dropSelectedCard())
                 return;
-            }
         }
 
         switch(phaseName) {
             case DRAW_OR_CABO:
-                if (board.isInDrawArea(event.getPoint())){
-                    turnPhase.releaseCard();
+                if (board.isInDrawArea(releasePoint)){
+                    game.releaseCard();
                 }
                 break;
             case DISCARD_OR_SWAP:
                 if (currentPlayer.hasCard(cardUnderReleasePoint)){
-                    turnPhase.releaseCard(cardUnderReleasePoint);
+                    game.releaseCard(cardUnderReleasePoint);
                 } else if (board.isInDiscardArea(releasePoint)){
-                    turnPhase.releaseCard();
+                    game.releaseCard();
                 }
                 break;
             case PICKUP:
                 if (board.isInPlayerArea(currentPlayer, releasePoint)){
                     int insertionIndex = board.getPlayerCardInsertionIndex(currentPlayer, releasePoint);
-                    turnPhase.releaseCard(insertionIndex);
+                    game.releaseCard(insertionIndex);
                 }
                 break;
             case TRANSFER_CARD:
                 if (board.isInPlayerArea(opponent, releasePoint)){
                     int insertionIndex = board.getPlayerCardInsertionIndex(opponent, releasePoint);
-                    turnPhase.releaseCard(insertionIndex);
+                    game.releaseCard(insertionIndex);
                 }
                 break;
             case SWAP:
             case SPY_AND_SWAP:
-                turnPhase.releaseCard(cardUnderReleasePoint);
+                game.releaseCard(cardUnderReleasePoint);
                 break;
         }
-
-        board.stopDraggingCard();
-        panel.repaint();
-        isDraggingCard = false;
     }
 
 
     /**
      * If a card is isDraggingCard it is moved relative to the positions the mouse
-     * was first pressed.
+     * was first pressed. Only the region the card moved out of and into is repainted, unless it isn't known yet where
+     * the card was painted - in which case the whole panel is repainted.
      *
      * @param event The MouseEvent needed to locate the position of the cursor
      */
@@ -162,8 +180,18 @@ public class CardDragger extends MouseInputAdapter {
     public void mouseDragged(MouseEvent event) {
         if (isDraggingCard) {
             DraggedCard card = board.getDraggedCard();
+            Rectangle previousBounds = board.getDraggedCardBounds();
             card.setRelative(event.getX() - startX, event.getY() - startY);
-            panel.repaint();
+            Rectangle bounds = board.getDraggedCardBounds();
+
+            if (previousBounds == null || bounds == null) {
+                panel.repaint();
+            } else {
+                // Grow the region a little, the card edges are antialiased and may bleed out by a pixel.
+                Rectangle dirtyRegion = previousBounds.union(bounds);
+                dirtyRegion.grow(DIRTY_REGION_PADDING, DIRTY_REGION_PADDING);
+                panel.repaint(dirtyRegion);
+            }
         }
     }
 }
@@ -1,5 +1,6 @@
 package controller;
 
+import bot.PlayerController;
 import controller.buttons.*;
 import model.CaboGame;
 import view.Panel;
@@ -7,16 +8,17 @@ import view.Panel;
 import javax.swing.*;
 
 /**
- * @version 2.1
+ * @version 2.2
  *
  * This CaboMenu contains and organizes all of the button controls needed in a game of Cabo. This includes an
- * AbortSwapButton, a CaboButton, an InstructionsButton, a ResetButton, and a SoundButton.
+ * AbortSwapButton, a CaboButton, an InstructionsButton, a ResetButton, a SoundButton, and an OpponentButton.
  *
  * @see AbortSwapButton
  * @see CaboButton
  * @see InstructionsButton
  * @see ResetButton
  * @see SoundButton
+ * @see OpponentButton
  * @see Panel
  */
 public class MenuBar extends JMenuBar {
@@ -25,17 +27,20 @@ public class MenuBar extends JMenuBar {
      * Create a new CaboMenu with all the necessary buttons.
      *
      * @param game The CaboGame for which to create the button controls.
+     * @param botDriver The BotDriver which plays for the computer opponent.
+     * @param computer The PlayerController of the computer opponent.
      * @see CaboGame
      */
-    public MenuBar(CaboGame game) {
+    public MenuBar(CaboGame game, BotDriver botDriver, PlayerController computer) {
         add(new ResetButton(game));
-        add(new CaboButton(game));
-        add(new AbortSwapButton(game));
+        add(new CaboButton(game, botDriver));
+        add(new AbortSwapButton(game, botDriver));
 
         //NOTE(Boris): add horizontal spacing so buttons before this point
         // are aligned on the left and buttons after are on the right.
         add(Box.createHorizontalGlue());
 
+        add(new OpponentButton(botDriver, computer));
         add(new InstructionsButton());
         add(new SoundButton());
     }
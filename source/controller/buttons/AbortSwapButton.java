@@ -1,5 +1,6 @@
 package controller.buttons;
 
+import controller.BotDriver;
 import model.CaboGame;
 import model.turnphase.SpyAndSwapPhase;
 import model.turnphase.SwapPhase;
@@ -9,35 +10,36 @@ import java.util.Observable;
 import java.util.Observer;
 
 /**
- * @version 1.0
+ * @version 1.1
  *
  * This AbortSwapButton control can be used if the player decides they don't want to swap a card during a SwapPhase or a
  * SpyAndSwapPhase.
  *
  * @see CaboGame
+ * @see BotDriver
  * @see SwapPhase
  * @see SpyAndSwapPhase
  */
 public class AbortSwapButton extends JButton implements Observer {
 
     private final CaboGame game;
+    private final BotDriver botDriver;
 
     /**
      * Constructs an AbortSwapButton for a given CaboGame.
      *
      * @param game The CaboGame to add this controller to.
+     * @param botDriver The BotDriver - this control is hidden while it moves for a computer player.
      */
-    public AbortSwapButton(CaboGame game) {
+    public AbortSwapButton(CaboGame game, BotDriver botDriver) {
         super();
         this.game = game;
+        this.botDriver = botDriver;
         this.game.addObserver(this);
+        this.botDriver.addObserver(this);
         setProperties();
         fixVisibility();
-        addActionListener(e -> {
-            game.nextPlayersTurn();
-            game.setCardsFaceDown(game.getCurrentPlayer());
-            game.setCardsFaceDown(game.getOpponent());
-        });
+        addActionListener(e -> game.skipSwap());
     }
 
     /**
@@ -45,7 +47,7 @@ public class AbortSwapButton extends JButton implements Observer {
      * if it's associated action is allowed given the current state of the CaboGame - which is during a SwapPhase or a
      * SpyAndSwapPhase.
      *
-     * @param o The Observable that changed, in this case the CaboGame being controlled.
+     * @param o The Observable that changed, in this case the CaboGame being controlled or the BotDriver.
      * @param arg The object that is updated, in this case the AbortSwapButton.
      */
     @Override
@@ -67,6 +69,7 @@ public class AbortSwapButton extends JButton implements Observer {
      * Changes the button's visibility based on the current state of the CaboGame.
      */
     private void fixVisibility() {
-        setVisible(game.getTurnPhase() instanceof SpyAndSwapPhase || game.getTurnPhase() instanceof SwapPhase);
+        setVisible((game.getTurnPhase() instanceof SpyAndSwapPhase || game.getTurnPhase() instanceof SwapPhase)
+                && !botDriver.isBotTurn());
     }
 }
\ No newline at end of file
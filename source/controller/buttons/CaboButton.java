@@ -1,5 +1,6 @@
 package controller.buttons;
 
+import controller.BotDriver;
 import model.CaboGame;
 import model.turnphase.DrawOrCaboPhase;
 
@@ -8,26 +9,31 @@ import java.util.Observable;
 import java.util.Observer;
 
 /**
- * @version 3.0
+ * @version 3.1
  *
  * This CaboButton control can be used by a player to call Cabo during their turn in the DrawOrCaboPhase.
  *
  * @see CaboGame
+ * @see BotDriver
  * @see DrawOrCaboPhase
  */
 public class CaboButton extends JButton implements Observer {
 
     private final CaboGame game;
+    private final BotDriver botDriver;
 
     /**
      * Constructs a button that the player can press in order to call Cabo during their turn.
      *
      * @param game The CaboGame to add this control to.
+     * @param botDriver The BotDriver - this control is disabled while it moves for a computer player.
      */
-    public CaboButton(CaboGame game) {
+    public CaboButton(CaboGame game, BotDriver botDriver) {
         super();
         this.game = game;
+        this.botDriver = botDriver;
         this.game.addObserver(this);
+        this.botDriver.addObserver(this);
         setProperties();
         fixVisibility();
         addActionListener(e -> game.callCabo());
@@ -37,7 +43,7 @@ public class CaboButton extends JButton implements Observer {
      * The CaboButton observes CaboGame, so that it can update its visibility to the player - it is only visible
      * if it's associated action is allowed given the current state of the CaboGame - which is during the DrawOrCaboPhase.
      *
-     * @param o The Observable that changed, in this case the CaboGame being controlled.
+     * @param o The Observable that changed, in this case the CaboGame being controlled or the BotDriver.
      * @param arg The object that is updated, in this case the AbortSwapButton.
      */
     @Override
@@ -59,6 +65,6 @@ public class CaboButton extends JButton implements Observer {
      * Changes the button's visibility based on the current state of the CaboGame.
      */
     private void fixVisibility() {
-        setEnabled(game.getTurnPhase() instanceof DrawOrCaboPhase && !game.caboWasCalled());
+        setEnabled(game.getTurnPhase() instanceof DrawOrCaboPhase && !game.caboWasCalled() && !botDriver.isBotTurn());
     }
 }
@@ -0,0 +1,55 @@
+package controller.buttons;
+
+import bot.PlayerController;
+import controller.BotDriver;
+
+import javax.swing.*;
+
+/**
+ * @version 1.0
+ *
+ * This OpponentButton switches player 2 between being played with the mouse and being played by the computer, through
+ * the BotDriver.
+ *
+ * @see BotDriver
+ * @see PlayerController
+ */
+public class OpponentButton extends JButton {
+
+    private static final long serialVersionUID = 42L;
+
+    private final BotDriver botDriver;
+    private final PlayerController computer;
+
+    /**
+     * Constructs a new OpponentButton.
+     *
+     * @param botDriver The BotDriver which plays for the computer.
+     * @param computer The PlayerController which plays player 2 when the computer is chosen.
+     */
+    public OpponentButton(BotDriver botDriver, PlayerController computer) {
+        super();
+        this.botDriver = botDriver;
+        this.computer = computer;
+        setProperties();
+
+        addActionListener(e -> {
+            botDriver.setController(1, botDriver.getController(1) == null ? computer : null);
+            setProperties();
+        });
+    }
+
+    /**
+     * Sets the properties of this button - such as text and tooltips.
+     */
+    private void setProperties() {
+        setVerticalTextPosition(AbstractButton.CENTER);
+        setHorizontalTextPosition(AbstractButton.CENTER);
+        setToolTipText("Play against the computer, or against another person");
+        setMnemonic('O');
+        if (botDriver.getController(1) == null)
+            setText("Opponent: human");
+        else
+            setText("Opponent: computer");
+    }
+}
@@ -0,0 +1,85 @@
+package model;
+
+import model.card.Card;
+
+/**
+ * @version 1.0
+ *
+ * Receives every action performed on a CaboGame through its action methods - such as selectCard(), releaseCard() or
+ * callCabo() - right before the action is performed, along with the state of the Shuffler after every reshuffle of the
+ * discard pile. Since a CaboGame is fully determined by its state and its Shuffler, these records are enough to
+ * rebuild a game by performing the same actions again on a copy of an earlier state.
+ *
+ * Unlike the GameEffects, an ActionRecorder is installed on a single CaboGame with CaboGame.setRecorder(). By default
+ * no actions are recorded.
+ *
+ * @see CaboGame
+ * @see util.GameJournal
+ */
+public interface ActionRecorder {
+
+    /**
+     * The default ActionRecorder which simply ignores all actions.
+     */
+    ActionRecorder NONE = new ActionRecorder() {};
+
+    /**
+     * Called before a Card is selected in the current TurnPhase.
+     *
+     * @param card The selected Card, may be null.
+     */
+    default void cardSelected(Card card) {}
+
+    /**
+     * Called before the selected Card is released without a target.
+     */
+    default void cardReleased() {}
+
+    /**
+     * Called before the selected Card is released onto another Card.
+     *
+     * @param cardAtReleasePoint The Card it is released onto, may be null.
+     */
+    default void cardReleasedOnto(Card cardAtReleasePoint) {}
+
+    /**
+     * Called before the selected Card is released at an index of a hand.
+     *
+     * @param insertionIndex The index it is released at.
+     */
+    default void cardReleasedAt(int insertionIndex) {}
+
+    /**
+     * Called before the selected Card is dropped onto the discard pile.
+     */
+    default void cardDropped() {}
+
+    /**
+     * Called before the current Player calls Cabo.
+     */
+    default void caboCalled() {}
+
+    /**
+     * Called before the current Player decides not to swap any cards.
+     */
+    default void swapSkipped() {}
+
+    /**
+     * Called before the game is reset.
+     */
+    default void gameReset() {}
+
+    /**
+     * Called after the discard pile was shuffled into the deck.
+     *
+     * @param shufflerState The state of the game's Shuffler after the shuffle.
+     */
+    default void deckShuffled(long shufflerState) {}
+
+    /**
+     * Called after an outermost action has finished, when the game is in a consistent state again.
+     *
+     * @param game The CaboGame the action was performed on.
+     */
+    default void actionFinished(CaboGame game) {}
+}
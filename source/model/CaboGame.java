@@ -3,9 +3,11 @@ package model;
 import model.card.Card;
 import model.card.Deck;
 import model.card.DiscardPile;
+import model.card.Shuffler;
 import model.turnphase.*;
 
-import javax.swing.*;
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.*;
 
@@ -14,16 +16,48 @@ import java.util.*;
  *
  * Represents the state of a 1v1 game of Cabo. Including the players, deck, discard pile, and turn phases.
  *
+ * The CaboGame itself is headless - sounds, dialogs and other side effects are only reported to the GameEffects
+ * installed with setEffects(), which ignores them by default.
+ *
+ * A CaboGame constructed with a seed is fully reproducible - every deal and every reshuffle of the discard pile, also
+ * across resets, comes from a single Shuffler.
+ *
+ * Observers are notified at most once per action, with the set of GameChanges made during the action as the message.
+ * Actions that consist of several calls - such as a drag-and-release of the mouse - should be wrapped in
+ * performAction(), so that they also produce a single notification.
+ *
+ * Players act on the game through its action methods - selectCard(), the releaseCard() overloads, dropSelectedCard(),
+ * callCabo(), skipSwap() and reset() - which forward to the current TurnPhase, and report the action to the
+ * ActionRecorder installed with setRecorder() first. Computer players instead pick whole moves, encoded as in Move, which
+ * playMove() turns into the same action method calls a player would make with the mouse.
+ *
+ * Each Player remembers the cards they have seen. The TurnPhases teach the current player the cards they peek at or spy
+ * on, while cards that are drawn or put on the discard pile are revealed to both players with revealCard(). Cards that
+ * are shuffled into the deck are forgotten by both.
+ *
+ * The Zobrist hash of the game, returned by getHash(), is kept up to date as the game is played: the Deck, DiscardPile
+ * and both Players update the hashes of their cards with every change, so the hash of the game only has to combine
+ * them with the keys of the drawn card, the current player, the current TurnPhase and the one it returns to, and
+ * whether the game is over. The hash is only kept for the object model - the bots search and cache CompactGameStates,
+ * which are compared by their contents instead.
+ *
  * @see Card
  * @see DiscardPile
  * @see Deck
  * @see Player
  * @see TurnPhase
+ * @see GameEffects
+ * @see GameChange
+ * @see ActionRecorder
+ * @see Move
+ * @see ZobristKeys
  */
 public class CaboGame extends Observable implements Observer, Serializable {
 
     private static final long serialVersionUID = 42L;
 
+    private static volatile GameEffects effects = GameEffects.NONE;
+
     private DiscardPile discardPile;
     private Deck deck;
     private Card drawnCard;
@@ -31,6 +65,11 @@ public class CaboGame extends Observable implements Observer, Serializable {
     private Player player1;
     private Player player2;
     private Player currentPlayer;
+    private boolean isOver;
+    private Shuffler shuffler;
+    private transient int actionDepth;
+    private transient int pendingChanges;
+    private transient ActionRecorder recorder = ActionRecorder.NONE;
 
     /**
      * Constructs a new CaboGame in the InitialPeekPhase.
@@ -38,21 +77,80 @@ public class CaboGame extends Observable implements Observer, Serializable {
      * @see InitialPeekPhase
      */
     public CaboGame() {
+        this(new Shuffler());
+    }
+
+    /**
+     * Constructs a new CaboGame in the InitialPeekPhase. Games constructed with the same seed are dealt the same cards,
+     * and have their discard piles shuffled in the same way.
+     *
+     * @param seed The seed of the game's Shuffler.
+     * @see Shuffler
+     */
+    public CaboGame(long seed) {
+        this(new Shuffler(seed));
+    }
+
+    /**
+     * Constructs a new CaboGame in the InitialPeekPhase, which uses the given Shuffler for all of its shuffling.
+     *
+     * @param shuffler The Shuffler used to shuffle the Deck.
+     * @see Shuffler
+     */
+    public CaboGame(Shuffler shuffler) {
+        this.shuffler = shuffler;
         reset();
     }
 
+    /**
+     * Constructs a CaboGame from already existing parts without dealing any cards. The TurnPhase must be set afterwards
+     * with setTurnPhase(), since it needs the constructed game.
+     *
+     * @param deck The Deck of the game.
+     * @param discardPile The DiscardPile of the game.
+     * @param drawnCard The Card in the draw area, may be null.
+     * @param player1 The first Player.
+     * @param player2 The second Player.
+     * @param currentPlayer The Player whose turn it is, either player1 or player2.
+     * @param isOver Whether the game has already ended.
+     * @param shuffler The Shuffler of the game, which must also be the Shuffler of the Deck.
+     * @see CompactGameState
+     */
+    CaboGame(Deck deck, DiscardPile discardPile, Card drawnCard, Player player1, Player player2, Player currentPlayer,
+             boolean isOver, Shuffler shuffler) {
+        this.deck = deck;
+        this.discardPile = discardPile;
+        this.drawnCard = drawnCard;
+        this.player1 = player1;
+        this.player2 = player2;
+        this.currentPlayer = currentPlayer;
+        this.isOver = isOver;
+        this.shuffler = shuffler;
+    }
+
     /**
      * Resets this CaboGame completely - as if it was constructed anew.
      */
     public void reset() {
+        performAction(() -> {
+            recorder.gameReset();
+            dealNewGame();
+        });
+    }
+
+    /**
+     * Deals the cards of a new game and starts it in the InitialPeekPhase.
+     */
+    private void dealNewGame() {
 
         discardPile = new DiscardPile();
-        deck = new Deck(discardPile);
+        deck = new Deck(discardPile, shuffler);
         drawnCard = null;
 
         player1 = new Player("Player 1");
         player2 = new Player("Player 2");
         currentPlayer = player1;
+        isOver = false;
 
         player1.addCard(deck.draw());
         player1.addCard(deck.draw());
@@ -63,23 +161,308 @@ public class CaboGame extends Observable implements Observer, Serializable {
         player2.addCard(deck.draw());
         player2.addCard(deck.draw());
         player2.addCard(deck.draw());
+        revealCard(discardPile.top());
 
         new InitialPeekPhase(this);
+        markChanged(GameChange.CARDS, GameChange.DRAWN_CARD, GameChange.CURRENT_PLAYER);
+    }
+
+    /**
+     * Performs a single action on this CaboGame, such as a user dropping a card, by running the given code. Observers
+     * are not notified while the action runs. Instead, all the changes made by it are collected and the observers are
+     * notified once afterwards, with the set of GameChanges as the message. Actions may be nested, in which case only
+     * the outermost action notifies. The one exception is the end of a game, before which the observers are notified
+     * of the changes so far, so that they show the final board while the GameEffects announce the winner.
+     *
+     * @param action The code that performs the action.
+     * @see GameChange
+     */
+    public void performAction(Runnable action) {
+        ++actionDepth;
+        try {
+            action.run();
+        } finally {
+            if (--actionDepth == 0) {
+                recorder.actionFinished(this);
+                notifyChanges();
+            }
+        }
+    }
+
+    /**
+     * Selects a Card in the current TurnPhase, as an action.
+     *
+     * @param card The Card to select.
+     * @see TurnPhase#selectCard(Card)
+     */
+    public void selectCard(Card card) {
+        performAction(() -> {
+            recorder.cardSelected(card);
+            turnPhase.selectCard(card);
+        });
+    }
+
+    /**
+     * Releases the selected Card in the current TurnPhase, as an action.
+     *
+     * @see TurnPhase#releaseCard()
+     */
+    public void releaseCard() {
+        performAction(() -> {
+            recorder.cardReleased();
+            turnPhase.releaseCard();
+        });
+    }
+
+    /**
+     * Releases the selected Card onto another Card in the current TurnPhase, as an action.
+     *
+     * @param cardAtReleasePoint The Card at the point where the selected Card was released.
+     * @see TurnPhase#releaseCard(Card)
+     */
+    public void releaseCard(Card cardAtReleasePoint) {
+        performAction(() -> {
+            recorder.cardReleasedOnto(cardAtReleasePoint);
+            turnPhase.releaseCard(cardAtReleasePoint);
+        });
+    }
+
+    /**
+     * Releases the selected Card at an index of a hand in the current TurnPhase, as an action.
+     *
+     * @param insertionIndex The index in the hand where the selected Card was released.
+     * @see TurnPhase#releaseCard(int)
+     */
+    public void releaseCard(int insertionIndex) {
+        performAction(() -> {
+            recorder.cardReleasedAt(insertionIndex);
+            turnPhase.releaseCard(insertionIndex);
+        });
+    }
+
+    /**
+     * Drops the selected Card onto the discard pile in the current TurnPhase, as an action.
+     *
+     * @return Whether the drop was handled.
+     * @see TurnPhase#handleCardDrop()
+     */
+    public boolean dropSelectedCard() {
+        boolean[] handled = new boolean[1];
+        performAction(() -> {
+            recorder.cardDropped();
+            handled[0] = turnPhase.handleCardDrop();
+        });
+        return handled[0];
+    }
+
+    /**
+     * Ends the turn of the current Player without swapping any cards in a SwapPhase or SpyAndSwapPhase, and turns all
+     * cards of both players face-down.
+     *
+     * @see SwapPhase
+     * @see SpyAndSwapPhase
+     */
+    public void skipSwap() {
+        performAction(() -> {
+            recorder.swapSkipped();
+            nextPlayersTurn();
+            setCardsFaceDown(getCurrentPlayer());
+            setCardsFaceDown(getOpponent());
+        });
+    }
+
+    /**
+     * Plays a whole move for the current Player as a single action, by making the same selectCard(), releaseCard() and
+     * dropSelectedCard() calls that the player would make with the mouse - exactly like PhaseEngine.play() does on a
+     * CompactGameState. The move should be one of the legal moves a PhaseEngine generates for this game's state.
+     *
+     * @param move The encoded move to play.
+     * @see Move
+     * @see PhaseEngine#play(int)
+     */
+    public void playMove(int move) {
+        performAction(() -> {
+            Player player = currentPlayer;
+            Player opponent = getOpponent();
+            int first = Move.first(move);
+            int second = Move.second(move);
+
+            switch (Move.kind(move)) {
+                case Move.INITIAL_PEEK: {
+                    Card card1 = player.getCards().get(first);
+                    Card card2 = player.getCards().get(second);
+                    selectCard(card1);
+                    selectCard(card2);
+                    selectCard(card1);
+                    selectCard(card2);
+                    break;
+                }
+                case Move.DRAW_FROM_DECK:
+                    selectCard(deck.top());
+                    releaseCard();
+                    break;
+                case Move.DRAW_FROM_DISCARD_PILE:
+                    selectCard(discardPile.top());
+                    releaseCard();
+                    break;
+                case Move.CALL_CABO:
+                    callCabo();
+                    break;
+                case Move.DISCARD:
+                    selectCard(drawnCard);
+                    releaseCard();
+                    break;
+                case Move.SWAP_DRAWN_CARD:
+                    selectCard(drawnCard);
+                    releaseCard(player.getCards().get(first));
+                    break;
+                case Move.PEEK:
+                case Move.SPY: {
+                    TurnPhase phase = turnPhase;
+                    Card card = (Move.kind(move) == Move.PEEK ? player : opponent).getCards().get(first);
+                    selectCard(card);
+                    if (!isOver && turnPhase == phase && turnPhase.getFirstPhaseCard() == card)
+                        selectCard(card);
+                    break;
+                }
+                case Move.LOOK:
+                    selectCard(player.getCards().get(first));
+                    selectCard(opponent.getCards().get(second));
+                    break;
+                case Move.SWAP_LOOKED_CARDS:
+                    selectCard(turnPhase.getFirstPhaseCard());
+                    releaseCard(turnPhase.getSecondPhaseCard());
+                    break;
+                case Move.SWAP:
+                    selectCard(player.getCards().get(first));
+                    releaseCard(opponent.getCards().get(second));
+                    break;
+                case Move.SKIP_SWAP:
+                    skipSwap();
+                    break;
+                case Move.DROP:
+                    selectCard((first == 0 ? player : opponent).getCards().get(second));
+                    dropSelectedCard();
+                    break;
+                case Move.PICKUP:
+                    selectCard(deck.top());
+                    releaseCard(first);
+                    break;
+                case Move.TRANSFER:
+                    selectCard(first == Move.NONE ? null : player.getCards().get(first));
+                    releaseCard(second);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown move " + Move.toString(move));
+            }
+        });
+    }
+
+    /**
+     * Shuffles the discard pile back into the deck, except for its top card.
+     *
+     * @see Deck#shuffleInDiscardPile(DiscardPile)
+     */
+    public void shuffleDiscardPileIntoDeck() {
+        deck.shuffleInDiscardPile(discardPile);
+        long shuffledCards = 0;
+        for (Card card : deck)
+            shuffledCards |= 1L << card.getBackingCard().ordinal();
+        player1.forgetCards(shuffledCards);
+        player2.forgetCards(shuffledCards);
+        recorder.deckShuffled(shuffler.getState());
+        markChanged(GameChange.CARDS);
+    }
+
+    /**
+     * Lets both Players see a Card, because it was turned face-up for everyone to see - such as a drawn Card, or a Card
+     * put on the discard pile.
+     *
+     * @param card The Card to reveal.
+     * @see Player#learnCard(Card)
+     */
+    public void revealCard(Card card) {
+        player1.learnCard(card);
+        player2.learnCard(card);
+    }
+
+    /**
+     * Makes both Players forget a Card, because it was taken into a hand without anyone seeing it.
+     *
+     * @param card The Card to forget.
+     * @see Player#forgetCards(long)
+     */
+    public void forgetCard(Card card) {
+        long bit = 1L << card.getBackingCard().ordinal();
+        player1.forgetCards(bit);
+        player2.forgetCards(bit);
+    }
+
+    /**
+     * Installs the ActionRecorder which receives all actions performed on this CaboGame from now on. Installing null
+     * restores the default ActionRecorder which ignores all actions.
+     *
+     * @param actionRecorder The ActionRecorder to install.
+     * @see ActionRecorder
+     */
+    public void setRecorder(ActionRecorder actionRecorder) {
+        recorder = actionRecorder == null ? ActionRecorder.NONE : actionRecorder;
+    }
+
+    /**
+     * Records changes to this CaboGame. Observers are notified right away, unless an action is being performed.
+     *
+     * @param changes The parts of the game that changed.
+     */
+    private void markChanged(GameChange... changes) {
+        for (GameChange change : changes)
+            pendingChanges |= 1 << change.ordinal();
+        if (actionDepth == 0)
+            notifyChanges();
+    }
+
+    /**
+     * Notifies the observers about all the changes recorded since the last notification, if there were any.
+     */
+    private void notifyChanges() {
+        if (pendingChanges == 0)
+            return;
+
+        EnumSet<GameChange> changes = EnumSet.noneOf(GameChange.class);
+        for (GameChange change : GameChange.values())
+            if ((pendingChanges & 1 << change.ordinal()) != 0)
+                changes.add(change);
+        pendingChanges = 0;
+
+        setChanged();
+        notifyObservers(Collections.unmodifiableSet(changes));
     }
 
     /**
      * Gives the turn to the next Player that should have one when the current Player's turn ends. This will set the
-     * appropriate turn phase for the CaboGame, or call endGame() if the game should end.
+     * appropriate turn phase for the CaboGame, or call endGame() if the game should end. If the game is still over after
+     * the GameEffects were notified, i.e. nobody reset it, then no further turn is given.
      *
      * @see TurnPhase
      * @see Player
      */
     public void nextPlayersTurn() {
+        performAction(this::giveTurnToOpponent);
+    }
+
+    /**
+     * Gives the turn to the next Player, as described in nextPlayersTurn().
+     */
+    private void giveTurnToOpponent() {
 
         Player nextPlayer = getOpponent();
         currentPlayer = nextPlayer;
-        if (nextPlayer.hasCalledCabo())
+        markChanged(GameChange.CURRENT_PLAYER);
+        if (nextPlayer.hasCalledCabo()) {
             endGame();
+            if (isOver)
+                return;
+        }
 
         if (turnPhase instanceof InitialPeekPhase && !(player1.didInitialPeek() && player2.didInitialPeek()))
             new InitialPeekPhase(this);
@@ -87,10 +470,31 @@ public class CaboGame extends Observable implements Observer, Serializable {
             new DrawOrCaboPhase(this);
 
         if (deck.isEmpty())
-            deck.shuffleInDiscardPile(discardPile);
+            shuffleDiscardPileIntoDeck();
+    }
 
-        setChanged();
-        notifyObservers();
+    /**
+     * Computes the Zobrist hash of the state of this CaboGame in constant time, from the hashes kept by its Deck,
+     * DiscardPile and Players. Which Card is selected, and what the Players know, are not part of the hash.
+     *
+     * @return The hash, which is the same for games in the same state.
+     * @see ZobristKeys
+     */
+    public long getHash() {
+        // The second Player's hash is rotated so that swapping the hands changes the hash.
+        long hash = deck.getHash() ^ discardPile.getHash() ^ player1.getHash() ^ Long.rotateLeft(player2.getHash(), 1);
+        if (drawnCard != null)
+            hash ^= ZobristKeys.drawnCard(drawnCard);
+        if (currentPlayer == player2)
+            hash ^= ZobristKeys.SECOND_PLAYER_TO_MOVE;
+        if (isOver)
+            hash ^= ZobristKeys.GAME_OVER;
+        if (turnPhase != null) {
+            hash ^= ZobristKeys.phase(turnPhase.getPhaseName());
+            if (turnPhase.getPreviousPhase() != null)
+                hash ^= ZobristKeys.previousPhase(turnPhase.getPreviousPhase().getPhaseName());
+        }
+        return hash;
     }
 
     /**
@@ -100,14 +504,45 @@ public class CaboGame extends Observable implements Observer, Serializable {
         return (player1.hasCalledCabo() || player2.hasCalledCabo());
     }
 
+    /**
+     * @return The Shuffler used for all of the shuffling in this CaboGame.
+     * @see Shuffler
+     */
+    public Shuffler getShuffler() {
+        return shuffler;
+    }
+
+    /**
+     * @return Whether this CaboGame has ended and wasn't reset since.
+     */
+    public boolean isOver() {
+        return isOver;
+    }
+
+    /**
+     * @return The Player with the fewest points, or null if both Players have the same amount of points.
+     * @see Player
+     */
+    public Player getWinner() {
+        if (player1.getPoints() < player2.getPoints())
+            return player1;
+        else if (player2.getPoints() < player1.getPoints())
+            return player2;
+        else
+            return null;
+    }
+
     /**
      * If Cabo wasn't already called by some other Player, calls the current Player's setCalledCabo() method, and
      * gives the turn over to the next player.
      */
     public void callCabo() {
         if (!caboWasCalled()) {
-            getCurrentPlayer().setCalledCabo();
-            nextPlayersTurn();
+            performAction(() -> {
+                recorder.caboCalled();
+                getCurrentPlayer().setCalledCabo();
+                nextPlayersTurn();
+            });
         }
     }
 
@@ -144,8 +579,7 @@ public class CaboGame extends Observable implements Observer, Serializable {
     public void setDrawnCard(Card card) {
         if (drawnCard != card) {
             drawnCard = card;
-            setChanged();
-            notifyObservers();
+            markChanged(GameChange.DRAWN_CARD);
         }
     }
 
@@ -179,8 +613,7 @@ public class CaboGame extends Observable implements Observer, Serializable {
         turnPhase = phase;
         turnPhase.addObserver(this);
 
-        setChanged();
-        notifyObservers();
+        markChanged(GameChange.TURN_PHASE);
     }
 
     /**
@@ -200,10 +633,9 @@ public class CaboGame extends Observable implements Observer, Serializable {
     public void setCardsFaceDown(Player player) {
         List<Card> cards = player.getCards();
         for (Card card: cards){
-            card.setFaceDown();
+            player.flipCard(card, false);
         }
-        setChanged();
-        notifyObservers();
+        markChanged(GameChange.CARDS);
     }
 
     /**
@@ -237,7 +669,8 @@ public class CaboGame extends Observable implements Observer, Serializable {
 
     /**
      * The CaboGame observes the state of it's TurnPhases, so this method is called when the state of the current
-     * TurnPhase changes so that the CaboGame can notify its own observes that something changed.
+     * TurnPhase changes so that the CaboGame can notify its own observes that something changed. TurnPhases usually
+     * change while moving or flipping Cards, so both the TurnPhase and the Cards are marked as changed.
      *
      * @param observable The current TurnPhase whose state changed.
      * @param message The message being passed from the TurnPhase - nothing in this case.
@@ -245,30 +678,46 @@ public class CaboGame extends Observable implements Observer, Serializable {
      */
     @Override
     public void update(Observable observable, Object message) {
-        setChanged();
-        notifyObservers();
+        markChanged(GameChange.TURN_PHASE, GameChange.CARDS);
     }
 
     /**
-     * This is called when this CaboGame ends to display an message about which player won the game. This CaboGame is
-     * then immediately reset.
+     * Installs the GameEffects which will receive the side effects of all CaboGames from now on - such as sounds or the
+     * end of the game. Installing null restores the default GameEffects which ignores all effects.
+     *
+     * @param gameEffects The GameEffects to install.
+     * @see GameEffects
      */
-    private void endGame() {
+    public static void setEffects(GameEffects gameEffects) {
+        effects = gameEffects == null ? GameEffects.NONE : gameEffects;
+    }
 
-        if (player1.getPoints() < player2.getPoints()) {
-            JOptionPane.showMessageDialog(null,
-                    String.format("Player 1: %d\nPlayer 2: %d\n", player1.getPoints(), player2.getPoints()),
-                    "Player 1 Won!", JOptionPane.INFORMATION_MESSAGE);
-        } else if (player2.getPoints() < player1.getPoints()) {
-            JOptionPane.showMessageDialog(null,
-                    String.format("Player 1: %d\nPlayer 2: %d\n", player1.getPoints(), player2.getPoints()),
-                    "Player 2 Won!", JOptionPane.INFORMATION_MESSAGE);
-        } else {
-            JOptionPane.showMessageDialog(null,
-                    String.format("Player 1: %d\nPlayer 2: %d\n", player1.getPoints(), player2.getPoints()),
-                    "Tie!", JOptionPane.INFORMATION_MESSAGE);
-        }
+    /**
+     * @return The currently installed GameEffects.
+     * @see GameEffects
+     */
+    public static GameEffects getEffects() {
+        return effects;
+    }
 
-        reset();
+    /**
+     * This is called when this CaboGame ends. The game is marked as over, the observers are notified of the final state
+     * of the game, and then the installed GameEffects are notified, which may display a message about which player won
+     * and reset the game.
+     */
+    private void endGame() {
+        isOver = true;
+        notifyChanges();
+        effects.gameEnded(this);
+    }
+
+    /**
+     * Games saved before they had a Shuffler get a new one when they are loaded.
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        recorder = ActionRecorder.NONE;
+        if (shuffler == null)
+            shuffler = new Shuffler();
     }
 }
@@ -0,0 +1,788 @@
+package model;
+
+import model.card.CaboCard;
+import model.card.Card;
+import model.card.Deck;
+import model.card.DiscardPile;
+import model.card.Shuffler;
+import model.turnphase.TurnPhase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @version 1.2
+ *
+ * A compact, bit-packed representation of the full state of a CaboGame. Since every one of the 54 CaboCards is always
+ * in exactly one place, all cards are stored as CaboCard ordinals in a single 54 byte array that is partitioned into
+ * zones - the deck from BOTTOM to TOP, then the discard pile from BOTTOM to TOP, then the hands of both players, and
+ * finally the draw area. Everything else fits into three longs:
+ *
+ * - the layout holds the sizes of the zones, the current player, the cabo and initial peek flags of both players,
+ *   whether the game is over, and the name of the current TurnPhase.
+ * - the face-up mask holds one bit per CaboCard ordinal.
+ * - the phase state holds the selected card and the phase-local cards of the current TurnPhase, and the same for the
+ *   TurnPhase to return to after a PickupPhase or TransferCardPhase.
+ *
+ * On top of that, a known mask per player holds one bit per CaboCard ordinal, set if the player has seen the card
+ * since it was last shuffled into the deck. Since every move of a card is seen by both players, a player who knows a
+ * card also knows where it is. The known masks are kept up to date by the PhaseEngine, and are packed from and unpacked
+ * into the known cards of the Players of a CaboGame.
+ *
+ * A CompactGameState takes up around a hundred bytes, converts losslessly to and from a CaboGame, and can be copied or
+ * mutated in place without allocating, which makes it suitable for search, simulation and holding many games at once.
+ * Cards are passed around as CaboCard ordinals, with NO_CARD meaning no card, and players as 0 or 1.
+ *
+ * @see CaboGame
+ * @see CaboCard
+ * @see TurnPhase
+ */
+public class CompactGameState {
+
+    /**
+     * The number of cards in a game of Cabo.
+     */
+    public static final int CARD_COUNT = CaboCard.values().length;
+
+    /**
+     * Stands for the absence of a card.
+     */
+    public static final int NO_CARD = -1;
+
+    /**
+     * The zones a card can be in.
+     */
+    public static final int DECK = 0;
+    public static final int DISCARD_PILE = 1;
+    public static final int PLAYER1_HAND = 2;
+    public static final int PLAYER2_HAND = 3;
+    public static final int DRAW_AREA = 4;
+
+    private static final CaboCard[] CABO_CARDS = CaboCard.values();
+    private static final TurnPhase.PhaseName[] PHASE_NAMES = TurnPhase.PhaseName.values();
+
+    // Bit layout of the layout long - the sizes of the first four zones take 6 bits each, and the size of the draw
+    // area is whatever remains of the 54 cards.
+    private static final int SIZE_BITS = 6;
+    private static final long SIZE_MASK = (1L << SIZE_BITS) - 1;
+    private static final int CURRENT_PLAYER_BIT = 24;
+    private static final int CALLED_CABO_BIT = 25;
+    private static final int DID_INITIAL_PEEK_BIT = 27;
+    private static final int IS_OVER_BIT = 29;
+    private static final int PHASE_NAME_SHIFT = 30;
+
+    // Bit layout of the phase state long - three 6-bit cards for the current phase, then a 4-bit phase name and
+    // three 6-bit cards for the previous phase.
+    private static final int CARD_BITS = 6;
+    private static final long CARD_MASK = (1L << CARD_BITS) - 1;
+    private static final long NO_CARD_BITS = CARD_MASK;
+    private static final int SELECTED_CARD_SHIFT = 0;
+    private static final int FIRST_PHASE_CARD_SHIFT = 6;
+    private static final int SECOND_PHASE_CARD_SHIFT = 12;
+    private static final int CURRENT_PHASE_BITS = 18;
+    private static final long CURRENT_PHASE_MASK = (1L << CURRENT_PHASE_BITS) - 1;
+    private static final int PREVIOUS_PHASE_NAME_SHIFT = 18;
+    private static final int PREVIOUS_PHASE_SHIFT = 22;
+    private static final long PHASE_NAME_MASK = 0xF;
+    private static final long NO_PHASE_BITS = PHASE_NAME_MASK;
+    private static final long EMPTY_PHASE_STATE = NO_CARD_BITS
+            | NO_CARD_BITS << FIRST_PHASE_CARD_SHIFT
+            | NO_CARD_BITS << SECOND_PHASE_CARD_SHIFT;
+
+    private final byte[] cards;
+    private long layout;
+    private long faceUpMask;
+    private long phaseState;
+    private long knownByPlayer1;
+    private long knownByPlayer2;
+
+    /**
+     * Constructs a CompactGameState where all cards are face-down in the deck, in CaboCard order, and the game is in
+     * the InitialPeekPhase for player 1.
+     */
+    public CompactGameState() {
+        cards = new byte[CARD_COUNT];
+        clear();
+    }
+
+    /**
+     * Constructs a copy of the given CompactGameState.
+     *
+     * @param other The CompactGameState to copy.
+     */
+    public CompactGameState(CompactGameState other) {
+        cards = other.cards.clone();
+        layout = other.layout;
+        faceUpMask = other.faceUpMask;
+        phaseState = other.phaseState;
+        knownByPlayer1 = other.knownByPlayer1;
+        knownByPlayer2 = other.knownByPlayer2;
+    }
+
+    /**
+     * Packs the state of the given CaboGame.
+     *
+     * @param game The CaboGame to pack.
+     * @return A new CompactGameState holding the state of the given CaboGame.
+     * @see CaboGame
+     */
+    public static CompactGameState of(CaboGame game) {
+        CompactGameState state = new CompactGameState();
+        state.copyFrom(game);
+        return state;
+    }
+
+    /**
+     * Puts all cards face-down in the deck, in CaboCard order, and the game in the InitialPeekPhase for player 1.
+     */
+    public void clear() {
+        for (int i = 0; i < CARD_COUNT; ++i)
+            cards[i] = (byte)i;
+        layout = CARD_COUNT | (long)TurnPhase.PhaseName.INITIAL_PEEK.ordinal() << PHASE_NAME_SHIFT;
+        faceUpMask = 0;
+        phaseState = EMPTY_PHASE_STATE | NO_PHASE_BITS << PREVIOUS_PHASE_NAME_SHIFT;
+        knownByPlayer1 = 0;
+        knownByPlayer2 = 0;
+    }
+
+    /**
+     * Overwrites this CompactGameState with the given one, without allocating.
+     *
+     * @param other The CompactGameState to copy.
+     */
+    public void copyFrom(CompactGameState other) {
+        System.arraycopy(other.cards, 0, cards, 0, CARD_COUNT);
+        layout = other.layout;
+        faceUpMask = other.faceUpMask;
+        phaseState = other.phaseState;
+        knownByPlayer1 = other.knownByPlayer1;
+        knownByPlayer2 = other.knownByPlayer2;
+    }
+
+    /**
+     * Overwrites this CompactGameState with the state of the given CaboGame.
+     *
+     * @param game The CaboGame whose state to pack.
+     * @throws IllegalArgumentException If the game doesn't hold every CaboCard exactly once, or if the previous phase
+     * of its TurnPhase has a previous phase itself.
+     * @see CaboGame
+     */
+    public void copyFrom(CaboGame game) {
+
+        int count = 0;
+        long seen = 0;
+        long faceUp = 0;
+        int[] sizes = new int[DRAW_AREA];
+
+        List<List<Card>> zones = new ArrayList<>();
+        zones.add(game.getDeck().asList());
+        zones.add(game.getDiscardPile().asList());
+        zones.add(game.getPlayer1().getCards());
+        zones.add(game.getPlayer2().getCards());
+        Card drawnCard = game.getDrawnCard();
+        zones.add(drawnCard == null ? new ArrayList<>() : Arrays.asList(drawnCard));
+
+        for (int zone = DECK; zone <= DRAW_AREA; ++zone) {
+            for (Card card : zones.get(zone)) {
+                int ordinal = card.getBackingCard().ordinal();
+                if ((seen & 1L << ordinal) != 0 || count == CARD_COUNT)
+                    throw new IllegalArgumentException("CaboGame holds " + card.getBackingCard() + " more than once");
+                seen |= 1L << ordinal;
+                if (card.isFaceUp())
+                    faceUp |= 1L << ordinal;
+                cards[count++] = (byte)ordinal;
+            }
+            if (zone < DRAW_AREA)
+                sizes[zone] = zones.get(zone).size();
+        }
+        if (count != CARD_COUNT)
+            throw new IllegalArgumentException("CaboGame holds " + count + " cards instead of " + CARD_COUNT);
+
+        Player player1 = game.getPlayer1();
+        Player player2 = game.getPlayer2();
+        TurnPhase phase = game.getTurnPhase();
+
+        layout = 0;
+        for (int zone = DECK; zone < DRAW_AREA; ++zone)
+            layout |= (long)sizes[zone] << zone * SIZE_BITS;
+        setCurrentPlayer(game.getCurrentPlayer() == player2 ? 1 : 0);
+        setFlag(CALLED_CABO_BIT, player1.hasCalledCabo());
+        setFlag(CALLED_CABO_BIT + 1, player2.hasCalledCabo());
+        setFlag(DID_INITIAL_PEEK_BIT, player1.didInitialPeek());
+        setFlag(DID_INITIAL_PEEK_BIT + 1, player2.didInitialPeek());
+        setOver(game.isOver());
+        faceUpMask = faceUp;
+        knownByPlayer1 = player1.getKnownCards();
+        knownByPlayer2 = player2.getKnownCards();
+
+        TurnPhase previousPhase = phase.getPreviousPhase();
+        if (previousPhase != null) {
+            if (previousPhase.getPreviousPhase() != null)
+                throw new IllegalArgumentException("Nested previous turn phases can't be packed");
+            setPhaseName(previousPhase.getPhaseName());
+            setPhaseCards(previousPhase);
+            pushPhase(phase.getPhaseName());
+        } else {
+            setPhaseName(phase.getPhaseName());
+        }
+        setPhaseCards(phase);
+    }
+
+    /**
+     * Unpacks this CompactGameState into a new CaboGame, with new Card objects and a new Shuffler.
+     *
+     * @return A CaboGame with the same state as this CompactGameState.
+     * @see CaboGame
+     */
+    public CaboGame toCaboGame() {
+        return toCaboGame(new Shuffler());
+    }
+
+    /**
+     * Unpacks this CompactGameState into a new CaboGame, with new Card objects.
+     *
+     * @param shuffler The Shuffler the unpacked game uses for all of its shuffling.
+     * @return A CaboGame with the same state as this CompactGameState.
+     * @see CaboGame
+     */
+    public CaboGame toCaboGame(Shuffler shuffler) {
+
+        Card[] unpacked = new Card[CARD_COUNT];
+        for (int card = 0; card < CARD_COUNT; ++card)
+            unpacked[card] = new Card(CABO_CARDS[card], isFaceUp(card));
+
+        Deck deck = new Deck(cardsIn(DECK, unpacked), shuffler);
+        DiscardPile discardPile = new DiscardPile(cardsIn(DISCARD_PILE, unpacked));
+
+        Player player1 = new Player("Player 1");
+        Player player2 = new Player("Player 2");
+        for (Card card : cardsIn(PLAYER1_HAND, unpacked))
+            player1.addCard(card);
+        for (Card card : cardsIn(PLAYER2_HAND, unpacked))
+            player2.addCard(card);
+        if (hasCalledCabo(0))
+            player1.setCalledCabo();
+        if (hasCalledCabo(1))
+            player2.setCalledCabo();
+        if (didInitialPeek(0))
+            player1.setDidInitialPeek();
+        if (didInitialPeek(1))
+            player2.setDidInitialPeek();
+        player1.setKnownCards(knownByPlayer1);
+        player2.setKnownCards(knownByPlayer2);
+
+        int drawnCard = getDrawnCard();
+        CaboGame game = new CaboGame(deck, discardPile, drawnCard == NO_CARD ? null : unpacked[drawnCard],
+                player1, player2, getCurrentPlayer() == 0 ? player1 : player2, isOver(), shuffler);
+
+        TurnPhase previousPhase = null;
+        if (getPreviousPhaseName() != null)
+            previousPhase = TurnPhase.restore(game, getPreviousPhaseName(),
+                    unpack(getPreviousSelectedCard(), unpacked),
+                    unpack(getPreviousFirstPhaseCard(), unpacked),
+                    unpack(getPreviousSecondPhaseCard(), unpacked),
+                    null);
+        game.setTurnPhase(TurnPhase.restore(game, getPhaseName(),
+                unpack(getSelectedCard(), unpacked),
+                unpack(getFirstPhaseCard(), unpacked),
+                unpack(getSecondPhaseCard(), unpacked),
+                previousPhase));
+        return game;
+    }
+
+    /**
+     * @param zone The zone to look at, e.g. DECK or PLAYER1_HAND.
+     * @return The number of cards in the given zone.
+     */
+    public int size(int zone) {
+        if (zone == DRAW_AREA)
+            return CARD_COUNT - zoneStart(DRAW_AREA);
+        return (int)(layout >>> zone * SIZE_BITS & SIZE_MASK);
+    }
+
+    /**
+     * @param zone The zone to look in.
+     * @param index The index of the card in the zone, counting from the BOTTOM of piles.
+     * @return The card at the given index of the given zone.
+     */
+    public int cardAt(int zone, int index) {
+        return cards[zoneStart(zone) + index];
+    }
+
+    /**
+     * @param zone The zone to look in.
+     * @return The last card in the given zone, i.e. the TOP of a pile, or NO_CARD if the zone is empty.
+     */
+    public int top(int zone) {
+        int size = size(zone);
+        if (size == 0)
+            return NO_CARD;
+        return cards[zoneStart(zone) + size - 1];
+    }
+
+    /**
+     * @param zone The zone to look in.
+     * @param card The card to look for.
+     * @return The index of the given card in the given zone, or -1 if the card isn't in the zone.
+     */
+    public int indexOf(int zone, int card) {
+        if (card == NO_CARD)
+            return -1;
+        int start = zoneStart(zone);
+        int size = size(zone);
+        for (int i = 0; i < size; ++i)
+            if (cards[start + i] == card)
+                return i;
+        return -1;
+    }
+
+    /**
+     * @return The card in the draw area, or NO_CARD if there is none.
+     */
+    public int getDrawnCard() {
+        return top(DRAW_AREA);
+    }
+
+    /**
+     * @param player The player, 0 or 1.
+     * @return The zone holding the given player's hand.
+     */
+    public static int handOf(int player) {
+        return PLAYER1_HAND + player;
+    }
+
+    /**
+     * @param player The player, 0 or 1.
+     * @return The sum of the values of the given player's cards.
+     */
+    public int getPoints(int player) {
+        int start = zoneStart(handOf(player));
+        int size = size(handOf(player));
+        int points = 0;
+        for (int i = 0; i < size; ++i)
+            points += CABO_CARDS[cards[start + i]].value;
+        return points;
+    }
+
+    /**
+     * Swaps two cards in place, which may be in the same zone or in different zones.
+     *
+     * @param zoneA The zone of the first card.
+     * @param indexA The index of the first card in its zone.
+     * @param zoneB The zone of the second card.
+     * @param indexB The index of the second card in its zone.
+     */
+    public void swapCards(int zoneA, int indexA, int zoneB, int indexB) {
+        int a = zoneStart(zoneA) + indexA;
+        int b = zoneStart(zoneB) + indexB;
+        byte card = cards[a];
+        cards[a] = cards[b];
+        cards[b] = card;
+    }
+
+    /**
+     * Moves a card from one zone to another, shifting the other cards of both zones as needed.
+     *
+     * @param fromZone The zone to take the card from.
+     * @param fromIndex The index of the card in the zone it is taken from.
+     * @param toZone The zone to put the card in.
+     * @param toIndex The index the card gets in the zone it is put in, after it was taken out.
+     */
+    public void moveCard(int fromZone, int fromIndex, int toZone, int toIndex) {
+        int from = zoneStart(fromZone) + fromIndex;
+        byte card = cards[from];
+        System.arraycopy(cards, from + 1, cards, from, CARD_COUNT - 1 - from);
+        addToSize(fromZone, -1);
+        int to = zoneStart(toZone) + toIndex;
+        System.arraycopy(cards, to, cards, to + 1, CARD_COUNT - 1 - to);
+        cards[to] = card;
+        addToSize(toZone, 1);
+    }
+
+    /**
+     * @param card The card to look at.
+     * @return Whether the given card is face-up.
+     */
+    public boolean isFaceUp(int card) {
+        return (faceUpMask & 1L << card) != 0;
+    }
+
+    /**
+     * Sets a card face-up or face-down.
+     *
+     * @param card The card to flip.
+     * @param faceUp Whether the card should be face-up.
+     */
+    public void setFaceUp(int card, boolean faceUp) {
+        if (faceUp)
+            faceUpMask |= 1L << card;
+        else
+            faceUpMask &= ~(1L << card);
+    }
+
+    /**
+     * @return A mask with the bit of every face-up card's ordinal set.
+     */
+    public long getFaceUpMask() {
+        return faceUpMask;
+    }
+
+    /**
+     * @param faceUpMask A mask with the bit of every face-up card's ordinal set.
+     */
+    public void setFaceUpMask(long faceUpMask) {
+        this.faceUpMask = faceUpMask;
+    }
+
+    /**
+     * @param player The player, 0 or 1.
+     * @param card The card to look at.
+     * @return Whether the player has seen the card since it was last shuffled into the deck.
+     */
+    public boolean isKnown(int player, int card) {
+        return (getKnownMask(player) & 1L << card) != 0;
+    }
+
+    /**
+     * Records that a player has seen a card.
+     *
+     * @param player The player, 0 or 1.
+     * @param card The card that was seen.
+     */
+    public void setKnown(int player, int card) {
+        setKnownMask(player, getKnownMask(player) | 1L << card);
+    }
+
+    /**
+     * @param player The player, 0 or 1.
+     * @return A mask with the bit of every card's ordinal set that the player has seen.
+     */
+    public long getKnownMask(int player) {
+        return player == 0 ? knownByPlayer1 : knownByPlayer2;
+    }
+
+    /**
+     * @param player The player, 0 or 1.
+     * @param knownMask A mask with the bit of every card's ordinal set that the player has seen.
+     */
+    public void setKnownMask(int player, long knownMask) {
+        if (player == 0)
+            knownByPlayer1 = knownMask;
+        else
+            knownByPlayer2 = knownMask;
+    }
+
+    /**
+     * Puts all cards into their zones at once. The cards are given zone by zone, in the same order as the zones are
+     * numbered, and whatever remains after the hand of player 2 goes into the draw area.
+     *
+     * @param cards All CaboCard ordinals, each exactly once.
+     * @param sizes The number of cards in the DECK, DISCARD_PILE, PLAYER1_HAND and PLAYER2_HAND zones.
+     * @throws IllegalArgumentException If the cards aren't a permutation of all CaboCards, or if the sizes don't fit.
+     */
+    public void setCards(byte[] cards, int[] sizes) {
+
+        if (cards.length != CARD_COUNT || sizes.length != DRAW_AREA)
+            throw new IllegalArgumentException("Expected " + CARD_COUNT + " cards in " + DRAW_AREA + " zones");
+
+        long seen = 0;
+        for (byte card : cards) {
+            if (card < 0 || card >= CARD_COUNT || (seen & 1L << card) != 0)
+                throw new IllegalArgumentException("Card " + card + " is invalid or appears more than once");
+            seen |= 1L << card;
+        }
+
+        int total = 0;
+        long zoneSizes = 0;
+        for (int zone = DECK; zone < DRAW_AREA; ++zone) {
+            if (sizes[zone] < 0 || sizes[zone] > SIZE_MASK)
+                throw new IllegalArgumentException("Zone " + zone + " can't hold " + sizes[zone] + " cards");
+            total += sizes[zone];
+            zoneSizes |= (long)sizes[zone] << zone * SIZE_BITS;
+        }
+        if (total > CARD_COUNT || CARD_COUNT - total > 1)
+            throw new IllegalArgumentException("The draw area can't hold " + (CARD_COUNT - total) + " cards");
+
+        System.arraycopy(cards, 0, this.cards, 0, CARD_COUNT);
+        layout = layout & ~((1L << DRAW_AREA * SIZE_BITS) - 1) | zoneSizes;
+    }
+
+    /**
+     * @return The player whose turn it is, 0 or 1.
+     */
+    public int getCurrentPlayer() {
+        return (int)(layout >>> CURRENT_PLAYER_BIT & 1);
+    }
+
+    /**
+     * @param player The player whose turn it is, 0 or 1.
+     */
+    public void setCurrentPlayer(int player) {
+        setFlag(CURRENT_PLAYER_BIT, player != 0);
+    }
+
+    /**
+     * @param player The player, 0 or 1.
+     * @return Whether the given player called Cabo.
+     */
+    public boolean hasCalledCabo(int player) {
+        return getFlag(CALLED_CABO_BIT + player);
+    }
+
+    /**
+     * @param player The player who calls Cabo, 0 or 1.
+     */
+    public void setCalledCabo(int player) {
+        setFlag(CALLED_CABO_BIT + player, true);
+    }
+
+    /**
+     * @return Whether any of the players called Cabo.
+     */
+    public boolean caboWasCalled() {
+        return hasCalledCabo(0) || hasCalledCabo(1);
+    }
+
+    /**
+     * @param player The player, 0 or 1.
+     * @return Whether the given player did their initial peek.
+     */
+    public boolean didInitialPeek(int player) {
+        return getFlag(DID_INITIAL_PEEK_BIT + player);
+    }
+
+    /**
+     * @param player The player who did their initial peek, 0 or 1.
+     */
+    public void setDidInitialPeek(int player) {
+        setFlag(DID_INITIAL_PEEK_BIT + player, true);
+    }
+
+    /**
+     * @return Whether the game has ended.
+     */
+    public boolean isOver() {
+        return getFlag(IS_OVER_BIT);
+    }
+
+    /**
+     * @param isOver Whether the game has ended.
+     */
+    public void setOver(boolean isOver) {
+        setFlag(IS_OVER_BIT, isOver);
+    }
+
+    /**
+     * @return The name of the current TurnPhase.
+     */
+    public TurnPhase.PhaseName getPhaseName() {
+        return PHASE_NAMES[(int)(layout >>> PHASE_NAME_SHIFT & PHASE_NAME_MASK)];
+    }
+
+    /**
+     * Enters a new TurnPhase with no selected card, no phase-local cards and no previous TurnPhase.
+     *
+     * @param phaseName The name of the new TurnPhase.
+     */
+    public void setPhaseName(TurnPhase.PhaseName phaseName) {
+        layout = layout & ~(PHASE_NAME_MASK << PHASE_NAME_SHIFT) | (long)phaseName.ordinal() << PHASE_NAME_SHIFT;
+        phaseState = EMPTY_PHASE_STATE | NO_PHASE_BITS << PREVIOUS_PHASE_NAME_SHIFT;
+    }
+
+    /**
+     * @return The selected card of the current TurnPhase, or NO_CARD.
+     */
+    public int getSelectedCard() {
+        return getCard(SELECTED_CARD_SHIFT);
+    }
+
+    /**
+     * @param card The selected card of the current TurnPhase, or NO_CARD.
+     */
+    public void setSelectedCard(int card) {
+        setCard(SELECTED_CARD_SHIFT, card);
+    }
+
+    /**
+     * @return The first phase-local card of the current TurnPhase, or NO_CARD.
+     * @see TurnPhase#getFirstPhaseCard()
+     */
+    public int getFirstPhaseCard() {
+        return getCard(FIRST_PHASE_CARD_SHIFT);
+    }
+
+    /**
+     * @param card The first phase-local card of the current TurnPhase, or NO_CARD.
+     */
+    public void setFirstPhaseCard(int card) {
+        setCard(FIRST_PHASE_CARD_SHIFT, card);
+    }
+
+    /**
+     * @return The second phase-local card of the current TurnPhase, or NO_CARD.
+     * @see TurnPhase#getSecondPhaseCard()
+     */
+    public int getSecondPhaseCard() {
+        return getCard(SECOND_PHASE_CARD_SHIFT);
+    }
+
+    /**
+     * @param card The second phase-local card of the current TurnPhase, or NO_CARD.
+     */
+    public void setSecondPhaseCard(int card) {
+        setCard(SECOND_PHASE_CARD_SHIFT, card);
+    }
+
+    /**
+     * @return The name of the TurnPhase to return to after the current one, or null if there is none.
+     * @see TurnPhase#getPreviousPhase()
+     */
+    public TurnPhase.PhaseName getPreviousPhaseName() {
+        long bits = phaseState >>> PREVIOUS_PHASE_NAME_SHIFT & PHASE_NAME_MASK;
+        return bits == NO_PHASE_BITS ? null : PHASE_NAMES[(int)bits];
+    }
+
+    /**
+     * @return The selected card of the previous TurnPhase, or NO_CARD.
+     */
+    public int getPreviousSelectedCard() {
+        return getCard(PREVIOUS_PHASE_SHIFT + SELECTED_CARD_SHIFT);
+    }
+
+    /**
+     * @return The first phase-local card of the previous TurnPhase, or NO_CARD.
+     */
+    public int getPreviousFirstPhaseCard() {
+        return getCard(PREVIOUS_PHASE_SHIFT + FIRST_PHASE_CARD_SHIFT);
+    }
+
+    /**
+     * @return The second phase-local card of the previous TurnPhase, or NO_CARD.
+     */
+    public int getPreviousSecondPhaseCard() {
+        return getCard(PREVIOUS_PHASE_SHIFT + SECOND_PHASE_CARD_SHIFT);
+    }
+
+    /**
+     * Enters a new TurnPhase with no selected card and no phase-local cards, remembering the current TurnPhase along
+     * with its selected and phase-local cards as the previous TurnPhase - like entering a PickupPhase or
+     * TransferCardPhase does. Any older previous TurnPhase is forgotten.
+     *
+     * @param phaseName The name of the new TurnPhase.
+     */
+    public void pushPhase(TurnPhase.PhaseName phaseName) {
+        long current = phaseState & CURRENT_PHASE_MASK;
+        long currentName = layout >>> PHASE_NAME_SHIFT & PHASE_NAME_MASK;
+        layout = layout & ~(PHASE_NAME_MASK << PHASE_NAME_SHIFT) | (long)phaseName.ordinal() << PHASE_NAME_SHIFT;
+        phaseState = EMPTY_PHASE_STATE | currentName << PREVIOUS_PHASE_NAME_SHIFT | current << PREVIOUS_PHASE_SHIFT;
+    }
+
+    /**
+     * Returns to the previous TurnPhase, restoring its selected and phase-local cards. There is no previous TurnPhase
+     * afterwards.
+     */
+    public void popPhase() {
+        long phaseName = phaseState >>> PREVIOUS_PHASE_NAME_SHIFT & PHASE_NAME_MASK;
+        long previous = phaseState >>> PREVIOUS_PHASE_SHIFT & CURRENT_PHASE_MASK;
+        layout = layout & ~(PHASE_NAME_MASK << PHASE_NAME_SHIFT) | phaseName << PHASE_NAME_SHIFT;
+        phaseState = previous | NO_PHASE_BITS << PREVIOUS_PHASE_NAME_SHIFT;
+    }
+
+    /**
+     * @param other The object to compare with.
+     * @return Whether the other object is a CompactGameState with exactly the same state.
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof CompactGameState))
+            return false;
+        CompactGameState state = (CompactGameState)other;
+        return layout == state.layout && faceUpMask == state.faceUpMask && phaseState == state.phaseState
+                && knownByPlayer1 == state.knownByPlayer1 && knownByPlayer2 == state.knownByPlayer2
+                && Arrays.equals(cards, state.cards);
+    }
+
+    /**
+     * @return A hash code consistent with equals().
+     */
+    @Override
+    public int hashCode() {
+        int hash = Arrays.hashCode(cards);
+        hash = 31 * hash + Long.hashCode(layout);
+        hash = 31 * hash + Long.hashCode(faceUpMask);
+        hash = 31 * hash + Long.hashCode(phaseState);
+        hash = 31 * hash + Long.hashCode(knownByPlayer1);
+        return 31 * hash + Long.hashCode(knownByPlayer2);
+    }
+
+    /**
+     * Packs the selected card and phase-local cards of a TurnPhase as those of the current phase.
+     *
+     * @param phase The TurnPhase whose cards to pack.
+     */
+    private void setPhaseCards(TurnPhase phase) {
+        setSelectedCard(pack(phase.getSelectedCard()));
+        setFirstPhaseCard(pack(phase.getFirstPhaseCard()));
+        setSecondPhaseCard(pack(phase.getSecondPhaseCard()));
+    }
+
+    /**
+     * @param zone The zone whose cards to collect.
+     * @param unpacked The Card object of every CaboCard ordinal.
+     * @return The Card objects in the given zone, in order.
+     */
+    private List<Card> cardsIn(int zone, Card[] unpacked) {
+        int start = zoneStart(zone);
+        int size = size(zone);
+        List<Card> zoneCards = new ArrayList<>(size);
+        for (int i = 0; i < size; ++i)
+            zoneCards.add(unpacked[cards[start + i]]);
+        return zoneCards;
+    }
+
+    /**
+     * @param zone The zone, e.g. DECK.
+     * @return The index into the cards array where the given zone starts.
+     */
+    private int zoneStart(int zone) {
+        int start = 0;
+        for (int i = DECK; i < zone; ++i)
+            start += (int)(layout >>> i * SIZE_BITS & SIZE_MASK);
+        return start;
+    }
+
+    private void addToSize(int zone, int amount) {
+        if (zone != DRAW_AREA)
+            layout += (long)amount << zone * SIZE_BITS;
+    }
+
+    private boolean getFlag(int bit) {
+        return (layout & 1L << bit) != 0;
+    }
+
+    private void setFlag(int bit, boolean value) {
+        if (value)
+            layout |= 1L << bit;
+        else
+            layout &= ~(1L << bit);
+    }
+
+    private int getCard(int shift) {
+        long bits = phaseState >>> shift & CARD_MASK;
+        return bits == NO_CARD_BITS ? NO_CARD : (int)bits;
+    }
+
+    private void setCard(int shift, int card) {
+        long bits = card == NO_CARD ? NO_CARD_BITS : card;
+        phaseState = phaseState & ~(CARD_MASK << shift) | bits << shift;
+    }
+
+    private static int pack(Card card) {
+        return card == null ? NO_CARD : card.getBackingCard().ordinal();
+    }
+
+    private static Card unpack(int card, Card[] unpacked) {
+        return card == NO_CARD ? null : unpacked[card];
+    }
+}
@@ -0,0 +1,33 @@
+package model;
+
+/**
+ * @version 1.0
+ *
+ * The parts of a CaboGame that can change during a single action. The observers of a CaboGame are notified once per
+ * action, and receive the set of GameChanges made during the action as the message of the notification - so they can
+ * skip work for the parts of the game that stayed the same.
+ *
+ * @see CaboGame#performAction(Runnable)
+ */
+public enum GameChange {
+
+    /**
+     * Cards were moved between, or flipped within, the Deck, the DiscardPile or the hands of the Players.
+     */
+    CARDS,
+
+    /**
+     * The Card in the draw area was drawn, discarded or swapped.
+     */
+    DRAWN_CARD,
+
+    /**
+     * The TurnPhase changed, or the state of the current TurnPhase changed - e.g. a different Card was selected.
+     */
+    TURN_PHASE,
+
+    /**
+     * The turn went over to the other Player, or the game ended.
+     */
+    CURRENT_PLAYER
+}
@@ -0,0 +1,48 @@
+package model;
+
+import model.card.Card;
+import model.card.Deck;
+
+/**
+ * @version 1.0
+ *
+ * Receives the side effects of a game of Cabo that are not part of the game state itself - such as a card being
+ * flipped, the deck being shuffled, or the game ending. The model never plays sounds or shows dialogs on its own, it
+ * only reports these events to the GameEffects installed with CaboGame.setEffects(). By default no effects are
+ * installed, so the model runs headless and can play complete games on any thread without touching AWT, Swing or
+ * javax.sound. The GUI installs its own effects on startup.
+ *
+ * @see CaboGame
+ * @see view.SwingEffects
+ */
+public interface GameEffects {
+
+    /**
+     * The default GameEffects which simply ignores all effects.
+     */
+    GameEffects NONE = new GameEffects() {};
+
+    /**
+     * Called when a Card is flipped face-up or face-down during play.
+     *
+     * @param card The Card that was flipped.
+     * @see Card
+     */
+    default void cardFlipped(Card card) {}
+
+    /**
+     * Called when the DiscardPile is shuffled back into a Deck that ran out of Cards.
+     *
+     * @param deck The Deck that was shuffled.
+     * @see Deck
+     */
+    default void deckShuffled(Deck deck) {}
+
+    /**
+     * Called when a CaboGame ends after the last turn following a Cabo call. The game stays over until it is reset, so
+     * an implementation may call CaboGame.reset() to immediately start a new game.
+     *
+     * @param game The CaboGame that ended.
+     */
+    default void gameEnded(CaboGame game) {}
+}
@@ -2,17 +2,32 @@ package model;
 
 import model.card.Card;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
- * @version 1.1
+ * @version 1.3
  *
  * This class encompasses one player in the game. It stores the player's cards and some more information about the
  * player, for example whether the player has called cabo or not.
  *
+ * A player also remembers which cards they have seen, as a bitset with one bit per CaboCard ordinal - so that the
+ * knowledge outlives the card being turned face-down again. Every move of a card between hands, the deck and the
+ * discard pile happens in plain sight of both players, so a player who has seen a card also knows where it went: the
+ * card in any hand slot is known to the player if its bit is set, which is what getKnownCard() checks. Swapping and
+ * transferring cards therefore doesn't change what is known - only seeing a card, and shuffling it into the deck, do.
+ *
+ * The player keeps the Zobrist hash of their hand and of whether they called Cabo up to date with every change, so
+ * cards in the hand must only be moved with the player's methods, and flipped with flipCard(). Adding or removing a
+ * card at the end of the hand takes constant time, while the cards after a card inserted or removed in the middle are
+ * rehashed, since they move to another slot.
+ *
  * @see Card
+ * @see ZobristKeys
  * @see Serializable
  */
 public class Player implements Serializable {
@@ -23,6 +38,9 @@ public class Player implements Serializable {
     private final List<Card> cards;
     private boolean calledCabo;
     private boolean didInitialPeek;
+    private long knownCards;
+    private transient List<Card> cardsView;
+    private transient long hash;
 
     /**
      * Constructs a player with a description and the default settings for a new player, i.e. empty cards and false
@@ -32,12 +50,14 @@ public class Player implements Serializable {
     public Player(String description) {
         this.description = description;
         this.cards = new ArrayList<>();
+        this.cardsView = Collections.unmodifiableList(cards);
         this.calledCabo = false;
         this.didInitialPeek = false;
     }
 
     /**
-     * Swaps a card of the player with one card of another player.
+     * Swaps a card of the player with one card of another player. What both players know about the cards moves along
+     * with them.
      * @param opponent the opponent the player swaps cards with
      * @param playerCard the player card that will be swapped
      * @param opponentCard the opponent card that will be swapped for the player card
@@ -50,11 +70,8 @@ public class Player implements Serializable {
         if (playerCardIndex < 0 || opponentCardIndex < 0)
             throw new RuntimeException("Invalid cards passed to Player.swapCards()");
 
-        removeCard(playerCard);
-        opponent.removeCard(opponentCard);
-
-        addCard(playerCardIndex, opponentCard);
-        opponent.addCard(opponentCardIndex, playerCard);
+        replaceCard(playerCardIndex, opponentCard);
+        opponent.replaceCard(opponentCardIndex, playerCard);
     }
 
     /**
@@ -74,6 +91,7 @@ public class Player implements Serializable {
      * @see Card
      */
     public void addCard(Card card){
+        hash ^= ZobristKeys.placement(ZobristKeys.HAND, cards.size(), card);
         cards.add(card);
     }
 
@@ -83,7 +101,9 @@ public class Player implements Serializable {
      * @param card the card that should be added
      */
     public void addCard(int index, Card card){
+        hash ^= hashFrom(index);
         cards.add(index, card);
+        hash ^= hashFrom(index);
     }
 
     /**
@@ -91,7 +111,9 @@ public class Player implements Serializable {
      * @param card the card that is removed
      */
     public void removeCard(Card card){
-        cards.remove(card);
+        int index = cards.indexOf(card);
+        if (index >= 0)
+            removeCard(index);
     }
 
     /**
@@ -99,7 +121,24 @@ public class Player implements Serializable {
      * @param index the index a card will be removed from
      */
     public void removeCard(int index) {
+        hash ^= hashFrom(index);
         cards.remove(index);
+        hash ^= hashFrom(index);
+    }
+
+    /**
+     * Turns a card in the player's hand face-up or face-down.
+     * @param card the card that is flipped, which must be in the player's hand
+     * @param faceUp whether the card should be face-up
+     */
+    public void flipCard(Card card, boolean faceUp) {
+        if (card.isFaceUp() == faceUp)
+            return;
+        hash ^= ZobristKeys.faceUp(card);
+        if (faceUp)
+            card.setFaceUp();
+        else
+            card.setFaceDown();
     }
 
     /**
@@ -113,10 +152,20 @@ public class Player implements Serializable {
 
     /**
      * Gets the player's cards.
-     * @return the player's cards
+     * @return an unmodifiable view of the player's cards
      */
     public List<Card> getCards(){
-        return cards;
+        return cardsView;
+    }
+
+    /**
+     * Gets the Zobrist hash of the player's hand, with the face-up flags of the cards, and of whether the player called
+     * cabo.
+     * @return the hash of the player
+     * @see ZobristKeys
+     */
+    public long getHash() {
+        return hash;
     }
 
     /**
@@ -140,6 +189,8 @@ public class Player implements Serializable {
      * Lets the player call cabo.
      */
     public void setCalledCabo(){
+        if (!calledCabo)
+            hash ^= ZobristKeys.CALLED_CABO;
         calledCabo = true;
     }
 
@@ -158,6 +209,90 @@ public class Player implements Serializable {
         return didInitialPeek;
     }
 
+    /**
+     * Records that the player has seen a card, for example by peeking at it.
+     * @param card the card that was seen
+     */
+    public void learnCard(Card card) {
+        knownCards |= 1L << card.getBackingCard().ordinal();
+    }
+
+    /**
+     * Makes the player forget the given cards, for example because they were shuffled into the deck.
+     * @param cards a bitset with the bit of every forgotten card's CaboCard ordinal set
+     */
+    public void forgetCards(long cards) {
+        knownCards &= ~cards;
+    }
+
+    /**
+     * Checks whether the player has seen a card since it was last shuffled into the deck.
+     * @param card the card that is checked for
+     * @return true if the player knows the card, false if not
+     */
+    public boolean knowsCard(Card card) {
+        return (knownCards & 1L << card.getBackingCard().ordinal()) != 0;
+    }
+
+    /**
+     * Gets the card in a slot of a hand, if the player knows it.
+     * @param owner the player whose hand the slot is in, which may be this player
+     * @param index the index of the slot in the owner's hand
+     * @return the card in the slot if it is face-up or the player has seen it, null otherwise
+     */
+    public Card getKnownCard(Player owner, int index) {
+        Card card = owner.cards.get(index);
+        return card.isFaceUp() || knowsCard(card) ? card : null;
+    }
+
+    /**
+     * Gets the cards the player has seen.
+     * @return a bitset with the bit of every known card's CaboCard ordinal set
+     */
+    public long getKnownCards() {
+        return knownCards;
+    }
+
+    /**
+     * Sets the cards the player has seen, for example when a game is loaded.
+     * @param knownCards a bitset with the bit of every known card's CaboCard ordinal set
+     */
+    public void setKnownCards(long knownCards) {
+        this.knownCards = knownCards;
+    }
+
+    /**
+     * Replaces the card at an index of the player's hand with another card.
+     * @param index the index of the replaced card
+     * @param card the card that takes its place
+     */
+    private void replaceCard(int index, Card card) {
+        hash ^= ZobristKeys.placement(ZobristKeys.HAND, index, cards.get(index));
+        cards.set(index, card);
+        hash ^= ZobristKeys.placement(ZobristKeys.HAND, index, card);
+    }
+
+    /**
+     * Computes the hash of the cards from an index to the end of the player's hand.
+     * @param index the index of the first card
+     * @return the exclusive or of the keys of the cards
+     */
+    private long hashFrom(int index) {
+        long slots = 0;
+        for (int i = index; i < cards.size(); ++i)
+            slots ^= ZobristKeys.placement(ZobristKeys.HAND, i, cards.get(i));
+        return slots;
+    }
+
+    /**
+     * The hash isn't saved, so it is computed again when a player is loaded.
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        cardsView = Collections.unmodifiableList(cards);
+        hash = hashFrom(0) ^ (calledCabo ? ZobristKeys.CALLED_CABO : 0);
+    }
+
     /**
      * Overwrites the toString() method and gives a customized String representation of the player. In this case,
      * the player represents themselves with their description.
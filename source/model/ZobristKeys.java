@@ -0,0 +1,126 @@
+package model;
+
+import model.card.CaboCard;
+import model.card.Card;
+import model.turnphase.TurnPhase;
+
+import java.util.SplittableRandom;
+
+/**
+ * @version 1.0
+ *
+ * The random keys from which the Zobrist hash of a CaboGame is built. Every part of the state that the hash covers has
+ * a 64-bit key of its own, and the hash of a state is the exclusive or of the keys of all parts that are present - a
+ * card at an index of the deck, the discard pile or a hand, a card that is face-up, the card in the draw area, a
+ * player that called Cabo, the second player being the current player, the game being over, and the names of the
+ * current TurnPhase and of the TurnPhase it returns to. Since the exclusive or is its own inverse, a part is added to
+ * or removed from a hash by xor-ing its key in, so that the Deck, DiscardPile and Player can keep their hashes up to
+ * date as they change, without walking their cards.
+ *
+ * Both hands use the HAND keys. The CaboGame rotates the hash of the second player's hand before combining it, so that
+ * the same card in the same slot hashes differently for the two players.
+ *
+ * The keys come from a fixed seed, so a state hashes to the same value in every run of the program.
+ *
+ * @see CaboGame#getHash()
+ * @see model.card.Deck
+ * @see model.card.DiscardPile
+ * @see Player
+ */
+public final class ZobristKeys {
+
+    /**
+     * The zones whose cards are keyed by their index.
+     */
+    public static final int DECK = 0;
+    public static final int DISCARD_PILE = 1;
+    public static final int HAND = 2;
+
+    private static final int CARD_COUNT = CaboCard.values().length;
+
+    private static final long[][][] PLACEMENT = new long[3][CARD_COUNT][CARD_COUNT];
+    private static final long[] FACE_UP = new long[CARD_COUNT];
+    private static final long[] DRAWN_CARD = new long[CARD_COUNT];
+    private static final long[] PHASE = new long[TurnPhase.PhaseName.values().length];
+    private static final long[] PREVIOUS_PHASE = new long[TurnPhase.PhaseName.values().length];
+
+    /**
+     * The key of a player that called Cabo, which is part of the hash of the Player.
+     */
+    public static final long CALLED_CABO;
+
+    /**
+     * The key of the second player being the current player.
+     */
+    public static final long SECOND_PLAYER_TO_MOVE;
+
+    /**
+     * The key of a game that is over.
+     */
+    public static final long GAME_OVER;
+
+    static {
+        SplittableRandom random = new SplittableRandom(0xCAB0L);
+        for (long[][] zone : PLACEMENT)
+            for (long[] index : zone)
+                for (int card = 0; card < CARD_COUNT; ++card)
+                    index[card] = random.nextLong();
+        for (int card = 0; card < CARD_COUNT; ++card) {
+            FACE_UP[card] = random.nextLong();
+            DRAWN_CARD[card] = random.nextLong();
+        }
+        for (int phase = 0; phase < PHASE.length; ++phase) {
+            PHASE[phase] = random.nextLong();
+            PREVIOUS_PHASE[phase] = random.nextLong();
+        }
+        CALLED_CABO = random.nextLong();
+        SECOND_PLAYER_TO_MOVE = random.nextLong();
+        GAME_OVER = random.nextLong();
+    }
+
+    private ZobristKeys() {}
+
+    /**
+     * @param zone The zone the card is in - DECK, DISCARD_PILE or HAND.
+     * @param index The index of the card in the zone.
+     * @param card The card, whose key includes whether it is face-up right now.
+     * @return The key of the card at the index of the zone.
+     */
+    public static long placement(int zone, int index, Card card) {
+        int ordinal = card.getBackingCard().ordinal();
+        return PLACEMENT[zone][index][ordinal] ^ (card.isFaceUp() ? FACE_UP[ordinal] : 0);
+    }
+
+    /**
+     * @param card A card.
+     * @return The key that is xor-ed into a hash when the card is turned face-up or face-down.
+     */
+    public static long faceUp(Card card) {
+        return FACE_UP[card.getBackingCard().ordinal()];
+    }
+
+    /**
+     * @param card The card in the draw area.
+     * @return The key of the card being in the draw area, including whether it is face-up right now.
+     */
+    public static long drawnCard(Card card) {
+        int ordinal = card.getBackingCard().ordinal();
+        return DRAWN_CARD[ordinal] ^ (card.isFaceUp() ? FACE_UP[ordinal] : 0);
+    }
+
+    /**
+     * @param phaseName The name of the current TurnPhase.
+     * @return The key of the TurnPhase.
+     */
+    public static long phase(TurnPhase.PhaseName phaseName) {
+        return PHASE[phaseName.ordinal()];
+    }
+
+    /**
+     * @param phaseName The name of the TurnPhase that a PickupPhase or TransferCardPhase returns to.
+     * @return The key of the TurnPhase to return to.
+     */
+    public static long previousPhase(TurnPhase.PhaseName phaseName) {
+        return PREVIOUS_PHASE[phaseName.ordinal()];
+    }
+}
@@ -1,6 +1,6 @@
 package model.card;
 
-import view.SoundPlayer;
+import model.CaboGame;
 
 import java.io.Serializable;
 
@@ -28,8 +28,19 @@ public class Card implements Serializable {
      * @see CaboCard
      */
     public Card(CaboCard card) {
+        this(card, false);
+    }
+
+    /**
+     * Constructs a new Card from a CaboCard representing it's value, which is initially set face-up or face-down.
+     *
+     * @param card The CaboCard to base this Card off of.
+     * @param isFaceUp Whether the created Card is initially face-up.
+     * @see CaboCard
+     */
+    public Card(CaboCard card, boolean isFaceUp) {
         this.card = card;
-        this.isFaceUp = false;
+        this.isFaceUp = isFaceUp;
     }
 
     /**
@@ -64,18 +75,30 @@ public class Card implements Serializable {
      * Sets the card face up if it wasn't already so.
      */
     public void setFaceUp() {
-        if (!isFaceUp())
-            SoundPlayer.playSound("flip.wav");
-        isFaceUp = true;
+        if (!isFaceUp()) {
+            isFaceUp = true;
+            CaboGame.getEffects().cardFlipped(this);
+        }
     }
 
     /**
      * Sets the card face down if it wasn't already so.
      */
     public void setFaceDown() {
-        if (isFaceUp())
-            SoundPlayer.playSound("flip.wav");
-        isFaceUp = false;
+        if (isFaceUp()) {
+            isFaceUp = false;
+            CaboGame.getEffects().cardFlipped(this);
+        }
+    }
+
+    /**
+     * Sets the card face up or face down without reporting a flip to the GameEffects - used when many cards are
+     * flipped at once, such as when shuffling.
+     *
+     * @param faceUp Whether the card should be face up.
+     */
+    void flipQuietly(boolean faceUp) {
+        isFaceUp = faceUp;
     }
 
 }
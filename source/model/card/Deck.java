@@ -1,18 +1,27 @@
 package model.card;
 
-import view.SoundPlayer;
+import model.CaboGame;
+import model.ZobristKeys;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.*;
 
 /**
- * @version 3.0
+ * @version 3.1
  *
  * Represents a deck of cards used for a game of Cabo. All cards in the deck are normally set face down. The Deck
  * is also paired with a DiscardPile. When the deck runs out of cards the Cards from the DiscardPile can be shuffled in.
+ * All shuffling is done with the Deck's Shuffler, so a Deck constructed with a seeded Shuffler always shuffles the same.
+ *
+ * The Deck keeps the Zobrist hash of its Cards up to date as they are drawn, and rehashes all of them when it is
+ * shuffled. Its Cards can therefore only be changed through the Deck itself.
  *
  * @see Card
  * @see DiscardPile
+ * @see Shuffler
+ * @see ZobristKeys
  * @see model.CaboGame
  */
 public class Deck implements Iterable<Card>, Serializable {
@@ -20,6 +29,9 @@ public class Deck implements Iterable<Card>, Serializable {
     private static final long serialVersionUID = 42L;
 
     private final List<Card> cards;
+    private Shuffler shuffler;
+    private transient List<Card> cardsView;
+    private transient long hash;
 
     /**
      * Initializes a Deck with a given DiscardPile pair. All possible CaboCards are added to the deck and then
@@ -31,16 +43,59 @@ public class Deck implements Iterable<Card>, Serializable {
      * @see CaboCard
      */
     public Deck(DiscardPile discardPile) {
+        this(discardPile, new Shuffler());
+    }
+
+    /**
+     * Initializes a Deck with a given DiscardPile pair, which is shuffled with the given Shuffler. All possible
+     * CaboCards are added to the deck and then shuffled. One of the Cards is then drawn from the Deck onto the
+     * DiscardPile.
+     *
+     * @param discardPile the discard pile
+     * @param shuffler The Shuffler used to shuffle this Deck, now and whenever the DiscardPile is shuffled in.
+     * @see DiscardPile
+     * @see Shuffler
+     */
+    public Deck(DiscardPile discardPile, Shuffler shuffler) {
         this.cards = new ArrayList<>();
+        this.shuffler = shuffler;
 
         for (CaboCard card : CaboCard.values())
             cards.add(new Card(card));
 
         shuffle();
+        cardsView = Collections.unmodifiableList(cards);
         if (discardPile != null)
             discardPile.put(draw());
     }
 
+    /**
+     * Initializes a Deck which contains exactly the given Cards, in the given order from BOTTOM to TOP. The Cards are
+     * not shuffled or flipped.
+     *
+     * @param cards The Cards to put in the Deck.
+     * @see Card
+     */
+    public Deck(List<Card> cards) {
+        this(cards, new Shuffler());
+    }
+
+    /**
+     * Initializes a Deck which contains exactly the given Cards, in the given order from BOTTOM to TOP. The Cards are
+     * not shuffled or flipped, but will be shuffled with the given Shuffler when the DiscardPile is shuffled in.
+     *
+     * @param cards The Cards to put in the Deck.
+     * @param shuffler The Shuffler used whenever the DiscardPile is shuffled in.
+     * @see Card
+     * @see Shuffler
+     */
+    public Deck(List<Card> cards, Shuffler shuffler) {
+        this.cards = new ArrayList<>(cards);
+        this.shuffler = shuffler;
+        cardsView = Collections.unmodifiableList(this.cards);
+        rehash();
+    }
+
     /**
      * @return An iterator over the Cards backing this Deck - the iterator goes from BOTTOM to TOP.
      */
@@ -50,10 +105,18 @@ public class Deck implements Iterable<Card>, Serializable {
     }
 
     /**
-     * @return The list of Cards that is backing this Deck.
+     * @return An unmodifiable view of the list of Cards that is backing this Deck.
      */
     public List<Card> asList() {
-        return cards;
+        return cardsView;
+    }
+
+    /**
+     * @return The Zobrist hash of the Cards in this Deck, at their indices and with their face-up flags.
+     * @see ZobristKeys
+     */
+    public long getHash() {
+        return hash;
     }
 
     /**
@@ -89,12 +152,15 @@ public class Deck implements Iterable<Card>, Serializable {
     public Card draw() {
         if (isEmpty())
             return null;
-        return cards.remove(cards.size() - 1);
+        Card card = cards.remove(cards.size() - 1);
+        hash ^= ZobristKeys.placement(ZobristKeys.DECK, cards.size(), card);
+        return card;
     }
 
     /**
      * Shuffles in all cards from the given DiscardPile - except for the one on top of the DiscardPile, which stays
-     * face-up in the DiscardPile. All other cards are added to this Deck and set face down.
+     * face-up in the DiscardPile. All other cards are added to this Deck and set face down. The shuffle is reported to
+     * the installed GameEffects, but the individual card flips are not.
      *
      * @param discardPile The DiscardPile to shuffle in.
      */
@@ -103,26 +169,46 @@ public class Deck implements Iterable<Card>, Serializable {
         while (!discardPile.isEmpty())
             cards.add(discardPile.draw());
         if (!isEmpty()) {
-            SoundPlayer.playSound("shuffle.wav");
-            Collections.shuffle(cards);
-            boolean soundIsOn = SoundPlayer.soundIsOn();
-            SoundPlayer.setSoundIsOn(false);
+            CaboGame.getEffects().deckShuffled(this);
+            shuffle();
             if (discardPileTop == null)
-                discardPile.put(draw());
-            else {
+                discardPileTop = draw();
+            else
                 cards.remove(discardPileTop);
-                discardPile.put(discardPileTop);
-            }
+            discardPileTop.flipQuietly(true);
+            discardPile.put(discardPileTop);
             for (Card card : cards)
-                card.setFaceDown();
-            SoundPlayer.setSoundIsOn(soundIsOn);
+                card.flipQuietly(false);
         }
+        rehash();
     }
 
     /**
      * Shuffle the cards in this Deck.
      */
     private void shuffle() {
-        Collections.shuffle(cards);
+        shuffler.shuffle(cards);
+        rehash();
+    }
+
+    /**
+     * Computes the hash of all cards in this Deck from scratch.
+     */
+    private void rehash() {
+        hash = 0;
+        for (int i = 0; i < cards.size(); ++i)
+            hash ^= ZobristKeys.placement(ZobristKeys.DECK, i, cards.get(i));
+    }
+
+    /**
+     * Decks saved before they had a Shuffler get a new one when they are loaded. The hash isn't saved, so it is
+     * computed again.
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        if (shuffler == null)
+            shuffler = new Shuffler();
+        cardsView = Collections.unmodifiableList(cards);
+        rehash();
     }
 }
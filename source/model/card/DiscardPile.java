@@ -1,17 +1,24 @@
 package model.card;
 
+import model.ZobristKeys;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.util.Collections;
 import java.util.List;
 import java.util.Stack;
 import java.util.Iterator;
 
 /**
- * @version 1.5
+ * @version 1.6
  *
- * Represents the discard pile of a CaboGame, in which all added cards are placed face-up.
+ * Represents the discard pile of a CaboGame, in which all added cards are placed face-up. The DiscardPile keeps the
+ * Zobrist hash of its Cards up to date as they are put and drawn, so its Cards can only be changed through it.
  *
  * @see Card
  * @see Deck
+ * @see ZobristKeys
  * @see model.CaboGame
  */
 public class DiscardPile implements Iterable<Card>, Serializable {
@@ -19,12 +26,28 @@ public class DiscardPile implements Iterable<Card>, Serializable {
     private static final long serialVersionUID = 42L;
 
     private final Stack<Card> pile;
+    private transient List<Card> pileView;
+    private transient long hash;
 
     /**
      * Constructs an empty DiscardPile.
      */
     public DiscardPile() {
         pile = new Stack<>();
+        pileView = Collections.unmodifiableList(pile);
+    }
+
+    /**
+     * Constructs a DiscardPile which contains exactly the given Cards, in the given order from BOTTOM to TOP. The
+     * Cards are not flipped.
+     *
+     * @param cards The Cards to put in the DiscardPile.
+     * @see Card
+     */
+    public DiscardPile(List<Card> cards) {
+        this();
+        pile.addAll(cards);
+        rehash();
     }
 
     /**
@@ -36,6 +59,7 @@ public class DiscardPile implements Iterable<Card>, Serializable {
     public void put(Card card) {
         if (card != null) {
             card.setFaceUp();
+            hash ^= ZobristKeys.placement(ZobristKeys.DISCARD_PILE, pile.size(), card);
             pile.push(card);
         }
     }
@@ -59,10 +83,18 @@ public class DiscardPile implements Iterable<Card>, Serializable {
     }
 
     /**
-     * @return Returns the List of Cards backing this discard pile.
+     * @return Returns an unmodifiable view of the List of Cards backing this discard pile.
      */
     public List<Card> asList() {
-        return pile;
+        return pileView;
+    }
+
+    /**
+     * @return The Zobrist hash of the Cards in this DiscardPile, at their indices and with their face-up flags.
+     * @see ZobristKeys
+     */
+    public long getHash() {
+        return hash;
     }
 
     /**
@@ -87,6 +119,26 @@ public class DiscardPile implements Iterable<Card>, Serializable {
     public Card draw() {
         if (isEmpty())
             return null;
-        return pile.pop();
+        Card card = pile.pop();
+        hash ^= ZobristKeys.placement(ZobristKeys.DISCARD_PILE, pile.size(), card);
+        return card;
+    }
+
+    /**
+     * Computes the hash of all cards in this DiscardPile from scratch.
+     */
+    private void rehash() {
+        hash = 0;
+        for (int i = 0; i < pile.size(); ++i)
+            hash ^= ZobristKeys.placement(ZobristKeys.DISCARD_PILE, i, pile.get(i));
+    }
+
+    /**
+     * The hash isn't saved, so it is computed again when a DiscardPile is loaded.
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        pileView = Collections.unmodifiableList(pile);
+        rehash();
     }
 }
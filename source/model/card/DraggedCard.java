@@ -6,7 +6,8 @@ import java.util.Observable;
  * @version 1.5
  *
  * Represents a Card being dragged with the mouse. The DraggedCard is tethered to some original location where it came
- * from and then it stores its relative position to that tether location.
+ * from and then it stores its relative position to that tether location. The tether is only known once the card was
+ * painted at its original location, until then the DraggedCard is not tethered.
  *
  * @see Card
  */
@@ -17,6 +18,7 @@ public class DraggedCard extends Observable {
     private int relativeY;
     private int tetherX;
     private int tetherY;
+    private boolean isTethered;
 
     /**
      * Constructs a DraggedCard from a given Card. The tether/relative locations are zero-initialized. The card cannot
@@ -31,6 +33,7 @@ public class DraggedCard extends Observable {
         relativeY = 0;
         tetherX = 0;
         tetherY = 0;
+        isTethered = false;
     }
 
     /**
@@ -61,6 +64,14 @@ public class DraggedCard extends Observable {
     public void setTether(int x, int y) {
         tetherX = x;
         tetherY = y;
+        isTethered = true;
+    }
+
+    /**
+     * @return Whether the tether position was set, i.e. whether getX() and getY() are where the card is painted.
+     */
+    public boolean isTethered() {
+        return isTethered;
     }
 
     /**
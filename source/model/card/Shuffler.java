@@ -0,0 +1,83 @@
+package model.card;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * @version 1.0
+ *
+ * A small, fast and seedable random source used to shuffle a Deck. Unlike the Random behind Collections.shuffle(), a
+ * Shuffler is not synchronized and is owned by a single CaboGame, so games never contend with each other. Since it is
+ * serializable, a saved game keeps shuffling the same way after being loaded.
+ *
+ * The Shuffler produces exactly the same numbers as a SplittableRandom constructed with the same seed, and shuffles in
+ * the same way as Collections.shuffle(). This means a CaboGame constructed with a seed deals the same cards, and
+ * reshuffles the discard pile in the same order, as a PhaseEngine using a SplittableRandom with that seed.
+ *
+ * @see Deck
+ * @see model.CaboGame
+ * @see model.turnphase.PhaseEngine
+ */
+public class Shuffler implements Serializable {
+
+    private static final long serialVersionUID = 42L;
+
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private long seed;
+
+    /**
+     * Constructs a Shuffler with a seed that is likely to be different from that of any other Shuffler.
+     */
+    public Shuffler() {
+        this(new SplittableRandom().nextLong());
+    }
+
+    /**
+     * Constructs a Shuffler with the given seed. Two Shufflers with the same seed shuffle in exactly the same way.
+     *
+     * @param seed The seed.
+     */
+    public Shuffler(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * @param bound The upper bound, which must be positive.
+     * @return A uniformly distributed random number from 0 (inclusive) to bound (exclusive).
+     */
+    public int nextInt(int bound) {
+        int r = nextInt();
+        int m = bound - 1;
+        if ((bound & m) == 0)
+            return r & m;
+        for (int u = r >>> 1; u + m - (r = u % bound) < 0; u = nextInt() >>> 1);
+        return r;
+    }
+
+    /**
+     * Shuffles the given list in place, like Collections.shuffle().
+     *
+     * @param list The list to shuffle.
+     */
+    public void shuffle(List<?> list) {
+        for (int i = list.size(); i > 1; --i)
+            Collections.swap(list, i - 1, nextInt(i));
+    }
+
+    /**
+     * @return The current state of this Shuffler. A Shuffler constructed with this state as its seed continues to
+     * shuffle exactly like this one.
+     */
+    public long getState() {
+        return seed;
+    }
+
+    private int nextInt() {
+        long z = seed += GOLDEN_GAMMA;
+        z = (z ^ (z >>> 33)) * 0x62a9d9ed799705f5L;
+        return (int) (((z ^ (z >>> 28)) * 0xcb24d0a5c88c35b3L) >>> 32);
+    }
+}
@@ -14,17 +14,29 @@ import model.card.Card;
  */
 public class DiscardOrSwapPhase extends TurnPhase {
 
+    private static final long serialVersionUID = -506814397284289145L;
+
     /**
      * Constructs an instance of the DiscardOrSwap turn phase. It takes the game as an argument and sets a description
      * of the turn phase and the phase name.
      * @param game the game that the turn phase happens in.
      */
     public DiscardOrSwapPhase(CaboGame game) {
-        super(game,"Discard card or drag it over one of your own to swap them.");
-        setPhaseName(PhaseName.DISCARD_OR_SWAP);
+        this(game, null);
         game.setTurnPhase(this);
     }
 
+    /**
+     * Restores a DiscardOrSwapPhase with the given selected card, without setting it on the game.
+     * @param game the game that the turn phase happens in.
+     * @param selectedCard the card that is selected.
+     * @see TurnPhase#restore
+     */
+    DiscardOrSwapPhase(CaboGame game, Card selectedCard) {
+        super(game,"Discard card or drag it over one of your own to swap them.", selectedCard);
+        setPhaseName(PhaseName.DISCARD_OR_SWAP);
+    }
+
     /**
      * Selects a card that can later be used to other be discarded or swapped.
      * @param card the card that is selected.
@@ -42,6 +54,7 @@ public class DiscardOrSwapPhase extends TurnPhase {
      */
     @Override
     public void releaseCard(){
+        game.revealCard(getSelectedCard());
         game.getDiscardPile().put(getSelectedCard());
         game.clearDrawnCard();
 
@@ -84,7 +97,8 @@ public class DiscardOrSwapPhase extends TurnPhase {
 
         player.removeCard(swapIndex);
         player.addCard(swapIndex, getSelectedCard());
-        getSelectedCard().setFaceDown();
+        player.flipCard(getSelectedCard(), false);
+        game.revealCard(cardAtReleasePoint);
         game.getDiscardPile().put(cardAtReleasePoint);
         game.clearDrawnCard();
         clearSelectedCard();
@@ -19,17 +19,29 @@ import model.card.Card;
  */
 public class DrawOrCaboPhase extends TurnPhase {
 
+    private static final long serialVersionUID = -1864784162658526797L;
+
     /**
      * Constructs a new DrawOrCaboPhase by taking the game that this phase exists on and setting a description of the
      * turn phase, as well as its phase name.
      * @param game the caboGame this turn phase exists in.
      */
     public DrawOrCaboPhase(CaboGame game) {
-        super(game,"Draw a card, or call Cabo!");
-        setPhaseName(PhaseName.DRAW_OR_CABO);
+        this(game, null);
         game.setTurnPhase(this);
     }
 
+    /**
+     * Restores a DrawOrCaboPhase with the given selected card, without setting it on the game.
+     * @param game the caboGame this turn phase exists in.
+     * @param selectedCard the card that is selected.
+     * @see TurnPhase#restore
+     */
+    DrawOrCaboPhase(CaboGame game, Card selectedCard) {
+        super(game,"Draw a card, or call Cabo!", selectedCard);
+        setPhaseName(PhaseName.DRAW_OR_CABO);
+    }
+
     /**
      * Selects a card that can later be drawn by the player.
      * @param card the card that is to be selected.
@@ -54,12 +66,15 @@ public class DrawOrCaboPhase extends TurnPhase {
         DiscardPile discardPile = game.getDiscardPile();
 
         if (deck.top() == getSelectedCard()) {
-            getSelectedCard().setFaceUp();
+            // The card is only turned face-up once it has left the deck, which hashed it face-down.
             game.setDrawnCard(deck.draw());
+            getSelectedCard().setFaceUp();
+            game.revealCard(getSelectedCard());
             clearSelectedCard();
             new DiscardOrSwapPhase(game);
         } else if (discardPile.top() == getSelectedCard()) {
             getSelectedCard().setFaceUp();
+            game.revealCard(getSelectedCard());
             game.setDrawnCard(discardPile.draw());
             clearSelectedCard();
             new DiscardOrSwapPhase(game);
@@ -16,6 +16,8 @@ import model.card.Card;
  */
 public class InitialPeekPhase extends TurnPhase {
 
+    private static final long serialVersionUID = 8254628354037662072L;
+
     private Card peekedCard1;
     private Card peekedCard2;
     private boolean peekedBothCards;
@@ -25,14 +27,26 @@ public class InitialPeekPhase extends TurnPhase {
      * @param game the game this turn phase exists on.
      */
     public InitialPeekPhase(CaboGame game) {
-        super(game,"Peek at 2 of your own cards");
-        peekedCard1 = null;
-        peekedCard2 = null;
-        peekedBothCards = false;
-        setPhaseName(PhaseName.INITIAL_PEEK);
+        this(game, null, null, null);
         game.setTurnPhase(this);
     }
 
+    /**
+     * Restores the Initial Peek turn phase with the cards that were already peeked at, without setting it on the game.
+     * @param game the game this turn phase exists on.
+     * @param selectedCard the card that is selected.
+     * @param peekedCard1 the first card that was peeked at, may be null.
+     * @param peekedCard2 the second card that was peeked at, may be null.
+     * @see TurnPhase#restore
+     */
+    InitialPeekPhase(CaboGame game, Card selectedCard, Card peekedCard1, Card peekedCard2) {
+        super(game,"Peek at 2 of your own cards", selectedCard);
+        this.peekedCard1 = peekedCard1;
+        this.peekedCard2 = peekedCard2;
+        this.peekedBothCards = peekedCard2 != null;
+        setPhaseName(PhaseName.INITIAL_PEEK);
+    }
+
     /**
      * Lets the player peek at two cards. Selecting a card when face down toggles it to face up and the other way around.
      * Only two cards per player can be peeked at.
@@ -46,9 +60,9 @@ public class InitialPeekPhase extends TurnPhase {
         if (peekedBothCards) {
 
             if (card == peekedCard1)
-                card.setFaceDown();
+                currentPlayer.flipCard(card, false);
             if (card == peekedCard2)
-                card.setFaceDown();
+                currentPlayer.flipCard(card, false);
 
             if (!peekedCard1.isFaceUp() && !peekedCard2.isFaceUp()) {
                 game.getCurrentPlayer().setDidInitialPeek();
@@ -59,10 +73,12 @@ public class InitialPeekPhase extends TurnPhase {
 
             if (peekedCard1 == null) {
                 peekedCard1 = card;
-                card.setFaceUp();
+                currentPlayer.flipCard(card, true);
+                currentPlayer.learnCard(card);
             } else if (peekedCard2 == null && card != peekedCard1) {
                 peekedCard2 = card;
-                card.setFaceUp();
+                currentPlayer.flipCard(card, true);
+                currentPlayer.learnCard(card);
                 peekedBothCards = true;
             }
         }
@@ -71,4 +87,20 @@ public class InitialPeekPhase extends TurnPhase {
         notifyObservers();
     }
 
+    /**
+     * @return the first card that was peeked at, or null if none was.
+     */
+    @Override
+    public Card getFirstPhaseCard() {
+        return peekedCard1;
+    }
+
+    /**
+     * @return the second card that was peeked at, or null if none was.
+     */
+    @Override
+    public Card getSecondPhaseCard() {
+        return peekedCard2;
+    }
+
 }
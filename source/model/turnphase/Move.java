@@ -0,0 +1,167 @@
+package model.turnphase;
+
+/**
+ * @version 1.0
+ *
+ * Encodes the moves a player can make in a PhaseEngine as plain ints, so that moves can be generated and played
+ * without allocating. A move is made up of a kind and up to two arguments, which are usually indices into the hands of
+ * the current player or the opponent. Each move stands for the sequence of selectCard() and releaseCard() calls the
+ * player would make with the mouse to perform it - e.g. PEEK selects the same card twice, once to flip it face-up and
+ * once to flip it back.
+ *
+ * @see PhaseEngine
+ */
+public final class Move {
+
+    /**
+     * Peek at the cards at indices first and second in the current player's hand, in the InitialPeekPhase.
+     */
+    public static final int INITIAL_PEEK = 1;
+
+    /**
+     * Draw the top card of the deck, in the DrawOrCaboPhase.
+     */
+    public static final int DRAW_FROM_DECK = 2;
+
+    /**
+     * Draw the top card of the discard pile, in the DrawOrCaboPhase.
+     */
+    public static final int DRAW_FROM_DISCARD_PILE = 3;
+
+    /**
+     * Call Cabo, in the DrawOrCaboPhase.
+     */
+    public static final int CALL_CABO = 4;
+
+    /**
+     * Discard the drawn card, in the DiscardOrSwapPhase.
+     */
+    public static final int DISCARD = 5;
+
+    /**
+     * Swap the drawn card with the card at index first in the current player's hand, in the DiscardOrSwapPhase.
+     */
+    public static final int SWAP_DRAWN_CARD = 6;
+
+    /**
+     * Peek at the card at index first in the current player's hand, in the PeekPhase.
+     */
+    public static final int PEEK = 7;
+
+    /**
+     * Spy on the card at index first in the opponent's hand, in the SpyPhase.
+     */
+    public static final int SPY = 8;
+
+    /**
+     * Look at the card at index first in the current player's hand and the card at index second in the opponent's
+     * hand, in the SpyAndSwapPhase.
+     */
+    public static final int LOOK = 9;
+
+    /**
+     * Swap the two cards that were looked at, in the SpyAndSwapPhase.
+     */
+    public static final int SWAP_LOOKED_CARDS = 10;
+
+    /**
+     * Swap the card at index first in the current player's hand with the card at index second in the opponent's hand,
+     * in the SwapPhase.
+     */
+    public static final int SWAP = 11;
+
+    /**
+     * Don't swap any cards, in the SwapPhase or SpyAndSwapPhase - like the AbortSwapButton.
+     */
+    public static final int SKIP_SWAP = 12;
+
+    /**
+     * Drop the card at index second in the hand of the current player (first is 0) or the opponent (first is 1) on the
+     * discard pile.
+     */
+    public static final int DROP = 13;
+
+    /**
+     * Pick up the top card of the deck into the current player's hand at index first, in the PickupPhase.
+     */
+    public static final int PICKUP = 14;
+
+    /**
+     * Give the card at index first in the current player's hand to the opponent at index second, in the
+     * TransferCardPhase. The index first is NONE if the current player has no cards left.
+     */
+    public static final int TRANSFER = 15;
+
+    /**
+     * The argument of moves that don't need one.
+     */
+    public static final int NONE = 0xFF;
+
+    /**
+     * An upper bound on the number of legal moves in any state.
+     */
+    public static final int MAX_MOVES = 4096;
+
+    private Move() {}
+
+    /**
+     * @param kind The kind of the move, e.g. PEEK.
+     * @param first The first argument of the move, or NONE.
+     * @param second The second argument of the move, or NONE.
+     * @return The encoded move.
+     */
+    public static int of(int kind, int first, int second) {
+        return kind << 16 | (first & 0xFF) << 8 | (second & 0xFF);
+    }
+
+    /**
+     * @param kind The kind of the move, e.g. CALL_CABO.
+     * @return The encoded move, which has no arguments.
+     */
+    public static int of(int kind) {
+        return of(kind, NONE, NONE);
+    }
+
+    /**
+     * @param move An encoded move.
+     * @return The kind of the move.
+     */
+    public static int kind(int move) {
+        return move >>> 16;
+    }
+
+    /**
+     * @param move An encoded move.
+     * @return The first argument of the move, or NONE.
+     */
+    public static int first(int move) {
+        return move >>> 8 & 0xFF;
+    }
+
+    /**
+     * @param move An encoded move.
+     * @return The second argument of the move, or NONE.
+     */
+    public static int second(int move) {
+        return move & 0xFF;
+    }
+
+    /**
+     * @param move An encoded move.
+     * @return A human readable description of the move, e.g. "SWAP(1, 3)".
+     */
+    public static String toString(int move) {
+        String[] names = {
+                "?", "INITIAL_PEEK", "DRAW_FROM_DECK", "DRAW_FROM_DISCARD_PILE", "CALL_CABO", "DISCARD",
+                "SWAP_DRAWN_CARD", "PEEK", "SPY", "LOOK", "SWAP_LOOKED_CARDS", "SWAP", "SKIP_SWAP", "DROP",
+                "PICKUP", "TRANSFER"
+        };
+        int kind = kind(move);
+        String name = kind < names.length ? names[kind] : "?";
+        if (first(move) == NONE)
+            return name;
+        if (second(move) == NONE)
+            return name + "(" + first(move) + ")";
+        return name + "(" + first(move) + ", " + second(move) + ")";
+    }
+}
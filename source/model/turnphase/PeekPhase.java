@@ -17,6 +17,8 @@ import java.util.List;
  */
 public class PeekPhase extends TurnPhase {
 
+    private static final long serialVersionUID = -627070726208027017L;
+
     private Card peekedCard;
 
     /**
@@ -26,13 +28,25 @@ public class PeekPhase extends TurnPhase {
      * @param game the caboGame this turn phase exists in.
      */
     public PeekPhase(CaboGame game) {
-        super(game, "Peek at one of your cards");
-        peekedCard = null;
-        setPhaseName(PhaseName.PEEK);
+        this(game, null, null);
         if (!handleEdgeCases())
             game.setTurnPhase(this);
     }
 
+    /**
+     * Restores a PeekPhase with the card that was already peeked at, without handling edge cases or setting it on
+     * the game.
+     * @param game the caboGame this turn phase exists in.
+     * @param selectedCard the card that is selected.
+     * @param peekedCard the card that was peeked at, may be null.
+     * @see TurnPhase#restore
+     */
+    PeekPhase(CaboGame game, Card selectedCard, Card peekedCard) {
+        super(game, "Peek at one of your cards", selectedCard);
+        this.peekedCard = peekedCard;
+        setPhaseName(PhaseName.PEEK);
+    }
+
     /**
      * Lets the player peek at one of their own cards. When the card is face down, it is toggled to be face up, and
      * vice versa.
@@ -49,16 +63,25 @@ public class PeekPhase extends TurnPhase {
 
         if (peekedCard == null) {
             peekedCard = card;
-            card.setFaceUp();
+            game.getCurrentPlayer().flipCard(card, true);
+            game.getCurrentPlayer().learnCard(card);
             setChanged();
             notifyObservers();
         } else if (peekedCard == card) {
-            card.setFaceDown();
+            game.getCurrentPlayer().flipCard(card, false);
             game.nextPlayersTurn();
         }
 
     }
 
+    /**
+     * @return the card that was peeked at, or null if none was.
+     */
+    @Override
+    public Card getFirstPhaseCard() {
+        return peekedCard;
+    }
+
     /**
      * Checks for exceptional cases that would inhibit a proper functioning of the turn phase. In this case
      * the player could not peek at any card if their cards were empty, so the next player would directly be called.
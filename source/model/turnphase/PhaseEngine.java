@@ -0,0 +1,762 @@
+package model.turnphase;
+
+import model.CaboGame;
+import model.CompactGameState;
+import model.card.CaboCard;
+import model.card.DiscardAbility;
+
+import java.util.SplittableRandom;
+
+import static model.CompactGameState.*;
+
+/**
+ * @version 1.2
+ *
+ * An alternative to the TurnPhase classes which plays Cabo directly on a CompactGameState. Instead of allocating a new
+ * TurnPhase for every transition, the engine switches on the PhaseName stored in the state, and keeps the selected
+ * card, the phase-local cards and the previous phase of PickupPhase and TransferCardPhase in the state as well. A
+ * PhaseEngine and its state are meant to be reused for many games, so nothing is allocated while playing.
+ *
+ * The methods mirror those of TurnPhase and CaboGame, and follow exactly the same rules - including the edge cases
+ * where a phase is skipped, and the return to the previous phase after picking up or transferring a card. There are
+ * two deliberate differences: card drops are refused during the InitialPeekPhase, PickupPhase and TransferCardPhase,
+ * just like CardDragger refuses them, and releasing a card that isn't in the draw area during the DiscardOrSwapPhase
+ * does nothing instead of putting it on the discard pile twice. The engine never reports anything to the GameEffects,
+ * and a game that ends stays over.
+ *
+ * The engine also keeps track of which cards each player has seen, in the known masks of the state. The cards a
+ * player peeks at, spies on or looks at become known to that player alone, while drawn and discarded cards become
+ * known to both. Cards shuffled into the deck, or picked up from it, are forgotten by both - just like the Players
+ * of a CaboGame remember them.
+ *
+ * Cards are passed around as CaboCard ordinals and players as 0 or 1, like in CompactGameState. On top of the
+ * TurnPhase-like methods, getLegalMoves() and play() let a program pick whole moves, encoded as described in Move.
+ *
+ * @see CompactGameState
+ * @see Move
+ * @see TurnPhase
+ * @see CaboGame
+ */
+public class PhaseEngine {
+
+    private static final CaboCard[] CABO_CARDS = CaboCard.values();
+
+    private final CompactGameState state;
+    private SplittableRandom random;
+
+    /**
+     * Constructs a PhaseEngine which plays on the given state, and uses the given random source to shuffle the deck.
+     *
+     * @param state The state to play on.
+     * @param random The random source used for shuffling.
+     * @see CompactGameState
+     */
+    public PhaseEngine(CompactGameState state, SplittableRandom random) {
+        this.state = state;
+        this.random = random;
+    }
+
+    /**
+     * @return The state this PhaseEngine plays on.
+     */
+    public CompactGameState getState() {
+        return state;
+    }
+
+    /**
+     * @param random The random source used from now on to shuffle the deck.
+     */
+    public void setRandom(SplittableRandom random) {
+        this.random = random;
+    }
+
+    /**
+     * Starts a new game in the state, just like CaboGame.reset() - the deck is shuffled, one card is put on the
+     * discard pile, and both players are dealt 4 cards. Player 1 starts in the InitialPeekPhase.
+     */
+    public void deal() {
+        state.clear();
+        shuffleDeck();
+        putOnDiscardPile(DECK, state.size(DECK) - 1);
+        for (int player = 0; player < 2; ++player)
+            for (int i = 0; i < 4; ++i)
+                state.moveCard(DECK, state.size(DECK) - 1, handOf(player), state.size(handOf(player)));
+    }
+
+    /**
+     * Collects the moves the current player can make in the current state. Each collected move can be passed to play().
+     *
+     * @param moves The array to put the moves in, which must have room for Move.MAX_MOVES moves.
+     * @return The number of moves that were put in the array, which is 0 only if the game is over.
+     * @see Move
+     */
+    public int getLegalMoves(int[] moves) {
+        if (state.isOver())
+            return 0;
+
+        int player = state.getCurrentPlayer();
+        int playerCards = state.size(handOf(player));
+        int opponentCards = state.size(handOf(1 - player));
+        int count = 0;
+
+        switch (state.getPhaseName()) {
+            case INITIAL_PEEK: {
+                int peekedIndex = state.indexOf(handOf(player), state.getFirstPhaseCard());
+                int secondIndex = state.indexOf(handOf(player), state.getSecondPhaseCard());
+                if (secondIndex >= 0)
+                    moves[count++] = Move.of(Move.INITIAL_PEEK, peekedIndex, secondIndex);
+                else if (peekedIndex >= 0) {
+                    for (int i = 0; i < playerCards; ++i)
+                        if (i != peekedIndex)
+                            moves[count++] = Move.of(Move.INITIAL_PEEK, peekedIndex, i);
+                } else {
+                    for (int i = 0; i < playerCards; ++i)
+                        for (int j = i + 1; j < playerCards; ++j)
+                            moves[count++] = Move.of(Move.INITIAL_PEEK, i, j);
+                }
+                break;
+            }
+            case DRAW_OR_CABO:
+                if (state.size(DECK) > 0)
+                    moves[count++] = Move.of(Move.DRAW_FROM_DECK);
+                if (state.size(DISCARD_PILE) > 0)
+                    moves[count++] = Move.of(Move.DRAW_FROM_DISCARD_PILE);
+                if (!state.caboWasCalled())
+                    moves[count++] = Move.of(Move.CALL_CABO);
+                break;
+            case DISCARD_OR_SWAP:
+                moves[count++] = Move.of(Move.DISCARD);
+                for (int i = 0; i < playerCards; ++i)
+                    moves[count++] = Move.of(Move.SWAP_DRAWN_CARD, i, Move.NONE);
+                break;
+            case PEEK: {
+                int peekedIndex = state.indexOf(handOf(player), state.getFirstPhaseCard());
+                if (peekedIndex >= 0)
+                    moves[count++] = Move.of(Move.PEEK, peekedIndex, Move.NONE);
+                else
+                    for (int i = 0; i < playerCards; ++i)
+                        moves[count++] = Move.of(Move.PEEK, i, Move.NONE);
+                break;
+            }
+            case SPY: {
+                int spiedIndex = state.indexOf(handOf(1 - player), state.getFirstPhaseCard());
+                if (spiedIndex >= 0)
+                    moves[count++] = Move.of(Move.SPY, spiedIndex, Move.NONE);
+                else
+                    for (int i = 0; i < opponentCards; ++i)
+                        moves[count++] = Move.of(Move.SPY, i, Move.NONE);
+                break;
+            }
+            case SPY_AND_SWAP: {
+                int peekedIndex = state.indexOf(handOf(player), state.getFirstPhaseCard());
+                int spiedIndex = state.indexOf(handOf(1 - player), state.getSecondPhaseCard());
+                if (peekedIndex >= 0 && spiedIndex >= 0)
+                    moves[count++] = Move.of(Move.SWAP_LOOKED_CARDS);
+                else
+                    for (int i = peekedIndex >= 0 ? peekedIndex : 0; i < playerCards; ++i) {
+                        for (int j = spiedIndex >= 0 ? spiedIndex : 0; j < opponentCards; ++j) {
+                            moves[count++] = Move.of(Move.LOOK, i, j);
+                            if (spiedIndex >= 0)
+                                break;
+                        }
+                        if (peekedIndex >= 0)
+                            break;
+                    }
+                moves[count++] = Move.of(Move.SKIP_SWAP);
+                break;
+            }
+            case SWAP:
+                for (int i = 0; i < playerCards; ++i)
+                    for (int j = 0; j < opponentCards; ++j)
+                        moves[count++] = Move.of(Move.SWAP, i, j);
+                moves[count++] = Move.of(Move.SKIP_SWAP);
+                break;
+            case PICKUP:
+                for (int i = 0; i <= playerCards; ++i)
+                    moves[count++] = Move.of(Move.PICKUP, i, Move.NONE);
+                return count;
+            case TRANSFER_CARD:
+                if (playerCards == 0)
+                    moves[count++] = Move.of(Move.TRANSFER, Move.NONE, 0);
+                for (int i = 0; i < playerCards; ++i)
+                    for (int j = 0; j <= opponentCards; ++j)
+                        moves[count++] = Move.of(Move.TRANSFER, i, j);
+                return count;
+        }
+
+        if (state.getPhaseName() != TurnPhase.PhaseName.INITIAL_PEEK && state.size(DISCARD_PILE) > 0) {
+            for (int i = 0; i < playerCards; ++i)
+                moves[count++] = Move.of(Move.DROP, 0, i);
+            for (int i = 0; i < opponentCards; ++i)
+                moves[count++] = Move.of(Move.DROP, 1, i);
+        }
+        return count;
+    }
+
+    /**
+     * Plays a move for the current player by making the same selectCard() and releaseCard() calls the player would
+     * make with the mouse. The move should be one of the moves returned by getLegalMoves().
+     *
+     * @param move The encoded move to play.
+     * @see Move
+     */
+    public void play(int move) {
+        int player = state.getCurrentPlayer();
+        int playerHand = handOf(player);
+        int opponentHand = handOf(1 - player);
+        int first = Move.first(move);
+        int second = Move.second(move);
+
+        switch (Move.kind(move)) {
+            case Move.INITIAL_PEEK: {
+                int card1 = state.cardAt(playerHand, first);
+                int card2 = state.cardAt(playerHand, second);
+                selectCard(card1);
+                selectCard(card2);
+                selectCard(card1);
+                selectCard(card2);
+                break;
+            }
+            case Move.DRAW_FROM_DECK:
+                selectCard(state.top(DECK));
+                releaseCard();
+                break;
+            case Move.DRAW_FROM_DISCARD_PILE:
+                selectCard(state.top(DISCARD_PILE));
+                releaseCard();
+                break;
+            case Move.CALL_CABO:
+                callCabo();
+                break;
+            case Move.DISCARD:
+                selectCard(state.getDrawnCard());
+                releaseCard();
+                break;
+            case Move.SWAP_DRAWN_CARD:
+                selectCard(state.getDrawnCard());
+                releaseCardOnto(state.cardAt(playerHand, first));
+                break;
+            case Move.PEEK:
+            case Move.SPY: {
+                TurnPhase.PhaseName phaseName = state.getPhaseName();
+                int card = state.cardAt(Move.kind(move) == Move.PEEK ? playerHand : opponentHand, first);
+                selectCard(card);
+                if (!state.isOver() && state.getPhaseName() == phaseName && state.getFirstPhaseCard() == card)
+                    selectCard(card);
+                break;
+            }
+            case Move.LOOK:
+                selectCard(state.cardAt(playerHand, first));
+                selectCard(state.cardAt(opponentHand, second));
+                break;
+            case Move.SWAP_LOOKED_CARDS:
+                selectCard(state.getFirstPhaseCard());
+                releaseCardOnto(state.getSecondPhaseCard());
+                break;
+            case Move.SWAP:
+                selectCard(state.cardAt(playerHand, first));
+                releaseCardOnto(state.cardAt(opponentHand, second));
+                break;
+            case Move.SKIP_SWAP:
+                nextPlayersTurn();
+                setCardsFaceDown(state.getCurrentPlayer());
+                setCardsFaceDown(1 - state.getCurrentPlayer());
+                break;
+            case Move.DROP:
+                selectCard(state.cardAt(first == 0 ? playerHand : opponentHand, second));
+                handleCardDrop();
+                break;
+            case Move.PICKUP:
+                selectCard(state.top(DECK));
+                releaseCardAt(first);
+                break;
+            case Move.TRANSFER:
+                selectCard(first == Move.NONE ? NO_CARD : state.cardAt(playerHand, first));
+                releaseCardAt(second);
+                break;
+        }
+    }
+
+    /**
+     * Selects a card in the current phase, like TurnPhase.selectCard().
+     *
+     * @param card The card to select, or NO_CARD.
+     */
+    public void selectCard(int card) {
+        int player = state.getCurrentPlayer();
+        int opponent = 1 - player;
+
+        switch (state.getPhaseName()) {
+            case INITIAL_PEEK: {
+                int peekedCard1 = state.getFirstPhaseCard();
+                int peekedCard2 = state.getSecondPhaseCard();
+                if (peekedCard2 != NO_CARD) {
+                    if (card == peekedCard1 || card == peekedCard2)
+                        state.setFaceUp(card, false);
+                    if (!state.isFaceUp(peekedCard1) && !state.isFaceUp(peekedCard2)) {
+                        state.setDidInitialPeek(player);
+                        nextPlayersTurn();
+                    }
+                } else if (hasCard(player, card)) {
+                    if (peekedCard1 == NO_CARD) {
+                        state.setFirstPhaseCard(card);
+                        state.setFaceUp(card, true);
+                        state.setKnown(player, card);
+                    } else if (card != peekedCard1) {
+                        state.setSecondPhaseCard(card);
+                        state.setFaceUp(card, true);
+                        state.setKnown(player, card);
+                    }
+                }
+                break;
+            }
+            case PEEK: {
+                if (!hasCard(player, card))
+                    return;
+                state.setSelectedCard(card);
+                int peekedCard = state.getFirstPhaseCard();
+                if (peekedCard == NO_CARD) {
+                    state.setFirstPhaseCard(card);
+                    state.setFaceUp(card, true);
+                    state.setKnown(player, card);
+                } else if (peekedCard == card) {
+                    state.setFaceUp(card, false);
+                    nextPlayersTurn();
+                }
+                break;
+            }
+            case SPY: {
+                if (skipIfEmpty(opponent))
+                    return;
+                state.setSelectedCard(card);
+                if (hasCard(opponent, card)) {
+                    int spiedCard = state.getFirstPhaseCard();
+                    if (spiedCard == NO_CARD) {
+                        state.setFaceUp(card, true);
+                        state.setKnown(player, card);
+                        state.setFirstPhaseCard(card);
+                    } else if (spiedCard == card) {
+                        state.setFaceUp(card, false);
+                        state.setFirstPhaseCard(NO_CARD);
+                        nextPlayersTurn();
+                    }
+                }
+                break;
+            }
+            case SPY_AND_SWAP: {
+                if (skipIfEmpty(player) || skipIfEmpty(opponent))
+                    return;
+                state.setSelectedCard(card);
+                if (state.getFirstPhaseCard() == NO_CARD && hasCard(player, card)) {
+                    state.setFirstPhaseCard(card);
+                    state.setFaceUp(card, true);
+                    state.setKnown(player, card);
+                } else if (state.getSecondPhaseCard() == NO_CARD && hasCard(opponent, card)) {
+                    state.setSecondPhaseCard(card);
+                    state.setFaceUp(card, true);
+                    state.setKnown(player, card);
+                }
+                break;
+            }
+            case SWAP:
+                if (skipIfEmpty(player) || skipIfEmpty(opponent))
+                    return;
+                state.setSelectedCard(card);
+                break;
+            case TRANSFER_CARD:
+                if (returnIfEmptyHand(player))
+                    return;
+                if (hasCard(player, card))
+                    state.setSelectedCard(card);
+                break;
+            case PICKUP:
+                if (returnIfEmptyDeck())
+                    return;
+                state.setFirstPhaseCard(card);
+                break;
+            default:
+                state.setSelectedCard(card);
+                break;
+        }
+    }
+
+    /**
+     * Releases the selected card in the draw area or discard area, like TurnPhase.releaseCard() - this draws the
+     * selected card in the DrawOrCaboPhase, and discards the drawn card in the DiscardOrSwapPhase.
+     */
+    public void releaseCard() {
+        int selectedCard = state.getSelectedCard();
+        if (selectedCard == NO_CARD)
+            return;
+
+        switch (state.getPhaseName()) {
+            case DRAW_OR_CABO:
+                if (state.top(DECK) == selectedCard)
+                    drawCard(DECK);
+                else if (state.top(DISCARD_PILE) == selectedCard)
+                    drawCard(DISCARD_PILE);
+                break;
+            case DISCARD_OR_SWAP:
+                if (state.getDrawnCard() != selectedCard)
+                    return;
+                putOnDiscardPile(DRAW_AREA, 0);
+                if (CABO_CARDS[selectedCard].discardAbility != DiscardAbility.NOTHING)
+                    state.setSelectedCard(NO_CARD);
+                switch (CABO_CARDS[selectedCard].discardAbility) {
+                    case PEEK:
+                        enterAbilityPhase(TurnPhase.PhaseName.PEEK, true, false);
+                        break;
+                    case SPY:
+                        enterAbilityPhase(TurnPhase.PhaseName.SPY, false, true);
+                        break;
+                    case SWAP:
+                        enterAbilityPhase(TurnPhase.PhaseName.SWAP, true, true);
+                        break;
+                    case PEEK_SPY_AND_SWAP:
+                        enterAbilityPhase(TurnPhase.PhaseName.SPY_AND_SWAP, true, true);
+                        break;
+                    default:
+                        nextPlayersTurn();
+                        break;
+                }
+                break;
+        }
+    }
+
+    /**
+     * Releases the selected card on top of another card, like TurnPhase.releaseCard(Card) - this swaps the drawn card
+     * into the hand in the DiscardOrSwapPhase, and swaps the players' cards in the SwapPhase and SpyAndSwapPhase.
+     *
+     * @param cardAtReleasePoint The card the selected card was released on, or NO_CARD.
+     */
+    public void releaseCardOnto(int cardAtReleasePoint) {
+        int player = state.getCurrentPlayer();
+        int opponent = 1 - player;
+        int selectedCard = state.getSelectedCard();
+
+        switch (state.getPhaseName()) {
+            case DISCARD_OR_SWAP: {
+                if (selectedCard == NO_CARD || selectedCard != state.getDrawnCard())
+                    return;
+                int swapIndex = state.indexOf(handOf(player), cardAtReleasePoint);
+                if (swapIndex < 0)
+                    return;
+                state.swapCards(DRAW_AREA, 0, handOf(player), swapIndex);
+                state.setFaceUp(selectedCard, false);
+                putOnDiscardPile(DRAW_AREA, 0);
+                state.setSelectedCard(NO_CARD);
+                nextPlayersTurn();
+                break;
+            }
+            case SPY_AND_SWAP: {
+                if (skipIfEmpty(player) || skipIfEmpty(opponent))
+                    return;
+                if (selectedCard == NO_CARD || cardAtReleasePoint == NO_CARD)
+                    return;
+                int peekedPlayerCard = state.getFirstPhaseCard();
+                int spiedOpponentCard = state.getSecondPhaseCard();
+                if ((selectedCard == peekedPlayerCard  && cardAtReleasePoint == spiedOpponentCard) ||
+                    (selectedCard == spiedOpponentCard && cardAtReleasePoint == peekedPlayerCard)) {
+                    swapCards(player, peekedPlayerCard, opponent, spiedOpponentCard);
+                    state.setFaceUp(peekedPlayerCard, false);
+                    state.setFaceUp(spiedOpponentCard, false);
+                    nextPlayersTurn();
+                }
+                break;
+            }
+            case SWAP: {
+                if (skipIfEmpty(player) || skipIfEmpty(opponent))
+                    return;
+                if (selectedCard == NO_CARD || cardAtReleasePoint == NO_CARD)
+                    return;
+                if (hasCard(player, selectedCard) && hasCard(opponent, cardAtReleasePoint)) {
+                    swapCards(player, selectedCard, opponent, cardAtReleasePoint);
+                    nextPlayersTurn();
+                } else if (hasCard(opponent, selectedCard) && hasCard(player, cardAtReleasePoint)) {
+                    swapCards(opponent, selectedCard, player, cardAtReleasePoint);
+                    nextPlayersTurn();
+                } else {
+                    state.setSelectedCard(NO_CARD);
+                }
+                break;
+            }
+        }
+    }
+
+    /**
+     * Releases the selected card into a hand, like TurnPhase.releaseCard(int) - this picks up a card from the deck in
+     * the PickupPhase, and gives the selected card to the opponent in the TransferCardPhase.
+     *
+     * @param insertionIndex The index in the hand at which to insert the card, or -1.
+     */
+    public void releaseCardAt(int insertionIndex) {
+        int player = state.getCurrentPlayer();
+        int opponent = 1 - player;
+
+        switch (state.getPhaseName()) {
+            case PICKUP:
+                if (returnIfEmptyDeck())
+                    return;
+                if (state.getFirstPhaseCard() == NO_CARD || insertionIndex < 0
+                        || insertionIndex > state.size(handOf(player)))
+                    return;
+                forget(state.top(DECK));
+                state.moveCard(DECK, state.size(DECK) - 1, handOf(player), insertionIndex);
+                state.popPhase();
+                break;
+            case TRANSFER_CARD: {
+                int selectedCard = state.getSelectedCard();
+                if (selectedCard == NO_CARD || insertionIndex < 0 || returnIfEmptyHand(player))
+                    return;
+                int selectedIndex = state.indexOf(handOf(player), selectedCard);
+                if (selectedIndex < 0 || insertionIndex > state.size(handOf(opponent)))
+                    return;
+                state.moveCard(handOf(player), selectedIndex, handOf(opponent), insertionIndex);
+                TurnPhase.PhaseName previousPhase = state.getPreviousPhaseName();
+                if (previousPhase != TurnPhase.PhaseName.SPY_AND_SWAP && previousPhase != TurnPhase.PhaseName.SPY)
+                    state.popPhase();
+                else
+                    nextPlayersTurn();
+                break;
+            }
+        }
+    }
+
+    /**
+     * Tries to drop the selected card on the discard pile, like TurnPhase.handleCardDrop(). Drops are refused during
+     * the InitialPeekPhase, PickupPhase and TransferCardPhase.
+     *
+     * @return Whether anything happened.
+     */
+    public boolean handleCardDrop() {
+        TurnPhase.PhaseName phaseName = state.getPhaseName();
+        if (phaseName == TurnPhase.PhaseName.INITIAL_PEEK
+                || phaseName == TurnPhase.PhaseName.PICKUP
+                || phaseName == TurnPhase.PhaseName.TRANSFER_CARD)
+            return false;
+
+        int selectedCard = state.getSelectedCard();
+        if (selectedCard == NO_CARD)
+            return false;
+
+        int player = state.getCurrentPlayer();
+        int opponent = 1 - player;
+        int playerIndex = state.indexOf(handOf(player), selectedCard);
+        int opponentIndex = state.indexOf(handOf(opponent), selectedCard);
+        int discardTop = state.top(DISCARD_PILE);
+
+        if ((playerIndex < 0 && opponentIndex < 0) || discardTop == NO_CARD)
+            return false;
+
+        CaboCard discarded = CABO_CARDS[discardTop];
+        CaboCard selected = CABO_CARDS[selectedCard];
+
+        if (discarded.value != selected.value || discarded.discardAbility != selected.discardAbility) {
+            if (state.size(DECK) == 0)
+                shuffleInDiscardPile();
+            state.pushPhase(TurnPhase.PhaseName.PICKUP);
+        } else if (playerIndex >= 0) {
+            putOnDiscardPile(handOf(player), playerIndex);
+            if (phaseName == TurnPhase.PhaseName.PEEK || phaseName == TurnPhase.PhaseName.SPY_AND_SWAP)
+                nextPlayersTurn();
+        } else {
+            putOnDiscardPile(handOf(opponent), opponentIndex);
+            state.pushPhase(TurnPhase.PhaseName.TRANSFER_CARD);
+        }
+        return true;
+    }
+
+    /**
+     * Calls Cabo for the current player if nobody did yet, like CaboGame.callCabo().
+     */
+    public void callCabo() {
+        if (!state.caboWasCalled()) {
+            state.setCalledCabo(state.getCurrentPlayer());
+            nextPlayersTurn();
+        }
+    }
+
+    /**
+     * Gives the turn to the next player, like CaboGame.nextPlayersTurn(). The game ends instead if that player called
+     * Cabo.
+     */
+    public void nextPlayersTurn() {
+        TurnPhase.PhaseName phaseName = state.getPhaseName();
+        int nextPlayer = 1 - state.getCurrentPlayer();
+        state.setCurrentPlayer(nextPlayer);
+        if (state.hasCalledCabo(nextPlayer)) {
+            state.setOver(true);
+            return;
+        }
+
+        if (phaseName == TurnPhase.PhaseName.INITIAL_PEEK && !(state.didInitialPeek(0) && state.didInitialPeek(1)))
+            state.setPhaseName(TurnPhase.PhaseName.INITIAL_PEEK);
+        else
+            state.setPhaseName(TurnPhase.PhaseName.DRAW_OR_CABO);
+
+        if (state.size(DECK) == 0)
+            shuffleInDiscardPile();
+    }
+
+    /**
+     * Sets all cards of a player face-down, like CaboGame.setCardsFaceDown().
+     *
+     * @param player The player, 0 or 1.
+     */
+    public void setCardsFaceDown(int player) {
+        int hand = handOf(player);
+        for (int i = state.size(hand) - 1; i >= 0; --i)
+            state.setFaceUp(state.cardAt(hand, i), false);
+    }
+
+    /**
+     * Shuffles the discard pile into the deck, except for its top card, like Deck.shuffleInDiscardPile().
+     */
+    public void shuffleInDiscardPile() {
+        int discardPileTop = state.top(DISCARD_PILE);
+        while (state.size(DISCARD_PILE) > 0)
+            state.moveCard(DISCARD_PILE, state.size(DISCARD_PILE) - 1, DECK, state.size(DECK));
+        if (state.size(DECK) == 0)
+            return;
+
+        shuffleDeck();
+        if (discardPileTop == NO_CARD)
+            discardPileTop = state.top(DECK);
+        state.moveCard(DECK, state.indexOf(DECK, discardPileTop), DISCARD_PILE, 0);
+        state.setFaceUp(discardPileTop, true);
+        long deckMask = 0;
+        for (int i = state.size(DECK) - 1; i >= 0; --i) {
+            state.setFaceUp(state.cardAt(DECK, i), false);
+            deckMask |= 1L << state.cardAt(DECK, i);
+        }
+        for (int player = 0; player < 2; ++player)
+            state.setKnownMask(player, state.getKnownMask(player) & ~deckMask);
+    }
+
+    /**
+     * Shuffles the cards in the deck in place.
+     */
+    private void shuffleDeck() {
+        for (int i = state.size(DECK); i > 1; --i)
+            state.swapCards(DECK, i - 1, DECK, random.nextInt(i));
+    }
+
+    /**
+     * Draws the selected card from the top of the deck or discard pile into the draw area, face-up.
+     *
+     * @param zone The zone to draw from.
+     */
+    private void drawCard(int zone) {
+        state.setFaceUp(state.top(zone), true);
+        reveal(state.top(zone));
+        state.moveCard(zone, state.size(zone) - 1, DRAW_AREA, 0);
+        state.setPhaseName(TurnPhase.PhaseName.DISCARD_OR_SWAP);
+    }
+
+    /**
+     * Puts a card on top of the discard pile, face-up.
+     *
+     * @param zone The zone the card is in.
+     * @param index The index of the card in its zone.
+     */
+    private void putOnDiscardPile(int zone, int index) {
+        state.setFaceUp(state.cardAt(zone, index), true);
+        reveal(state.cardAt(zone, index));
+        state.moveCard(zone, index, DISCARD_PILE, state.size(DISCARD_PILE));
+    }
+
+    /**
+     * Makes a card known to both players, since it was turned face-up for all to see.
+     *
+     * @param card The card.
+     */
+    private void reveal(int card) {
+        state.setKnown(0, card);
+        state.setKnown(1, card);
+    }
+
+    /**
+     * Makes both players forget a card, since it was taken into a hand face-down without anyone seeing it.
+     *
+     * @param card The card.
+     */
+    private void forget(int card) {
+        for (int player = 0; player < 2; ++player)
+            state.setKnownMask(player, state.getKnownMask(player) & ~(1L << card));
+    }
+
+    /**
+     * Enters the phase of a discard ability, or skips it like its TurnPhase constructor does if a needed hand is empty.
+     *
+     * @param phaseName The phase to enter.
+     * @param needsPlayerCards Whether the phase is skipped if the current player has no cards.
+     * @param needsOpponentCards Whether the phase is skipped if the opponent has no cards.
+     */
+    private void enterAbilityPhase(TurnPhase.PhaseName phaseName, boolean needsPlayerCards,
+                                   boolean needsOpponentCards) {
+        int player = state.getCurrentPlayer();
+        if ((needsPlayerCards && state.size(handOf(player)) == 0)
+                || (needsOpponentCards && state.size(handOf(1 - player)) == 0))
+            nextPlayersTurn();
+        else
+            state.setPhaseName(phaseName);
+    }
+
+    /**
+     * Swaps a card of one player with a card of the other, like Player.swapCards().
+     */
+    private void swapCards(int player, int playerCard, int opponent, int opponentCard) {
+        int playerCardIndex = state.indexOf(handOf(player), playerCard);
+        int opponentCardIndex = state.indexOf(handOf(opponent), opponentCard);
+        if (playerCardIndex < 0 || opponentCardIndex < 0)
+            throw new RuntimeException("Invalid cards passed to PhaseEngine.swapCards()");
+        state.swapCards(handOf(player), playerCardIndex, handOf(opponent), opponentCardIndex);
+    }
+
+    /**
+     * Skips the current phase if the given player has no cards, like the handleEdgeCases() of the ability phases.
+     *
+     * @return Whether the phase was skipped.
+     */
+    private boolean skipIfEmpty(int player) {
+        if (state.size(handOf(player)) == 0) {
+            nextPlayersTurn();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns to the previous phase if the given player has no cards, like TransferCardPhase.handleEdgeCases().
+     *
+     * @return Whether the previous phase was restored.
+     */
+    private boolean returnIfEmptyHand(int player) {
+        if (state.size(handOf(player)) == 0) {
+            state.popPhase();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Reshuffles the discard pile if the deck is empty, and returns to the previous phase if that doesn't help, like
+     * PickupPhase.handleEdgeCases().
+     *
+     * @return Whether the previous phase was restored.
+     */
+    private boolean returnIfEmptyDeck() {
+        if (state.size(DECK) == 0) {
+            shuffleInDiscardPile();
+            if (state.size(DECK) == 0) {
+                state.popPhase();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean hasCard(int player, int card) {
+        return state.indexOf(handOf(player), card) >= 0;
+    }
+}
@@ -15,6 +15,8 @@ import model.card.Card;
  */
 public class PickupPhase extends TurnPhase {
 
+    private static final long serialVersionUID = -6657506801608712685L;
+
     private final TurnPhase previousPhase;
     private Card selectedCard;
 
@@ -25,14 +27,26 @@ public class PickupPhase extends TurnPhase {
      * @param previousPhase the turn phase that was stored before PickUp phase.
      */
     public PickupPhase(CaboGame game, TurnPhase previousPhase) {
-        super(game, "That wasn't the right card. Take an extra card from the deck into your hand");
-        this.selectedCard = null;
-        this.previousPhase = previousPhase;
-        setPhaseName(PhaseName.PICKUP);
+        this(game, previousPhase, null, null);
         if (!handleEdgeCases())
             game.setTurnPhase(this);
     }
 
+    /**
+     * Restores a PickUp phase with its selected cards, without handling edge cases or setting it on the game.
+     * @param game the game this turn phase exists on.
+     * @param previousPhase the turn phase that was stored before PickUp phase.
+     * @param superSelectedCard the card selected through TurnPhase.selectCard(), which this phase never sets itself.
+     * @param selectedCard the card that was selected to be picked up, may be null.
+     * @see TurnPhase#restore
+     */
+    PickupPhase(CaboGame game, TurnPhase previousPhase, Card superSelectedCard, Card selectedCard) {
+        super(game, "That wasn't the right card. Take an extra card from the deck into your hand", superSelectedCard);
+        this.selectedCard = selectedCard;
+        this.previousPhase = previousPhase;
+        setPhaseName(PhaseName.PICKUP);
+    }
+
     /**
      * Selects the card that is later put into the player's hand.
      * @param card the card that is to be selected.
@@ -61,13 +75,31 @@ public class PickupPhase extends TurnPhase {
 
         Player player = game.getCurrentPlayer();
 
-        player.addCard(insertionIndex, game.getDeck().draw());
+        Card pickedCard = game.getDeck().draw();
+        game.forgetCard(pickedCard);
+        player.addCard(insertionIndex, pickedCard);
         game.setTurnPhase(previousPhase);
 
         setChanged();
         notifyObservers();
     }
 
+    /**
+     * @return the card that was selected to be picked up, or null if none was.
+     */
+    @Override
+    public Card getFirstPhaseCard() {
+        return selectedCard;
+    }
+
+    /**
+     * @return the turn phase to return to after picking up a card.
+     */
+    @Override
+    public TurnPhase getPreviousPhase() {
+        return previousPhase;
+    }
+
     /**
      * Handles exceptional cases, such as when the deck is empty and cannot be reshuffled.
      * @return boolean indicating whether exceptional cases occurred or not.
@@ -75,7 +107,7 @@ public class PickupPhase extends TurnPhase {
     private boolean handleEdgeCases() {
         Deck deck = game.getDeck();
         if (deck.isEmpty()) {
-            deck.shuffleInDiscardPile(game.getDiscardPile());
+            game.shuffleDiscardPileIntoDeck();
             if (deck.isEmpty()) {
                 game.setTurnPhase(previousPhase);
                 return true;
@@ -15,6 +15,8 @@ import model.card.Card;
  */
 public class SpyAndSwapPhase extends TurnPhase {
 
+    private static final long serialVersionUID = -473103772426103265L;
+
     private Card peekedPlayerCard;
     private Card spiedOpponentCard;
 
@@ -25,14 +27,27 @@ public class SpyAndSwapPhase extends TurnPhase {
      * @see CaboGame
      */
     public SpyAndSwapPhase(CaboGame game) {
-        super(game, "Peek at own card, spy on opponent, then swap the cards!");
-        peekedPlayerCard = null;
-        spiedOpponentCard = null;
-        setPhaseName(PhaseName.SPY_AND_SWAP);
+        this(game, null, null, null);
         if (!handleEdgeCases())
             game.setTurnPhase(this);
     }
 
+    /**
+     * Restores a SpyAndSwapPhase with the cards that were already looked at, without handling edge cases or setting it
+     * on the game.
+     * @param game the game that the turn phase exists on.
+     * @param selectedCard the card that is selected.
+     * @param peekedPlayerCard the player's card that was peeked at, may be null.
+     * @param spiedOpponentCard the opponent's card that was spied on, may be null.
+     * @see TurnPhase#restore
+     */
+    SpyAndSwapPhase(CaboGame game, Card selectedCard, Card peekedPlayerCard, Card spiedOpponentCard) {
+        super(game, "Peek at own card, spy on opponent, then swap the cards!", selectedCard);
+        this.peekedPlayerCard = peekedPlayerCard;
+        this.spiedOpponentCard = spiedOpponentCard;
+        setPhaseName(PhaseName.SPY_AND_SWAP);
+    }
+
     /**
      * Lets the player look at two cards - one from themselves and one from the opponent.
      * @param card the card that is looked at.
@@ -49,10 +64,12 @@ public class SpyAndSwapPhase extends TurnPhase {
 
         if (peekedPlayerCard == null && player.hasCard(card)) {
             peekedPlayerCard = card;
-            card.setFaceUp();
+            player.flipCard(card, true);
+            player.learnCard(card);
         } else if (spiedOpponentCard == null && opponent.hasCard(card)) {
             spiedOpponentCard = card;
-            card.setFaceUp();
+            opponent.flipCard(card, true);
+            player.learnCard(card);
         }
 
         setChanged();
@@ -78,12 +95,28 @@ public class SpyAndSwapPhase extends TurnPhase {
             (getSelectedCard() == spiedOpponentCard && cardAtReleasePoint == peekedPlayerCard))
         {
             player.swapCards(opponent, peekedPlayerCard, spiedOpponentCard);
-            peekedPlayerCard.setFaceDown();
-            spiedOpponentCard.setFaceDown();
+            opponent.flipCard(peekedPlayerCard, false);
+            player.flipCard(spiedOpponentCard, false);
             game.nextPlayersTurn();
         }
     }
 
+    /**
+     * @return the player's card that was peeked at, or null if none was.
+     */
+    @Override
+    public Card getFirstPhaseCard() {
+        return peekedPlayerCard;
+    }
+
+    /**
+     * @return the opponent's card that was spied on, or null if none was.
+     */
+    @Override
+    public Card getSecondPhaseCard() {
+        return spiedOpponentCard;
+    }
+
     /**
      * Checks for exceptional cases, for example when the players don't have enough cards to swap.
      * @return indicates whether an exceptional case was handled or not.
@@ -14,6 +14,8 @@ import model.card.Card;
  */
 public class SpyPhase extends TurnPhase {
 
+    private static final long serialVersionUID = 3747421299663930009L;
+
     private Card spiedCard;
 
     /**
@@ -21,13 +23,25 @@ public class SpyPhase extends TurnPhase {
      * @param game the game that the turn phase exists on.
      */
     public SpyPhase(CaboGame game) {
-        super(game, "Spy on one of your opponent's cards");
-        spiedCard = null;
-        setPhaseName(PhaseName.SPY);
+        this(game, null, null);
         if (!handleEdgeCases())
             game.setTurnPhase(this);
     }
 
+    /**
+     * Restores a SpyPhase with the card that was already spied on, without handling edge cases or setting it on the
+     * game.
+     * @param game the game that the turn phase exists on.
+     * @param selectedCard the card that is selected.
+     * @param spiedCard the card that was spied on, may be null.
+     * @see TurnPhase#restore
+     */
+    SpyPhase(CaboGame game, Card selectedCard, Card spiedCard) {
+        super(game, "Spy on one of your opponent's cards", selectedCard);
+        this.spiedCard = spiedCard;
+        setPhaseName(PhaseName.SPY);
+    }
+
     /**
      * Lets the player spy on a card of the opponent.
      * @param card the card that is to be spied on.
@@ -43,16 +57,25 @@ public class SpyPhase extends TurnPhase {
         Player opponent = game.getOpponent();
         if (opponent.getCards().contains(card)) {
             if (spiedCard == null) {
-                card.setFaceUp();
+                opponent.flipCard(card, true);
+                game.getCurrentPlayer().learnCard(card);
                 spiedCard = card;
             } else if (spiedCard == card) {
-                card.setFaceDown();
+                opponent.flipCard(card, false);
                 spiedCard = null;
                 game.nextPlayersTurn();
             }
         }
     }
 
+    /**
+     * @return the card that was spied on, or null if none was.
+     */
+    @Override
+    public Card getFirstPhaseCard() {
+        return spiedCard;
+    }
+
     /**
      * Handles exceptional cases, for example when the opponent has no cards anymore, the player cannot spy on any of
      * the cards. It prevents the player to be stuck in this turn phase without being able to get out.
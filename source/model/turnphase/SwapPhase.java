@@ -15,17 +15,29 @@ import model.card.Card;
  */
 public class SwapPhase extends TurnPhase {
 
+    private static final long serialVersionUID = 7799081777333140417L;
+
     /**
      * Constructs a new turn phase with the game, a description, a phase name and handling exceptional cases.
      * @param game the game the turn phase exists on.
      */
     public SwapPhase(CaboGame game) {
-        super(game, "Swap one of your cards for one of your opponents cards!");
-        setPhaseName(PhaseName.SWAP);
+        this(game, null);
         if (!handleEdgeCases())
             game.setTurnPhase(this);
     }
 
+    /**
+     * Restores a SwapPhase with the given selected card, without handling edge cases or setting it on the game.
+     * @param game the game the turn phase exists on.
+     * @param selectedCard the card that is selected.
+     * @see TurnPhase#restore
+     */
+    SwapPhase(CaboGame game, Card selectedCard) {
+        super(game, "Swap one of your cards for one of your opponents cards!", selectedCard);
+        setPhaseName(PhaseName.SWAP);
+    }
+
     /**
      * Selects the card that the player starts dragging.
      * @param card the card that is to be selected.
@@ -15,6 +15,8 @@ import model.card.Card;
  */
 public class TransferCardPhase extends TurnPhase {
 
+    private static final long serialVersionUID = 5742943674226211047L;
+
     private final TurnPhase previousPhase;
 
     /**
@@ -24,13 +26,24 @@ public class TransferCardPhase extends TurnPhase {
      * @param previousPhase the previous turn phase
      */
     public TransferCardPhase(CaboGame game, TurnPhase previousPhase) {
-        super(game, "Good one! Give one of your cards to your opponent");
-        this.previousPhase = previousPhase;
-        setPhaseName(PhaseName.TRANSFER_CARD);
+        this(game, previousPhase, null);
         if (!handleEdgeCases())
             game.setTurnPhase(this);
     }
 
+    /**
+     * Restores a TransferCardPhase with its selected card, without handling edge cases or setting it on the game.
+     * @param game the game this turn phase exists on.
+     * @param previousPhase the previous turn phase
+     * @param selectedCard the card that is selected to be transferred, may be null.
+     * @see TurnPhase#restore
+     */
+    TransferCardPhase(CaboGame game, TurnPhase previousPhase, Card selectedCard) {
+        super(game, "Good one! Give one of your cards to your opponent", selectedCard);
+        this.previousPhase = previousPhase;
+        setPhaseName(PhaseName.TRANSFER_CARD);
+    }
+
     /**
      * Selects a card from the current player that can later be released into the opponent's player hand.
      * @param card the card that is to be selected.
@@ -73,6 +86,14 @@ public class TransferCardPhase extends TurnPhase {
         notifyObservers();
     }
 
+    /**
+     * @return the turn phase to return to after transferring a card.
+     */
+    @Override
+    public TurnPhase getPreviousPhase() {
+        return previousPhase;
+    }
+
     /**
      * Handles exceptional cases, for example when the player has no cards anymore to give to the opponent.
      * @return boolean indicating whether an exceptional case was found and dealt with.
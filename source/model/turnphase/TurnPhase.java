@@ -52,8 +52,58 @@ public abstract class TurnPhase extends Observable implements Serializable, Clon
      * @param description description that can be displayed to help the user understand the TurnPhases.
      */
     public TurnPhase(CaboGame game, String description) {
+        this(game, description, null);
+    }
+
+    /**
+     * Constructing a TurnPhases with its game object, a description and an initially selected card. Used by the
+     * subclasses to restore a TurnPhase from its captured state.
+     * @param game game object of the Cabo game.
+     * @param description description that can be displayed to help the user understand the TurnPhases.
+     * @param selectedCard the card that is initially selected, may be null.
+     */
+    protected TurnPhase(CaboGame game, String description, Card selectedCard) {
         this.description = description;
         this.game = game;
+        this.selectedCard = selectedCard;
+    }
+
+    /**
+     * Restores a TurnPhase from its captured state, i.e. the values returned by getPhaseName(), getSelectedCard(),
+     * getFirstPhaseCard(), getSecondPhaseCard() and getPreviousPhase(). Unlike the regular constructors this neither
+     * handles edge cases nor sets the restored TurnPhase on the game - the caller does that with game.setTurnPhase().
+     * @param game the game the restored turn phase exists on.
+     * @param phaseName the name of the turn phase to restore.
+     * @param selectedCard the selected card, may be null.
+     * @param firstPhaseCard the first phase-local card, may be null.
+     * @param secondPhaseCard the second phase-local card, may be null.
+     * @param previousPhase the turn phase to return to for PickupPhase and TransferCardPhase, ignored otherwise.
+     * @return the restored TurnPhase.
+     */
+    public static TurnPhase restore(CaboGame game, PhaseName phaseName, Card selectedCard, Card firstPhaseCard,
+                                    Card secondPhaseCard, TurnPhase previousPhase) {
+        switch (phaseName) {
+            case INITIAL_PEEK:
+                return new InitialPeekPhase(game, selectedCard, firstPhaseCard, secondPhaseCard);
+            case DRAW_OR_CABO:
+                return new DrawOrCaboPhase(game, selectedCard);
+            case DISCARD_OR_SWAP:
+                return new DiscardOrSwapPhase(game, selectedCard);
+            case PEEK:
+                return new PeekPhase(game, selectedCard, firstPhaseCard);
+            case SPY:
+                return new SpyPhase(game, selectedCard, firstPhaseCard);
+            case SPY_AND_SWAP:
+                return new SpyAndSwapPhase(game, selectedCard, firstPhaseCard, secondPhaseCard);
+            case SWAP:
+                return new SwapPhase(game, selectedCard);
+            case TRANSFER_CARD:
+                return new TransferCardPhase(game, previousPhase, selectedCard);
+            case PICKUP:
+                return new PickupPhase(game, previousPhase, selectedCard, firstPhaseCard);
+            default:
+                throw new IllegalArgumentException("Unknown turn phase " + phaseName);
+        }
     }
 
     /**
@@ -121,6 +171,7 @@ public abstract class TurnPhase extends Observable implements Serializable, Clon
         } else {
             if (playerHasCard) {
                 player.removeCard(selectedCard);
+                game.revealCard(selectedCard);
                 discardPile.put(selectedCard);
                 if (this instanceof PeekPhase || this instanceof SpyAndSwapPhase)
                     game.nextPlayersTurn();
@@ -128,6 +179,7 @@ public abstract class TurnPhase extends Observable implements Serializable, Clon
                 notifyObservers();
             } else {
                 opponent.removeCard(selectedCard);
+                game.revealCard(selectedCard);
                 discardPile.put(selectedCard);
                 game.setTurnPhase(new TransferCardPhase(game, this));
             }
@@ -149,10 +201,36 @@ public abstract class TurnPhase extends Observable implements Serializable, Clon
      * @return selected Card
      * @see Card
      */
-    protected Card getSelectedCard(){
+    public Card getSelectedCard(){
         return selectedCard;
     }
 
+    /**
+     * Gets the first card this TurnPhase keeps track of besides the selected card, e.g. the first peeked card.
+     * Overridden by the subclasses that have such a card.
+     * @return the first phase-local Card, or null if there is none.
+     */
+    public Card getFirstPhaseCard() {
+        return null;
+    }
+
+    /**
+     * Gets the second card this TurnPhase keeps track of besides the selected card, e.g. the second peeked card.
+     * Overridden by the subclasses that have such a card.
+     * @return the second phase-local Card, or null if there is none.
+     */
+    public Card getSecondPhaseCard() {
+        return null;
+    }
+
+    /**
+     * Gets the TurnPhase this TurnPhase returns to once it is done. Overridden by the subclasses that have one.
+     * @return the previous TurnPhase, or null if there is none.
+     */
+    public TurnPhase getPreviousPhase() {
+        return null;
+    }
+
     /**
      * Clears the selected field, i.e. sets it to null.
      */
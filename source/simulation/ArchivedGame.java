@@ -0,0 +1,121 @@
+package simulation;
+
+import model.CompactGameState;
+import model.turnphase.Move;
+import model.turnphase.PhaseEngine;
+
+import java.nio.ByteBuffer;
+import java.util.SplittableRandom;
+
+/**
+ * @version 1.0
+ *
+ * A view of a single game in a GameArchive, read straight from the mapped archive file. An ArchivedGame is a flyweight -
+ * while scanning, the same instance is moved from game to game, so it must not be kept around after the visitor that
+ * received it returns.
+ *
+ * The summary of a game - its seed, outcome, points and number of turns - can be read without replaying it. The moves
+ * can be read one by one, or the whole game can be replayed on a PhaseEngine with replay().
+ *
+ * @see GameArchive
+ */
+public class ArchivedGame {
+
+    private ByteBuffer buffer;
+    private int position;
+    private long id;
+
+    /**
+     * Moves this view to a game in the given buffer.
+     */
+    void moveTo(ByteBuffer buffer, int position, long id) {
+        this.buffer = buffer;
+        this.position = position;
+        this.id = id;
+    }
+
+    /**
+     * @return The number of the game in its archive.
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * @return The seed of the SplittableRandom the deck was shuffled with.
+     */
+    public long getSeed() {
+        return buffer.getLong(position);
+    }
+
+    /**
+     * @return The number of moves played in the game.
+     */
+    public int getMoveCount() {
+        return buffer.getInt(position + 8);
+    }
+
+    /**
+     * @return Whether the game ended, rather than being cut off after too many moves.
+     */
+    public boolean isFinished() {
+        return (buffer.get(position + 12) & GameArchive.FINISHED) != 0;
+    }
+
+    /**
+     * @return The player who called Cabo, 0 or 1.
+     */
+    public int getCaboCaller() {
+        return (buffer.get(position + 12) & GameArchive.PLAYER2_CALLED_CABO) != 0 ? 1 : 0;
+    }
+
+    /**
+     * @return The number of turns the game took.
+     */
+    public int getTurns() {
+        return buffer.getShort(position + 13) & 0xFFFF;
+    }
+
+    /**
+     * @param player The player, 0 or 1.
+     * @return The points of the given player at the end of the game.
+     */
+    public int getPoints(int player) {
+        return buffer.getShort(position + 15 + 2 * player);
+    }
+
+    /**
+     * @return The winner of a finished game, 0 or 1, or -1 for a tie.
+     */
+    public int getWinner() {
+        int points0 = getPoints(0);
+        int points1 = getPoints(1);
+        return points0 == points1 ? -1 : points0 < points1 ? 0 : 1;
+    }
+
+    /**
+     * @param index The index of the move, from 0 to getMoveCount().
+     * @return The move at the given index, encoded as in Move.
+     */
+    public int getMove(int index) {
+        int packed = buffer.getShort(position + GameArchive.RECORD_HEADER_SIZE + index * GameArchive.MOVE_SIZE);
+        int first = packed >>> 6 & GameArchive.NO_ARGUMENT;
+        int second = packed & GameArchive.NO_ARGUMENT;
+        return Move.of(packed >>> 12 & 0xF,
+                first == GameArchive.NO_ARGUMENT ? Move.NONE : first,
+                second == GameArchive.NO_ARGUMENT ? Move.NONE : second);
+    }
+
+    /**
+     * Replays the game from its seed on the given state, leaving it in the state the game ended in.
+     *
+     * @param state The state to replay the game on, which is overwritten.
+     */
+    public void replay(CompactGameState state) {
+        PhaseEngine engine = new PhaseEngine(state, new SplittableRandom(getSeed()));
+        engine.deal();
+        int moveCount = getMoveCount();
+        for (int i = 0; i < moveCount; ++i)
+            engine.play(getMove(i));
+    }
+}
@@ -0,0 +1,276 @@
+package simulation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * @version 1.0
+ *
+ * An archive of many self-played games in a single file, read through memory mappings of the file. A game is stored as
+ * the seed its deck was shuffled with and the stream of moves that were played, which is enough to replay it exactly
+ * on a PhaseEngine. The file is laid out in little-endian as:
+ *
+ * - a header of HEADER_SIZE bytes - the MAGIC number "CBAR", the VERSION as a short, a reserved short, the number of
+ *   games as a long, and the offset of the index as a long.
+ * - the records of all games, one after the other. A record holds the seed as a long, the number of moves as an int,
+ *   a flags byte holding whether the game finished and who called Cabo, the number of turns as a short, and the
+ *   points of both players as shorts - followed by every move packed into a short.
+ * - the index, holding the offset of every game's record as a long, followed by the offset of the index itself.
+ *
+ * Since the index is mapped as well, any game can be looked up by its id in constant time. The records are mapped in
+ * overlapping segments of at most SEGMENT_SIZE bytes, so that files larger than a single mapping can be read, and
+ * scan() visits disjoint ranges of games on the workers of a ForkJoinPool - each with its own ArchivedGame view.
+ *
+ * Can be run from the command line with: GameArchive file [threads]
+ *
+ * @see ArchivedGame
+ * @see GameArchiveWriter
+ * @see SelfPlaySimulator
+ */
+public class GameArchive implements Closeable {
+
+    /**
+     * The first four bytes of every archive - "CBAR" in ASCII.
+     */
+    static final int MAGIC = 0x52414243;
+
+    /**
+     * The version of the format written by the GameArchiveWriter.
+     */
+    static final short VERSION = 1;
+
+    static final int HEADER_SIZE = 32;
+    static final int RECORD_HEADER_SIZE = 19;
+    static final int MOVE_SIZE = 2;
+    static final int MAX_RECORD_SIZE = 1 << 20;
+
+    static final int NO_ARGUMENT = 63;
+    static final int FINISHED = 1;
+    static final int PLAYER2_CALLED_CABO = 1 << 1;
+
+    /**
+     * The number of record bytes every segment starts after the previous one. Segments are mapped MAX_RECORD_SIZE bytes
+     * longer than this, so that every record lies entirely within the segment its offset falls into.
+     */
+    private static final long SEGMENT_SIZE = 1L << 30;
+
+    /**
+     * The number of games a single scanning task visits before it stops splitting.
+     */
+    private static final int GAMES_PER_TASK = 1 << 14;
+
+    private final FileChannel channel;
+    private final long gameCount;
+    private final ByteBuffer index;
+    private final ByteBuffer[] segments;
+
+    private GameArchive(FileChannel channel, long gameCount, ByteBuffer index, ByteBuffer[] segments) {
+        this.channel = channel;
+        this.gameCount = gameCount;
+        this.index = index;
+        this.segments = segments;
+    }
+
+    /**
+     * Opens an archive written by a GameArchiveWriter.
+     *
+     * @param file The path of the archive file.
+     * @return The opened archive.
+     * @throws IOException If the file couldn't be read, isn't an archive, or has a newer version.
+     */
+    public static GameArchive open(Path file) throws IOException {
+
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_SIZE)
+                throw new IOException("Archive is " + fileSize + " bytes, which is too short for the header");
+
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt() != MAGIC)
+                throw new IOException("Not a game archive");
+            short version = header.getShort();
+            if (version > VERSION)
+                throw new IOException("Archive has version " + version + ", but only up to " + VERSION + " is supported");
+            header.getShort();
+            long gameCount = header.getLong();
+            long indexOffset = header.getLong();
+
+            long indexSize = (gameCount + 1) * Long.BYTES;
+            if (gameCount < 0 || gameCount >= Integer.MAX_VALUE / Long.BYTES
+                    || indexOffset < HEADER_SIZE || indexOffset + indexSize != fileSize)
+                throw new IOException("Archive is truncated or was not closed properly");
+
+            ByteBuffer index = channel.map(FileChannel.MapMode.READ_ONLY, indexOffset, indexSize)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+
+            long recordsSize = indexOffset - HEADER_SIZE;
+            ByteBuffer[] segments = new ByteBuffer[(int)Math.max(1, (recordsSize + SEGMENT_SIZE - 1) / SEGMENT_SIZE)];
+            for (int i = 0; i < segments.length; ++i) {
+                long start = HEADER_SIZE + i * SEGMENT_SIZE;
+                long size = Math.min(SEGMENT_SIZE + MAX_RECORD_SIZE, indexOffset - start);
+                MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, start, size);
+                segments[i] = segment.order(ByteOrder.LITTLE_ENDIAN);
+            }
+            return new GameArchive(channel, gameCount, index, segments);
+
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return The number of games in the archive.
+     */
+    public long getGameCount() {
+        return gameCount;
+    }
+
+    /**
+     * Looks up a single game by its id.
+     *
+     * @param id The id of the game, from 0 to getGameCount().
+     * @return A new view of the game.
+     * @throws IndexOutOfBoundsException If there is no game with the given id.
+     */
+    public ArchivedGame getGame(long id) {
+        if (id < 0 || id >= gameCount)
+            throw new IndexOutOfBoundsException("Game " + id + " is not in an archive of " + gameCount + " games");
+        ArchivedGame game = new ArchivedGame();
+        moveTo(game, id);
+        return game;
+    }
+
+    /**
+     * Visits every game in the archive in order, on the calling thread. The same ArchivedGame view is passed for every
+     * game.
+     *
+     * @param visitor The visitor to pass every game to.
+     */
+    public void forEach(Consumer<ArchivedGame> visitor) {
+        ArchivedGame game = new ArchivedGame();
+        for (long id = 0; id < gameCount; ++id) {
+            moveTo(game, id);
+            visitor.accept(game);
+        }
+    }
+
+    /**
+     * Visits every game in the archive in parallel on the given pool, and combines the results. The games are split
+     * into ranges of ids, and every range is folded into its own result with its own ArchivedGame view, which is why
+     * the visitor may only touch the result it is given.
+     *
+     * @param pool The pool to scan the archive on.
+     * @param supplier Creates an empty result for a range of games.
+     * @param visitor Adds a game to a result.
+     * @param combiner Combines the results of two ranges of games.
+     * @param <R> The type of the result.
+     * @return The result for all games.
+     */
+    public <R> R scan(ForkJoinPool pool, Supplier<R> supplier, BiConsumer<R, ArchivedGame> visitor,
+                      BinaryOperator<R> combiner) {
+        return pool.invoke(new ScanTask<>(0, gameCount, supplier, visitor, combiner));
+    }
+
+    /**
+     * Unmapping the file is left to the garbage collector, so the views handed out must not be used after closing.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void moveTo(ArchivedGame game, long id) {
+        long offset = index.getLong((int)id * Long.BYTES) - HEADER_SIZE;
+        int segment = (int)(offset / SEGMENT_SIZE);
+        game.moveTo(segments[segment], (int)(offset - segment * SEGMENT_SIZE), id);
+    }
+
+    /**
+     * Scans a range of games, splitting it in half until it is small enough to scan on a single worker.
+     */
+    private class ScanTask<R> extends RecursiveTask<R> {
+
+        private static final long serialVersionUID = 42L;
+
+        private final long from;
+        private final long to;
+        private final Supplier<R> supplier;
+        private final BiConsumer<R, ArchivedGame> visitor;
+        private final BinaryOperator<R> combiner;
+
+        ScanTask(long from, long to, Supplier<R> supplier, BiConsumer<R, ArchivedGame> visitor,
+                 BinaryOperator<R> combiner) {
+            this.from = from;
+            this.to = to;
+            this.supplier = supplier;
+            this.visitor = visitor;
+            this.combiner = combiner;
+        }
+
+        @Override
+        protected R compute() {
+            if (to - from <= GAMES_PER_TASK) {
+                R result = supplier.get();
+                ArchivedGame game = new ArchivedGame();
+                for (long id = from; id < to; ++id) {
+                    moveTo(game, id);
+                    visitor.accept(result, game);
+                }
+                return result;
+            }
+
+            long middle = from + (to - from) / 2;
+            ScanTask<R> left = new ScanTask<>(from, middle, supplier, visitor, combiner);
+            ScanTask<R> right = new ScanTask<>(middle, to, supplier, visitor, combiner);
+            left.fork();
+            R result = right.compute();
+            return combiner.apply(left.join(), result);
+        }
+    }
+
+    /**
+     * Scans an archive in parallel and prints a report about its games.
+     *
+     * @param args The path of the archive, and optionally the number of threads.
+     * @throws IOException If the archive couldn't be read.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: GameArchive file [threads]");
+            return;
+        }
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try (GameArchive archive = GameArchive.open(Paths.get(args[0]))) {
+            System.out.printf("Scanning %d games on %d threads\n", archive.getGameCount(), threads);
+            long start = System.nanoTime();
+            SimulationReport report = archive.scan(pool, SimulationReport::new, (result, game) -> {
+                if (game.isFinished())
+                    result.recordGame(game.getPoints(0), game.getPoints(1), game.getCaboCaller(), game.getTurns());
+                else
+                    result.recordUnfinishedGame();
+            }, SimulationReport::merge);
+            report.setElapsedNanos(System.nanoTime() - start);
+            System.out.println(report);
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
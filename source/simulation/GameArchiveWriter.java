@@ -0,0 +1,147 @@
+package simulation;
+
+import model.CompactGameState;
+import model.turnphase.Move;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * @version 1.0
+ *
+ * Writes games to a GameArchive file. Games are appended one by one, and are numbered in the order they were appended.
+ * The index and the final header are only written by close(), so an archive that wasn't closed is rejected by the
+ * GameArchive. The writer can be shared by all the workers of a SelfPlaySimulator - append() is synchronized.
+ *
+ * @see GameArchive
+ * @see SelfPlaySimulator
+ */
+public class GameArchiveWriter implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private long[] offsets = new long[1024];
+    private long gameCount;
+    private long position = GameArchive.HEADER_SIZE;
+
+    /**
+     * Creates a new archive file, replacing any existing file.
+     *
+     * @param file The path of the archive file.
+     * @throws IOException If the file couldn't be created.
+     */
+    public GameArchiveWriter(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        channel.position(GameArchive.HEADER_SIZE);
+    }
+
+    /**
+     * Appends a game played from the given seed, given its moves and its final state.
+     *
+     * @param seed The seed of the SplittableRandom the PhaseEngine shuffled with.
+     * @param moves The moves that were played, encoded as in Move.
+     * @param moveCount The number of moves that were played.
+     * @param finalState The state the game ended in.
+     * @param turns The number of turns the game took.
+     * @throws IOException If the game couldn't be written.
+     * @throws IllegalArgumentException If a move has an argument that doesn't fit the archive format.
+     */
+    public synchronized void append(long seed, int[] moves, int moveCount, CompactGameState finalState, int turns)
+            throws IOException {
+
+        int size = GameArchive.RECORD_HEADER_SIZE + moveCount * GameArchive.MOVE_SIZE;
+        if (size > GameArchive.MAX_RECORD_SIZE)
+            throw new IllegalArgumentException("Game with " + moveCount + " moves is too long to archive");
+        if (buffer.remaining() < size)
+            flush();
+
+        int flags = 0;
+        if (finalState.isOver())
+            flags |= GameArchive.FINISHED;
+        if (finalState.hasCalledCabo(1))
+            flags |= GameArchive.PLAYER2_CALLED_CABO;
+
+        buffer.putLong(seed);
+        buffer.putInt(moveCount);
+        buffer.put((byte)flags);
+        buffer.putShort((short)turns);
+        buffer.putShort((short)finalState.getPoints(0));
+        buffer.putShort((short)finalState.getPoints(1));
+        for (int i = 0; i < moveCount; ++i)
+            buffer.putShort(pack(moves[i]));
+
+        if (gameCount == offsets.length)
+            offsets = Arrays.copyOf(offsets, offsets.length * 2);
+        offsets[(int)gameCount++] = position;
+        position += size;
+    }
+
+    /**
+     * @return The number of games appended so far.
+     */
+    public synchronized long getGameCount() {
+        return gameCount;
+    }
+
+    /**
+     * Writes the index and the header, and closes the file.
+     *
+     * @throws IOException If the file couldn't be written.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            long indexOffset = position;
+            for (int i = 0; i <= gameCount; ++i) {
+                if (buffer.remaining() < Long.BYTES)
+                    flush();
+                buffer.putLong(i < gameCount ? offsets[i] : indexOffset);
+            }
+            flush();
+
+            ByteBuffer header = ByteBuffer.allocate(GameArchive.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(GameArchive.MAGIC);
+            header.putShort(GameArchive.VERSION);
+            header.putShort((short)0);
+            header.putLong(gameCount);
+            header.putLong(indexOffset);
+            header.flip();
+            while (header.hasRemaining())
+                channel.write(header, header.position());
+            channel.force(true);
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+        buffer.clear();
+    }
+
+    /**
+     * Packs a move into 16 bits - 4 bits for the kind, and 6 bits for each argument, with 63 standing for NONE.
+     */
+    private static short pack(int move) {
+        int kind = Move.kind(move);
+        int first = Move.first(move);
+        int second = Move.second(move);
+        if (kind > 0xF || (first >= GameArchive.NO_ARGUMENT && first != Move.NONE)
+                || (second >= GameArchive.NO_ARGUMENT && second != Move.NONE))
+            throw new IllegalArgumentException("Move " + Move.toString(move) + " can't be archived");
+        return (short)(kind << 12
+                | (first == Move.NONE ? GameArchive.NO_ARGUMENT : first) << 6
+                | (second == Move.NONE ? GameArchive.NO_ARGUMENT : second));
+    }
+}
@@ -0,0 +1,91 @@
+package simulation;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * @version 1.0
+ *
+ * Counts durations in buckets that grow exponentially, so that percentiles can be read off at any time while many
+ * threads keep recording. Every power of two is split into eight buckets, so a percentile is at most an eighth more
+ * than the true value - while recording takes a single atomic increment, and the histogram a fixed few kilobytes.
+ *
+ * @see Tournament
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(64 * SUB_BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Records a duration.
+     *
+     * @param nanos The duration in nanoseconds.
+     */
+    public void record(long nanos) {
+        nanos = Math.max(0, nanos);
+        counts.incrementAndGet(bucketOf(nanos));
+        count.incrementAndGet();
+        maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * @return The number of recorded durations.
+     */
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * @return The longest recorded duration in nanoseconds, or 0 if none was recorded.
+     */
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    /**
+     * @param percentile The percentile, from 0 to 100.
+     * @return The upper bound of the bucket holding the given percentile of the recorded durations, in nanoseconds, or
+     *         0 if none were recorded.
+     */
+    public long getPercentileNanos(double percentile) {
+        long total = count.get();
+        if (total == 0)
+            return 0;
+
+        long target = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int bucket = 0; bucket < counts.length(); ++bucket) {
+            seen += counts.get(bucket);
+            if (seen >= target)
+                return Math.min(upperBoundOf(bucket), getMaxNanos());
+        }
+        return getMaxNanos();
+    }
+
+    /**
+     * @return The bucket of a duration - the position of its highest bit, followed by the next three bits.
+     */
+    private static int bucketOf(long nanos) {
+        int exponent = 63 - Long.numberOfLeadingZeros(Math.max(1, nanos));
+        if (exponent < SUB_BUCKET_BITS)
+            return exponent * SUB_BUCKETS;
+        int subBucket = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return exponent * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * @return The longest duration that falls into a bucket.
+     */
+    private static long upperBoundOf(int bucket) {
+        int exponent = bucket / SUB_BUCKETS;
+        if (exponent < SUB_BUCKET_BITS)
+            return (2L << exponent) - 1;
+        long subBucket = bucket % SUB_BUCKETS;
+        return ((SUB_BUCKETS + subBucket + 1) << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+}
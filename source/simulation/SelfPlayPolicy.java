@@ -0,0 +1,32 @@
+package simulation;
+
+import model.CompactGameState;
+
+import java.util.SplittableRandom;
+
+/**
+ * @version 1.0
+ *
+ * Chooses which move a player makes during self-play. A policy is shared by all the workers of a SelfPlaySimulator,
+ * so it must not keep any mutable state of its own - everything it needs is passed in, including the random source of
+ * the worker that is asking.
+ *
+ * @see SelfPlaySimulator
+ * @see model.turnphase.Move
+ */
+public interface SelfPlayPolicy {
+
+    /**
+     * The default policy, which picks one of the legal moves uniformly at random.
+     */
+    SelfPlayPolicy RANDOM = (state, moves, moveCount, random) -> moves[random.nextInt(moveCount)];
+
+    /**
+     * @param state The state of the game, which must not be modified.
+     * @param moves The legal moves of the current player, as returned by PhaseEngine.getLegalMoves().
+     * @param moveCount The number of legal moves, which is at least 1.
+     * @param random The random source of the worker that is playing the game.
+     * @return One of the legal moves.
+     */
+    int chooseMove(CompactGameState state, int[] moves, int moveCount, SplittableRandom random);
+}
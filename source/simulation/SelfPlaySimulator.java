@@ -0,0 +1,198 @@
+package simulation;
+
+import model.CompactGameState;
+import model.turnphase.Move;
+import model.turnphase.PhaseEngine;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * @version 1.2
+ *
+ * Plays many games of Cabo against itself in parallel, and gathers statistics about them in a SimulationReport. The
+ * games are split up over a ForkJoinPool. Every task splits its own SplittableRandom before forking, so workers never
+ * share a random source and the whole run is reproducible from a single seed - no matter how many threads are used.
+ * Each worker plays its games with a single PhaseEngine, CompactGameState and move buffer, so nothing is allocated
+ * while a game is being played.
+ *
+ * Every game deals from a seed of its own, drawn from the task's random source, so that the games can be written to a
+ * GameArchive as just their seed and moves, and replayed from there.
+ *
+ * Can be run from the command line with: SelfPlaySimulator [games] [threads] [seed] [archive]
+ *
+ * @see GameArchive
+ * @see PhaseEngine
+ * @see SelfPlayPolicy
+ * @see SimulationReport
+ */
+public class SelfPlaySimulator {
+
+    /**
+     * The number of games a single task plays before it stops splitting.
+     */
+    private static final int GAMES_PER_TASK = 256;
+
+    /**
+     * The number of moves after which a game is considered stuck, and cut off. A policy that keeps dropping cards
+     * never ends its turn, so games are cut off by their moves rather than their turns.
+     */
+    private static final int MAX_MOVES = 5000;
+
+    private final SelfPlayPolicy policy;
+    private final ForkJoinPool pool;
+
+    /**
+     * Constructs a simulator which plays with the given policy for both players on the given pool.
+     *
+     * @param policy The policy used to choose the moves of both players.
+     * @param pool The pool to play the games on.
+     */
+    public SelfPlaySimulator(SelfPlayPolicy policy, ForkJoinPool pool) {
+        this.policy = policy;
+        this.pool = pool;
+    }
+
+    /**
+     * Plays the given number of games and reports on them.
+     *
+     * @param games The number of games to play.
+     * @param seed The seed from which all the games are derived.
+     * @return A report about the games.
+     */
+    public SimulationReport run(int games, long seed) {
+        return run(games, seed, null);
+    }
+
+    /**
+     * Plays the given number of games, appends every one of them to an archive, and reports on them. The games are
+     * appended in the order they finish, which depends on the number of threads.
+     *
+     * @param games The number of games to play.
+     * @param seed The seed from which all the games are derived.
+     * @param archive The archive to append the games to, or null to not archive them.
+     * @return A report about the games.
+     * @throws UncheckedIOException If a game couldn't be appended to the archive.
+     */
+    public SimulationReport run(int games, long seed, GameArchiveWriter archive) {
+        long start = System.nanoTime();
+        SimulationReport report = pool.invoke(new SimulationTask(games, new SplittableRandom(seed), archive));
+        report.setElapsedNanos(System.nanoTime() - start);
+        return report;
+    }
+
+    /**
+     * Plays a range of games, splitting it in half until it is small enough to play on a single worker.
+     */
+    private class SimulationTask extends RecursiveTask<SimulationReport> {
+
+        private static final long serialVersionUID = 42L;
+
+        private final int games;
+        private final SplittableRandom random;
+        private final GameArchiveWriter archive;
+
+        SimulationTask(int games, SplittableRandom random, GameArchiveWriter archive) {
+            this.games = games;
+            this.random = random;
+            this.archive = archive;
+        }
+
+        @Override
+        protected SimulationReport compute() {
+            if (games <= GAMES_PER_TASK)
+                return playGames();
+
+            SimulationTask left = new SimulationTask(games / 2, random.split(), archive);
+            SimulationTask right = new SimulationTask(games - games / 2, random, archive);
+            left.fork();
+            SimulationReport report = right.compute();
+            return report.merge(left.join());
+        }
+
+        private SimulationReport playGames() {
+            SimulationReport report = new SimulationReport();
+            CompactGameState state = new CompactGameState();
+            PhaseEngine engine = new PhaseEngine(state, random);
+            int[] moves = new int[Move.MAX_MOVES];
+            int[] history = new int[256];
+
+            for (int game = 0; game < games; ++game) {
+                long gameSeed = random.nextLong();
+                engine.setRandom(new SplittableRandom(gameSeed));
+                engine.deal();
+                int turns = 0;
+                int played = 0;
+
+                while (!state.isOver() && played < MAX_MOVES) {
+                    int moveCount = engine.getLegalMoves(moves);
+                    int move = policy.chooseMove(state, moves, moveCount, random);
+                    int player = state.getCurrentPlayer();
+                    int discardedCards = state.size(CompactGameState.DISCARD_PILE);
+
+                    engine.play(move);
+                    if (archive != null) {
+                        if (played == history.length)
+                            history = Arrays.copyOf(history, history.length * 2);
+                        history[played] = move;
+                    }
+                    ++played;
+
+                    if (Move.kind(move) == Move.DROP)
+                        report.recordDrop(state.size(CompactGameState.DISCARD_PILE) > discardedCards);
+                    if (state.getCurrentPlayer() != player)
+                        ++turns;
+                }
+
+                if (state.isOver())
+                    report.recordGame(state.getPoints(0), state.getPoints(1),
+                            state.hasCalledCabo(0) ? 0 : 1, turns);
+                else
+                    report.recordUnfinishedGame();
+
+                if (archive != null) {
+                    try {
+                        archive.append(gameSeed, history, played, state, turns);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            }
+            return report;
+        }
+    }
+
+    /**
+     * Runs a self-play simulation with random players and prints the report.
+     *
+     * @param args Optionally the number of games, the number of threads, the seed and the path of an archive to write
+     *             the games to, in that order.
+     * @throws IOException If the archive couldn't be written.
+     */
+    public static void main(String[] args) throws IOException {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : System.nanoTime();
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            SelfPlaySimulator simulator = new SelfPlaySimulator(SelfPlayPolicy.RANDOM, pool);
+            System.out.printf("Playing %d games on %d threads with seed %d\n", games, threads, seed);
+            if (args.length > 3) {
+                try (GameArchiveWriter archive = new GameArchiveWriter(Paths.get(args[3]))) {
+                    System.out.println(simulator.run(games, seed, archive));
+                }
+                System.out.println("archived to:    " + args[3]);
+            } else {
+                System.out.println(simulator.run(games, seed));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
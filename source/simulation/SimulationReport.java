@@ -0,0 +1,202 @@
+package simulation;
+
+/**
+ * @version 1.0
+ *
+ * The statistics gathered by a SelfPlaySimulator. Every worker fills in its own report while playing, and the reports
+ * are merged once the workers are done, so a report is never shared between threads while it is being filled in.
+ *
+ * @see SelfPlaySimulator
+ */
+public class SimulationReport {
+
+    private long games;
+    private long unfinishedGames;
+    private final long[] wins = new long[2];
+    private long ties;
+    private final long[] points = new long[2];
+    private long turns;
+    private final long[] caboCalls = new long[2];
+    private long successfulDrops;
+    private long failedDrops;
+    private long elapsedNanos;
+
+    /**
+     * Records a finished game.
+     *
+     * @param player1Points The points of player 1 at the end of the game.
+     * @param player2Points The points of player 2 at the end of the game.
+     * @param caboCaller The player who called Cabo, 0 or 1.
+     * @param gameTurns The number of turns the game lasted.
+     */
+    void recordGame(int player1Points, int player2Points, int caboCaller, int gameTurns) {
+        ++games;
+        if (player1Points < player2Points)
+            ++wins[0];
+        else if (player2Points < player1Points)
+            ++wins[1];
+        else
+            ++ties;
+        points[0] += player1Points;
+        points[1] += player2Points;
+        ++caboCalls[caboCaller];
+        turns += gameTurns;
+    }
+
+    /**
+     * Records a game that was cut off because it went on for too many moves.
+     */
+    void recordUnfinishedGame() {
+        ++unfinishedGames;
+    }
+
+    /**
+     * Records a card drop.
+     *
+     * @param success Whether the dropped card matched the top of the discard pile.
+     */
+    void recordDrop(boolean success) {
+        if (success)
+            ++successfulDrops;
+        else
+            ++failedDrops;
+    }
+
+    /**
+     * @param elapsedNanos The wall clock time it took to play all the games.
+     */
+    void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Adds all the statistics of another report to this one.
+     *
+     * @param other The report to add.
+     * @return This report.
+     */
+    SimulationReport merge(SimulationReport other) {
+        games += other.games;
+        unfinishedGames += other.unfinishedGames;
+        ties += other.ties;
+        turns += other.turns;
+        successfulDrops += other.successfulDrops;
+        failedDrops += other.failedDrops;
+        for (int player = 0; player < 2; ++player) {
+            wins[player] += other.wins[player];
+            points[player] += other.points[player];
+            caboCalls[player] += other.caboCalls[player];
+        }
+        return this;
+    }
+
+    /**
+     * @return The number of games that ended normally.
+     */
+    public long getGames() {
+        return games;
+    }
+
+    /**
+     * @return The number of games that were cut off because they went on for too many moves.
+     */
+    public long getUnfinishedGames() {
+        return unfinishedGames;
+    }
+
+    /**
+     * @param player The player, 0 or 1.
+     * @return The number of games the player won.
+     */
+    public long getWins(int player) {
+        return wins[player];
+    }
+
+    /**
+     * @return The number of games that ended in a tie.
+     */
+    public long getTies() {
+        return ties;
+    }
+
+    /**
+     * @param player The player, 0 or 1.
+     * @return The average points of the player at the end of a game.
+     */
+    public double getAveragePoints(int player) {
+        return games == 0 ? 0 : (double) points[player] / games;
+    }
+
+    /**
+     * @return The average number of turns a game lasted.
+     */
+    public double getAverageTurns() {
+        return games == 0 ? 0 : (double) turns / games;
+    }
+
+    /**
+     * @param player The player, 0 or 1.
+     * @return The number of games in which the player called Cabo.
+     */
+    public long getCaboCalls(int player) {
+        return caboCalls[player];
+    }
+
+    /**
+     * @return The number of dropped cards that matched the top of the discard pile.
+     */
+    public long getSuccessfulDrops() {
+        return successfulDrops;
+    }
+
+    /**
+     * @return The number of dropped cards that didn't match the top of the discard pile.
+     */
+    public long getFailedDrops() {
+        return failedDrops;
+    }
+
+    /**
+     * @return The wall clock time it took to play all the games, in seconds.
+     */
+    public double getElapsedSeconds() {
+        return elapsedNanos / 1e9;
+    }
+
+    /**
+     * @return The number of games played per second of wall clock time, including unfinished games.
+     */
+    public double getGamesPerSecond() {
+        return elapsedNanos == 0 ? 0 : (games + unfinishedGames) / getElapsedSeconds();
+    }
+
+    @Override
+    public String toString() {
+        long drops = successfulDrops + failedDrops;
+        return String.format(
+                "games:          %d (%d unfinished)\n" +
+                "player 1 wins:  %d (%.2f%%)\n" +
+                "player 2 wins:  %d (%.2f%%)\n" +
+                "ties:           %d (%.2f%%)\n" +
+                "average points: %.2f vs %.2f\n" +
+                "average turns:  %.2f\n" +
+                "cabo callers:   %d vs %d\n" +
+                "drops:          %d successful, %d failed (%.2f%% success)\n" +
+                "elapsed:        %.3f s\n" +
+                "games/sec:      %.0f",
+                games, unfinishedGames,
+                wins[0], percent(wins[0], games),
+                wins[1], percent(wins[1], games),
+                ties, percent(ties, games),
+                getAveragePoints(0), getAveragePoints(1),
+                getAverageTurns(),
+                caboCalls[0], caboCalls[1],
+                successfulDrops, failedDrops, percent(successfulDrops, drops),
+                getElapsedSeconds(),
+                getGamesPerSecond());
+    }
+
+    private static double percent(long count, long total) {
+        return total == 0 ? 0 : 100.0 * count / total;
+    }
+}
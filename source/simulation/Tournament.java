@@ -0,0 +1,244 @@
+package simulation;
+
+import bot.PlayerController;
+import bot.PlayerView;
+import model.CaboGame;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @version 1.0
+ *
+ * Plays a round-robin tournament between bots, and gathers the results in a TournamentReport. Every pair of entrants
+ * plays the same number of games, on a fixed pool of worker threads that take the next game from a shared counter. The
+ * games of all pairings are interleaved, so the report is balanced at any time while the tournament runs.
+ *
+ * The games come in pairs that are dealt from the same seed, once with each entrant as getPlayer1() - so neither the
+ * deal nor going first favors one of them. All pairings play the same deals, which are drawn from a single seed, so
+ * that a tournament can be repeated - the moves the bots choose within their time budgets can't be. Every worker
+ * constructs controllers of its own for every entrant, since a controller is never called by two threads at once.
+ *
+ * The games are played on a CaboGame, the way the bots play in the user interface. Every move is timed, and a move that
+ * isn't legal is replaced by the default move and counted against the entrant.
+ *
+ * Can be run from the command line with: Tournament [games per pairing] [threads] [seed] [output] [entrant...]
+ * where every entrant is described as in TournamentEntrant.parse().
+ *
+ * @see TournamentEntrant
+ * @see TournamentReport
+ * @see PlayerController
+ */
+public class Tournament {
+
+    /**
+     * The number of moves after which a game is considered stuck, and cut off.
+     */
+    private static final int MAX_MOVES = 5000;
+
+    /**
+     * How often the progress of a running tournament is printed.
+     */
+    private static final long PROGRESS_INTERVAL_MILLIS = 2000;
+
+    private final List<TournamentEntrant> entrants;
+    private final int[][] pairings;
+    private final int gamesPerPairing;
+    private final int threads;
+
+    /**
+     * Constructs a tournament in which every entrant plays every other entrant.
+     *
+     * @param entrants The entrants, at least two.
+     * @param gamesPerPairing The number of games every pair of entrants plays, which is rounded up to an even number so
+     *                        that both entrants play every deal as player 1.
+     * @param threads The number of games that are played at the same time.
+     */
+    public Tournament(List<TournamentEntrant> entrants, int gamesPerPairing, int threads) {
+        if (entrants.size() < 2)
+            throw new IllegalArgumentException("A tournament needs at least two entrants");
+        this.entrants = new ArrayList<>(entrants);
+        this.gamesPerPairing = gamesPerPairing + gamesPerPairing % 2;
+        this.threads = threads;
+
+        List<int[]> pairs = new ArrayList<>();
+        for (int first = 0; first < entrants.size(); ++first)
+            for (int second = first + 1; second < entrants.size(); ++second)
+                pairs.add(new int[] { first, second });
+        this.pairings = pairs.toArray(new int[0][]);
+    }
+
+    /**
+     * Plays all the games of the tournament, printing its progress every few seconds.
+     *
+     * @param seed The seed from which the deals and the controllers are derived.
+     * @param progress The stream to print the progress to, or null to not print it.
+     * @return A report about the games.
+     * @throws InterruptedException If the thread was interrupted while waiting for the games.
+     * @throws IllegalStateException If a worker failed.
+     */
+    public TournamentReport run(long seed, PrintStream progress) throws InterruptedException {
+        SplittableRandom random = new SplittableRandom(seed);
+        long[] dealSeeds = new long[gamesPerPairing / 2];
+        for (int deal = 0; deal < dealSeeds.length; ++deal)
+            dealSeeds[deal] = random.nextLong();
+
+        TournamentReport report = new TournamentReport(entrants, pairings, gamesPerPairing, seed);
+        AtomicInteger nextGame = new AtomicInteger();
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "tournament-worker-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        ScheduledExecutorService printer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "tournament-progress");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            if (progress != null)
+                printer.scheduleAtFixedRate(() -> progress.println(report.getProgressLine()),
+                        PROGRESS_INTERVAL_MILLIS, PROGRESS_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+
+            List<Future<?>> workers = new ArrayList<>();
+            for (int worker = 0; worker < threads; ++worker) {
+                SplittableRandom workerRandom = random.split();
+                workers.add(pool.submit(() -> playGames(report, nextGame, dealSeeds, workerRandom)));
+            }
+            for (Future<?> worker : workers)
+                worker.get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("A tournament worker failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+            printer.shutdownNow();
+        }
+
+        report.finish();
+        if (progress != null)
+            progress.println(report.getProgressLine());
+        return report;
+    }
+
+    /**
+     * Plays games until all games of the tournament have been taken, with controllers of its own.
+     */
+    private void playGames(TournamentReport report, AtomicInteger nextGame, long[] dealSeeds, SplittableRandom random) {
+        PlayerController[] controllers = new PlayerController[entrants.size()];
+        try {
+            for (int game = nextGame.getAndIncrement(); game < report.getTotalGames(); game = nextGame.getAndIncrement()) {
+                int pairing = game % pairings.length;
+                int round = game / pairings.length;
+                int[] seats = round % 2 == 0
+                        ? pairings[pairing]
+                        : new int[] { pairings[pairing][1], pairings[pairing][0] };
+                for (int seat : seats)
+                    if (controllers[seat] == null)
+                        controllers[seat] = entrants.get(seat).newController(random.nextLong());
+
+                CaboGame cabo = new CaboGame(dealSeeds[round / 2]);
+                playGame(cabo, seats, controllers, report);
+
+                if (!cabo.isOver()) {
+                    report.recordUnfinishedGame(pairing);
+                } else {
+                    int player1Points = cabo.getPlayer1().getPoints();
+                    int player2Points = cabo.getPlayer2().getPoints();
+                    if (seats == pairings[pairing])
+                        report.recordGame(pairing, player1Points, player2Points);
+                    else
+                        report.recordGame(pairing, player2Points, player1Points);
+                }
+            }
+        } finally {
+            for (PlayerController controller : controllers) {
+                if (controller instanceof AutoCloseable) {
+                    try {
+                        ((AutoCloseable) controller).close();
+                    } catch (Exception e) {
+                        e.printStackTrace();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Plays a single game until it is over or cut off, timing every move that has more than one legal choice.
+     */
+    private void playGame(CaboGame cabo, int[] seats, PlayerController[] controllers, TournamentReport report) {
+        for (int moves = 0; !cabo.isOver() && moves < MAX_MOVES; ++moves) {
+            int player = cabo.getCurrentPlayer() == cabo.getPlayer2() ? 1 : 0;
+            int entrant = seats[player];
+            PlayerView view = new PlayerView(cabo, player);
+
+            long start = System.nanoTime();
+            long deadline = start + TimeUnit.MILLISECONDS.toNanos(entrants.get(entrant).getMoveMillis());
+            int move = controllers[entrant].chooseMove(view.getPhaseName(), view, deadline);
+            if (view.getLegalMoveCount() > 1)
+                report.recordMove(entrant, System.nanoTime() - start);
+
+            if (!view.isLegal(move)) {
+                report.recordIllegalMove(entrant);
+                move = view.getDefaultMove();
+            }
+            cabo.playMove(move);
+        }
+    }
+
+    /**
+     * Runs a tournament, prints its progress and results, and writes the results to a JSON file if a path is given.
+     * Without any entrants, random moves play against the IsmctsController with 20 and 50 milliseconds per move.
+     *
+     * @param args Optionally the number of games per pairing, the number of threads, the seed, the path of the JSON file
+     *             (or "-" to not write one) and the entrants, in that order.
+     * @throws IOException If the results couldn't be written.
+     * @throws InterruptedException If the tournament was interrupted.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int gamesPerPairing = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : System.nanoTime();
+        String output = args.length > 3 && !args[3].equals("-") ? args[3] : null;
+
+        List<TournamentEntrant> entrants = new ArrayList<>();
+        for (String description : Arrays.asList(args).subList(Math.min(4, args.length), args.length))
+            entrants.add(TournamentEntrant.parse(description));
+        if (entrants.isEmpty()) {
+            entrants.add(TournamentEntrant.random());
+            entrants.add(TournamentEntrant.ismcts(20, 1));
+            entrants.add(TournamentEntrant.ismcts(50, 1));
+        }
+
+        Tournament tournament = new Tournament(entrants, gamesPerPairing, threads);
+        System.out.printf("Playing %d games per pairing between %s on %d threads with seed %d\n",
+                tournament.gamesPerPairing, entrants, threads, seed);
+        TournamentReport report = tournament.run(seed, System.out);
+        System.out.println();
+        System.out.println(report);
+
+        if (output != null) {
+            try (Writer writer = Files.newBufferedWriter(Paths.get(output), StandardCharsets.UTF_8)) {
+                report.writeJson(writer);
+            }
+            System.out.println("results written to: " + output);
+        }
+    }
+}
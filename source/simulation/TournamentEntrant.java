@@ -0,0 +1,106 @@
+package simulation;
+
+import bot.IsmctsController;
+import bot.PlayerController;
+
+import java.util.function.LongFunction;
+
+/**
+ * @version 1.0
+ *
+ * A bot configuration that takes part in a Tournament - a name, the time it is given for every move, and a way of
+ * constructing its PlayerController. Every worker of the tournament constructs controllers of its own, since a
+ * controller is never called by two threads at once. Controllers that are AutoCloseable are closed once the worker is
+ * done with them.
+ *
+ * Entrants can be described on the command line as "random", or as "ismcts:millis" or "ismcts:millis:workers" for an
+ * IsmctsController with the given time per move and number of worker threads.
+ *
+ * @see Tournament
+ * @see PlayerController
+ */
+public class TournamentEntrant {
+
+    private final String name;
+    private final long moveMillis;
+    private final LongFunction<PlayerController> factory;
+
+    /**
+     * Constructs an entrant.
+     *
+     * @param name The name of the entrant in the report, which should be unique within a tournament.
+     * @param moveMillis The time the entrant is given for every move, in milliseconds.
+     * @param factory Constructs a new controller of the entrant from a seed.
+     */
+    public TournamentEntrant(String name, long moveMillis, LongFunction<PlayerController> factory) {
+        this.name = name;
+        this.moveMillis = moveMillis;
+        this.factory = factory;
+    }
+
+    /**
+     * @return An entrant which plays random moves.
+     * @see PlayerController#RANDOM
+     */
+    public static TournamentEntrant random() {
+        return new TournamentEntrant("random", 0, seed -> PlayerController.RANDOM);
+    }
+
+    /**
+     * @param moveMillis The time the entrant is given for every move, in milliseconds.
+     * @param workerCount The number of worker threads the search uses.
+     * @return An entrant which searches with an IsmctsController.
+     * @see IsmctsController
+     */
+    public static TournamentEntrant ismcts(long moveMillis, int workerCount) {
+        String name = "ismcts-" + moveMillis + "ms" + (workerCount == 1 ? "" : "-" + workerCount + "w");
+        return new TournamentEntrant(name, moveMillis, seed -> new IsmctsController(workerCount, seed, false));
+    }
+
+    /**
+     * Parses the description of an entrant, as described in the class documentation.
+     *
+     * @param description The description, such as "random" or "ismcts:20".
+     * @return The described entrant.
+     * @throws IllegalArgumentException If the description can't be parsed.
+     */
+    public static TournamentEntrant parse(String description) {
+        String[] parts = description.split(":");
+        try {
+            if (parts.length == 1 && parts[0].equals("random"))
+                return random();
+            if (parts.length >= 2 && parts.length <= 3 && parts[0].equals("ismcts"))
+                return ismcts(Long.parseLong(parts[1]), parts.length == 3 ? Integer.parseInt(parts[2]) : 1);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number in entrant " + description, e);
+        }
+        throw new IllegalArgumentException("Unknown entrant " + description);
+    }
+
+    /**
+     * @param seed The seed of the controller, if it uses randomness.
+     * @return A new controller of this entrant.
+     */
+    PlayerController newController(long seed) {
+        return factory.apply(seed);
+    }
+
+    /**
+     * @return The name of this entrant.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return The time this entrant is given for every move, in milliseconds.
+     */
+    public long getMoveMillis() {
+        return moveMillis;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,459 @@
+package simulation;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * @version 1.0
+ *
+ * The results of a Tournament. Unlike a SimulationReport, a tournament report is shared by all the workers while they
+ * play, so that its progress can be printed while the tournament runs - every method is synchronized, which costs
+ * little next to the time it takes to play a game.
+ *
+ * Every pairing is scored from the point of view of its first entrant: a win counts 1, a tie counts a half. The score
+ * comes with a 95% confidence interval from the variance of the per-game scores, and is turned into an Elo difference.
+ * The ratings of all entrants are fitted to the scores of all pairings at once, by maximum likelihood, and centered on
+ * 1500. Games that were cut off because they went on for too long don't count towards any of these.
+ *
+ * @see Tournament
+ * @see LatencyHistogram
+ */
+public class TournamentReport {
+
+    /**
+     * The rating around which the ratings of the entrants are centered.
+     */
+    public static final double AVERAGE_RATING = 1500;
+
+    /**
+     * The z-score of the 95% confidence intervals.
+     */
+    private static final double Z_95 = 1.959964;
+
+    private final List<TournamentEntrant> entrants;
+    private final int[][] pairings;
+    private final int gamesPerPairing;
+    private final long seed;
+
+    private final long[] games;
+    private final long[] unfinishedGames;
+    private final long[][] wins;
+    private final long[] ties;
+    private final long[] margins;
+    private final LatencyHistogram[] latencies;
+    private final long[] illegalMoves;
+
+    private final long startNanos = System.nanoTime();
+    private long elapsedNanos;
+
+    /**
+     * Constructs an empty report.
+     *
+     * @param entrants The entrants of the tournament.
+     * @param pairings The pairs of indices of entrants that play each other.
+     * @param gamesPerPairing The number of games every pairing plays.
+     * @param seed The seed from which the games of the tournament are derived.
+     */
+    TournamentReport(List<TournamentEntrant> entrants, int[][] pairings, int gamesPerPairing, long seed) {
+        this.entrants = Collections.unmodifiableList(new ArrayList<>(entrants));
+        this.pairings = pairings;
+        this.gamesPerPairing = gamesPerPairing;
+        this.seed = seed;
+        this.games = new long[pairings.length];
+        this.unfinishedGames = new long[pairings.length];
+        this.wins = new long[pairings.length][2];
+        this.ties = new long[pairings.length];
+        this.margins = new long[pairings.length];
+        this.latencies = new LatencyHistogram[entrants.size()];
+        this.illegalMoves = new long[entrants.size()];
+        for (int entrant = 0; entrant < latencies.length; ++entrant)
+            latencies[entrant] = new LatencyHistogram();
+    }
+
+    /**
+     * Records a finished game.
+     *
+     * @param pairing The index of the pairing.
+     * @param firstPoints The points of the pairing's first entrant at the end of the game.
+     * @param secondPoints The points of the pairing's second entrant at the end of the game.
+     */
+    synchronized void recordGame(int pairing, int firstPoints, int secondPoints) {
+        ++games[pairing];
+        if (firstPoints < secondPoints)
+            ++wins[pairing][0];
+        else if (secondPoints < firstPoints)
+            ++wins[pairing][1];
+        else
+            ++ties[pairing];
+        margins[pairing] += secondPoints - firstPoints;
+    }
+
+    /**
+     * Records a game that was cut off because it went on for too many moves.
+     *
+     * @param pairing The index of the pairing.
+     */
+    synchronized void recordUnfinishedGame(int pairing) {
+        ++unfinishedGames[pairing];
+    }
+
+    /**
+     * Records how long an entrant took to choose a move. The histograms are thread-safe by themselves, so this isn't
+     * synchronized.
+     *
+     * @param entrant The index of the entrant.
+     * @param nanos The time the entrant took, in nanoseconds.
+     */
+    void recordMove(int entrant, long nanos) {
+        latencies[entrant].record(nanos);
+    }
+
+    /**
+     * Records a move that wasn't legal, and was replaced by the default move.
+     *
+     * @param entrant The index of the entrant.
+     */
+    synchronized void recordIllegalMove(int entrant) {
+        ++illegalMoves[entrant];
+    }
+
+    /**
+     * Stops the clock of the tournament.
+     */
+    synchronized void finish() {
+        elapsedNanos = System.nanoTime() - startNanos;
+    }
+
+    /**
+     * @return The entrants of the tournament.
+     */
+    public List<TournamentEntrant> getEntrants() {
+        return entrants;
+    }
+
+    /**
+     * @return The number of pairings.
+     */
+    public int getPairingCount() {
+        return pairings.length;
+    }
+
+    /**
+     * @param pairing The index of the pairing.
+     * @param side 0 for the first entrant of the pairing, 1 for the second.
+     * @return The entrant on the given side of the pairing.
+     */
+    public TournamentEntrant getEntrant(int pairing, int side) {
+        return entrants.get(pairings[pairing][side]);
+    }
+
+    /**
+     * @return The number of games played so far by all pairings, including unfinished games.
+     */
+    public synchronized long getPlayedGames() {
+        long played = 0;
+        for (int pairing = 0; pairing < pairings.length; ++pairing)
+            played += games[pairing] + unfinishedGames[pairing];
+        return played;
+    }
+
+    /**
+     * @return The number of games the tournament plays in total.
+     */
+    public long getTotalGames() {
+        return (long) gamesPerPairing * pairings.length;
+    }
+
+    /**
+     * @return The wall clock time the tournament took, or has taken so far if it isn't finished, in seconds.
+     */
+    public synchronized double getElapsedSeconds() {
+        return (elapsedNanos != 0 ? elapsedNanos : System.nanoTime() - startNanos) / 1e9;
+    }
+
+    /**
+     * @return The number of games played per second of wall clock time, including unfinished games.
+     */
+    public double getGamesPerSecond() {
+        double seconds = getElapsedSeconds();
+        return seconds == 0 ? 0 : getPlayedGames() / seconds;
+    }
+
+    /**
+     * @param pairing The index of the pairing.
+     * @return The number of games of the pairing that ended normally.
+     */
+    public synchronized long getGames(int pairing) {
+        return games[pairing];
+    }
+
+    /**
+     * @param pairing The index of the pairing.
+     * @return The number of games of the pairing that were cut off.
+     */
+    public synchronized long getUnfinishedGames(int pairing) {
+        return unfinishedGames[pairing];
+    }
+
+    /**
+     * @param pairing The index of the pairing.
+     * @param side 0 for the first entrant of the pairing, 1 for the second.
+     * @return The number of games the entrant on the given side won.
+     */
+    public synchronized long getWins(int pairing, int side) {
+        return wins[pairing][side];
+    }
+
+    /**
+     * @param pairing The index of the pairing.
+     * @return The number of games of the pairing that ended in a tie.
+     */
+    public synchronized long getTies(int pairing) {
+        return ties[pairing];
+    }
+
+    /**
+     * @param pairing The index of the pairing.
+     * @return The score of the first entrant of the pairing, from 0 to 1.
+     */
+    public synchronized double getScore(int pairing) {
+        return games[pairing] == 0 ? 0.5 : (wins[pairing][0] + 0.5 * ties[pairing]) / games[pairing];
+    }
+
+    /**
+     * @param pairing The index of the pairing.
+     * @return The half-width of the 95% confidence interval of the score of the pairing.
+     */
+    public synchronized double getScoreError(int pairing) {
+        long n = games[pairing];
+        if (n < 2)
+            return 0.5;
+        double score = getScore(pairing);
+        double squares = (wins[pairing][0] + 0.25 * ties[pairing]) / n;
+        double variance = Math.max(0, squares - score * score) * n / (n - 1);
+        return Z_95 * Math.sqrt(variance / n);
+    }
+
+    /**
+     * @param pairing The index of the pairing.
+     * @return By how many points the first entrant of the pairing beat the second on average - positive when the first
+     *         entrant ended with fewer points.
+     */
+    public synchronized double getAverageMargin(int pairing) {
+        return games[pairing] == 0 ? 0 : (double) margins[pairing] / games[pairing];
+    }
+
+    /**
+     * @param pairing The index of the pairing.
+     * @return The Elo difference between the first and the second entrant of the pairing that matches its score.
+     */
+    public synchronized double getEloDifference(int pairing) {
+        return elo(getScore(pairing), games[pairing]);
+    }
+
+    /**
+     * @param pairing The index of the pairing.
+     * @param bound -1 for the lower bound, 1 for the upper bound.
+     * @return A bound of the 95% confidence interval of the Elo difference of the pairing.
+     */
+    public synchronized double getEloDifferenceBound(int pairing, int bound) {
+        return elo(getScore(pairing) + bound * getScoreError(pairing), games[pairing]);
+    }
+
+    /**
+     * Fits the ratings of all entrants to the scores of all pairings, by maximum likelihood. Every step moves each
+     * rating by the Newton step of its own likelihood, and the ratings are centered again after every sweep.
+     *
+     * @return The rating of every entrant, by index.
+     */
+    public synchronized double[] getRatings() {
+        double[] ratings = new double[entrants.size()];
+        for (int iteration = 0; iteration < 1000; ++iteration) {
+            double largestStep = 0;
+            for (int entrant = 0; entrant < ratings.length; ++entrant) {
+                double gradient = 0;
+                double curvature = 0;
+                for (int pairing = 0; pairing < pairings.length; ++pairing) {
+                    int side = pairings[pairing][0] == entrant ? 0 : pairings[pairing][1] == entrant ? 1 : -1;
+                    if (side < 0 || games[pairing] == 0)
+                        continue;
+                    double score = clampScore(getScore(pairing), games[pairing]);
+                    double opponent = ratings[pairings[pairing][1 - side]];
+                    if (side == 1)
+                        score = 1 - score;
+                    double expected = 1 / (1 + Math.pow(10, (opponent - ratings[entrant]) / 400));
+                    gradient += games[pairing] * (score - expected);
+                    curvature += games[pairing] * expected * (1 - expected);
+                }
+                if (curvature == 0)
+                    continue;
+                double step = Math.max(-100, Math.min(100, gradient / curvature * 400 / Math.log(10)));
+                ratings[entrant] += step;
+                largestStep = Math.max(largestStep, Math.abs(step));
+            }
+
+            double mean = 0;
+            for (double rating : ratings)
+                mean += rating / ratings.length;
+            for (int entrant = 0; entrant < ratings.length; ++entrant)
+                ratings[entrant] -= mean;
+            if (largestStep < 1e-6)
+                break;
+        }
+        for (int entrant = 0; entrant < ratings.length; ++entrant)
+            ratings[entrant] += AVERAGE_RATING;
+        return ratings;
+    }
+
+    /**
+     * @param entrant The index of the entrant.
+     * @return How long the entrant took to choose its moves, over all of its moves with more than one legal choice.
+     */
+    public LatencyHistogram getLatency(int entrant) {
+        return latencies[entrant];
+    }
+
+    /**
+     * @param entrant The index of the entrant.
+     * @return The number of moves of the entrant that weren't legal.
+     */
+    public synchronized long getIllegalMoves(int entrant) {
+        return illegalMoves[entrant];
+    }
+
+    /**
+     * @return A single line about the progress of the tournament, its throughput and the move latencies so far.
+     */
+    public String getProgressLine() {
+        long played = getPlayedGames();
+        double gamesPerSecond = getGamesPerSecond();
+        long left = getTotalGames() - played;
+        StringBuilder line = new StringBuilder(String.format(Locale.ROOT,
+                "%d/%d games (%.1f%%), %.1f games/s, eta %s",
+                played, getTotalGames(), 100.0 * played / Math.max(1, getTotalGames()), gamesPerSecond,
+                gamesPerSecond == 0 ? "?" : formatDuration(left / gamesPerSecond)));
+        for (int entrant = 0; entrant < entrants.size(); ++entrant) {
+            LatencyHistogram latency = latencies[entrant];
+            line.append(String.format(Locale.ROOT, " | %s p50 %.1f p99 %.1f ms", entrants.get(entrant),
+                    latency.getPercentileNanos(50) / 1e6, latency.getPercentileNanos(99) / 1e6));
+        }
+        return line.toString();
+    }
+
+    /**
+     * Writes the report as JSON - the settings of the tournament, every entrant with its rating and move latencies, and
+     * every pairing with its results.
+     *
+     * @param writer The writer to write to.
+     * @throws IOException If the writer fails.
+     */
+    public synchronized void writeJson(Writer writer) throws IOException {
+        double[] ratings = getRatings();
+        StringBuilder json = new StringBuilder();
+        json.append("{\n");
+        json.append(String.format(Locale.ROOT, "  \"seed\": %d,\n", seed));
+        json.append(String.format(Locale.ROOT, "  \"gamesPerPairing\": %d,\n", gamesPerPairing));
+        json.append(String.format(Locale.ROOT, "  \"playedGames\": %d,\n", getPlayedGames()));
+        json.append(String.format(Locale.ROOT, "  \"elapsedSeconds\": %.3f,\n", getElapsedSeconds()));
+        json.append(String.format(Locale.ROOT, "  \"gamesPerSecond\": %.3f,\n", getGamesPerSecond()));
+
+        json.append("  \"entrants\": [\n");
+        for (int entrant = 0; entrant < entrants.size(); ++entrant) {
+            LatencyHistogram latency = latencies[entrant];
+            json.append(String.format(Locale.ROOT,
+                    "    {\"name\": %s, \"moveMillis\": %d, \"rating\": %.1f, \"illegalMoves\": %d, " +
+                    "\"timedMoves\": %d, \"latencyMillis\": {\"p50\": %.3f, \"p90\": %.3f, \"p99\": %.3f, " +
+                    "\"max\": %.3f}}%s\n",
+                    quote(entrants.get(entrant).getName()), entrants.get(entrant).getMoveMillis(), ratings[entrant],
+                    illegalMoves[entrant], latency.getCount(), latency.getPercentileNanos(50) / 1e6,
+                    latency.getPercentileNanos(90) / 1e6, latency.getPercentileNanos(99) / 1e6,
+                    latency.getMaxNanos() / 1e6, entrant + 1 < entrants.size() ? "," : ""));
+        }
+        json.append("  ],\n");
+
+        json.append("  \"pairings\": [\n");
+        for (int pairing = 0; pairing < pairings.length; ++pairing) {
+            json.append(String.format(Locale.ROOT,
+                    "    {\"first\": %s, \"second\": %s, \"games\": %d, \"unfinished\": %d, \"firstWins\": %d, " +
+                    "\"secondWins\": %d, \"ties\": %d, \"score\": %.4f, \"scoreLow\": %.4f, \"scoreHigh\": %.4f, " +
+                    "\"averageMargin\": %.3f, \"eloDifference\": %.1f, \"eloLow\": %.1f, \"eloHigh\": %.1f}%s\n",
+                    quote(getEntrant(pairing, 0).getName()), quote(getEntrant(pairing, 1).getName()),
+                    games[pairing], unfinishedGames[pairing], wins[pairing][0], wins[pairing][1], ties[pairing],
+                    getScore(pairing), Math.max(0, getScore(pairing) - getScoreError(pairing)),
+                    Math.min(1, getScore(pairing) + getScoreError(pairing)), getAverageMargin(pairing),
+                    getEloDifference(pairing), getEloDifferenceBound(pairing, -1),
+                    getEloDifferenceBound(pairing, 1), pairing + 1 < pairings.length ? "," : ""));
+        }
+        json.append("  ]\n");
+        json.append("}\n");
+        writer.write(json.toString());
+    }
+
+    @Override
+    public synchronized String toString() {
+        StringBuilder text = new StringBuilder();
+        text.append(String.format(Locale.ROOT, "games:          %d of %d\n", getPlayedGames(), getTotalGames()));
+        text.append(String.format(Locale.ROOT, "elapsed:        %.3f s\n", getElapsedSeconds()));
+        text.append(String.format(Locale.ROOT, "games/sec:      %.1f\n", getGamesPerSecond()));
+
+        text.append("\npairings:\n");
+        for (int pairing = 0; pairing < pairings.length; ++pairing) {
+            text.append(String.format(Locale.ROOT,
+                    "  %s vs %s: %d-%d-%d (%d unfinished), score %.1f%% +- %.1f%%, margin %+.2f, elo %+.0f [%+.0f, %+.0f]\n",
+                    getEntrant(pairing, 0), getEntrant(pairing, 1), wins[pairing][0], wins[pairing][1], ties[pairing],
+                    unfinishedGames[pairing], 100 * getScore(pairing), 100 * getScoreError(pairing),
+                    getAverageMargin(pairing), getEloDifference(pairing), getEloDifferenceBound(pairing, -1),
+                    getEloDifferenceBound(pairing, 1)));
+        }
+
+        double[] ratings = getRatings();
+        text.append("\nratings:\n");
+        for (int entrant = 0; entrant < entrants.size(); ++entrant) {
+            LatencyHistogram latency = latencies[entrant];
+            text.append(String.format(Locale.ROOT,
+                    "  %-16s %6.0f   latency p50 %.1f ms, p90 %.1f ms, p99 %.1f ms, max %.1f ms, %d illegal moves\n",
+                    entrants.get(entrant), ratings[entrant], latency.getPercentileNanos(50) / 1e6,
+                    latency.getPercentileNanos(90) / 1e6, latency.getPercentileNanos(99) / 1e6,
+                    latency.getMaxNanos() / 1e6, illegalMoves[entrant]));
+        }
+        return text.toString();
+    }
+
+    /**
+     * @return The Elo difference that matches a score, which is kept half a game away from 0 and 1 so that it stays
+     *         finite.
+     */
+    private static double elo(double score, long games) {
+        score = clampScore(score, games);
+        return -400 * Math.log10(1 / score - 1);
+    }
+
+    private static double clampScore(double score, long games) {
+        double margin = 0.5 / Math.max(1, games);
+        return Math.max(margin, Math.min(1 - margin, score));
+    }
+
+    private static String formatDuration(double seconds) {
+        long whole = Math.round(seconds);
+        return whole >= 3600
+                ? String.format(Locale.ROOT, "%dh%02dm", whole / 3600, whole / 60 % 60)
+                : String.format(Locale.ROOT, "%dm%02ds", whole / 60, whole % 60);
+    }
+
+    private static String quote(String text) {
+        StringBuilder quoted = new StringBuilder("\"");
+        for (char c : text.toCharArray()) {
+            if (c == '"' || c == '\\')
+                quoted.append('\\').append(c);
+            else if (c < 0x20)
+                quoted.append(String.format("\\u%04x", (int) c));
+            else
+                quoted.append(c);
+        }
+        return quoted.append('"').toString();
+    }
+}
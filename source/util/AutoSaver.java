@@ -0,0 +1,121 @@
+package util;
+
+import model.CaboGame;
+
+import javax.swing.Timer;
+import java.io.IOException;
+import java.util.Observable;
+import java.util.Observer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @version 1.0
+ *
+ * The AutoSaver periodically writes the auto-save while a CaboGame is being played, so that a crash doesn't lose the
+ * whole game. It observes the game, and saves it once no change has been made for DEBOUNCE_MILLIS - or at the latest
+ * MAX_DELAY_MILLIS after the first unsaved change, so that a steady stream of changes can't postpone the save forever.
+ *
+ * The debounce runs on a Swing Timer, so the snapshot of the game is taken on the EDT where the game is modified. Only
+ * writing the snapshot to disk happens on a background thread, which is where all the file IO and fsync latency goes.
+ *
+ * @see CaboIO
+ * @see CaboGame
+ */
+public class AutoSaver implements Observer {
+
+    private static final int DEBOUNCE_MILLIS = 1000;
+    private static final long MAX_DELAY_MILLIS = 5000;
+    private static final long CLOSE_TIMEOUT_MILLIS = 2000;
+
+    private final CaboGame game;
+    private final Timer debounceTimer;
+    private final ExecutorService writer;
+    private long firstChangeTime;
+    private boolean changePending;
+
+    /**
+     * Initializes an AutoSaver which starts observing the given game. This must be called on the EDT.
+     *
+     * @param game The CaboGame to auto-save.
+     */
+    public AutoSaver(CaboGame game) {
+        this.game = game;
+
+        debounceTimer = new Timer(DEBOUNCE_MILLIS, e -> save());
+        debounceTimer.setRepeats(false);
+
+        writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "auto-saver");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        game.addObserver(this);
+    }
+
+    /**
+     * Called on the EDT when the observed game changes. Restarts the debounce timer, or saves immediately if the first
+     * unsaved change is older than MAX_DELAY_MILLIS.
+     *
+     * @param observable The observed CaboGame.
+     * @param message The set of GameChanges.
+     */
+    @Override
+    public void update(Observable observable, Object message) {
+
+        long now = System.currentTimeMillis();
+        if (!changePending) {
+            changePending = true;
+            firstChangeTime = now;
+        }
+
+        if (now - firstChangeTime >= MAX_DELAY_MILLIS)
+            save();
+        else
+            debounceTimer.restart();
+    }
+
+    /**
+     * Takes a snapshot of the game and hands it to the background thread to be written.
+     */
+    private void save() {
+
+        debounceTimer.stop();
+        changePending = false;
+
+        byte[] snapshot;
+        try {
+            snapshot = CaboIO.snapshot(game);
+        } catch (IOException e) {
+            System.err.println("Couldn't auto-save game: " + e.getLocalizedMessage());
+            return;
+        }
+
+        writer.execute(() -> {
+            try {
+                CaboIO.writeAutoSave(snapshot);
+            } catch (IOException e) {
+                System.err.println("Couldn't auto-save game: " + e.getLocalizedMessage());
+            }
+        });
+    }
+
+    /**
+     * Stops auto-saving the game, and waits for a bounded amount of time for the save being written to finish. Must be
+     * called on the EDT, and before the final save of the game is written - so that a background save can't replace it.
+     */
+    public void close() {
+
+        game.deleteObserver(this);
+        debounceTimer.stop();
+        writer.shutdown();
+
+        try {
+            writer.awaitTermination(CLOSE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -6,37 +6,103 @@ import view.Panel;
 import view.SoundPlayer;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 
 /**
- * @version 2.0
+ * @version 3.0
  *
  * CaboIO is used for serialization/deserialization of the CaboGame state. When the CaboPanel closes, the current state
- * of the CaboGame is serialized to an auto-save file. This auto-save is then used to load back the game state when the
- * program is next run. CaboIO will also serialize the state of the SoundPlayer so that the sound on/off option persists
- * across program runs.
+ * of the CaboGame is serialized to an auto-save file. While playing, the AutoSaver also periodically writes the
+ * auto-save in the background. This auto-save is then used to load back the game state when the program is next run.
+ * CaboIO will also serialize the state of the SoundPlayer so that the sound on/off option persists across program runs.
+ *
+ * Saves are written in two steps. First a snapshot of the game is serialized into memory with snapshot(), which must
+ * happen on the thread that owns the game. The snapshot can then be written from any thread with writeAutoSave(),
+ * which writes it to a temporary file, forces it to disk, and then atomically renames it over the auto-save - so a
+ * crash in the middle of a save never leaves a corrupted auto-save behind. The latency and size of every save are
+ * recorded in the SaveMetrics.
+ *
+ * The auto-save is written in the compact binary format of SaveFile. Auto-saves written by older versions with Java
+ * serialization can still be loaded, and are deleted once the game was saved in the binary format. If the program
+ * crashed during the last run, the game is recovered from the GameJournal instead, which is newer than any auto-save.
  *
  * @see CaboGame
  * @see SoundPlayer
  * @see Panel
+ * @see AutoSaver
+ * @see SaveMetrics
+ * @see SaveFile
+ * @see GameJournal
  */
 public class CaboIO {
 
     private static final String SAVE_DIRECTORY_NAME = "savedgames";
-    private static final String AUTO_SAVE_NAME = "autosave.ser";
+    private static final String AUTO_SAVE_NAME = "autosave.cabo";
+    private static final String TEMP_SAVE_NAME = "autosave.cabo.tmp";
+    private static final String LEGACY_AUTO_SAVE_NAME = "autosave.ser";
+
+    private static final SaveMetrics saveMetrics = new SaveMetrics();
 
     //NOTE(Boris): Returns null if it couldn't load.
 
     /**
-     * De-serialize the CaboGame from the auto-save file - if one exists, and it isn't corrupted. This will also load
-     * the user last option for sound on/off into SoundPlayer so that this option persists across program runs. The
-     * auto-save file is generated by saveCaboGame().
+     * Loads the CaboGame from the auto-save file - if one exists, and it isn't corrupted. This will also load the user
+     * last option for sound on/off into SoundPlayer so that this option persists across program runs. The auto-save
+     * file is generated by saveCaboGame(). If there is no binary auto-save, or it can't be loaded, an auto-save
+     * serialized by an older version is loaded instead. If the GameJournal of a crashed run can be recovered, the
+     * recovered game is returned instead of the auto-save.
      *
-     * @return The CaboGame loaded from the auto-save, or null if the load was unsuccessful.
+     * @return The CaboGame loaded from the auto-save, or a new CaboGame if the load was unsuccessful.
      * @see CaboGame
      * @see SoundPlayer
+     * @see GameJournal
      */
     public static CaboGame tryLoadAutoSave() {
-        try (FileInputStream fileInputStream = new FileInputStream(SAVE_DIRECTORY_NAME + "/" + AUTO_SAVE_NAME)) {
+        CaboGame game = loadAutoSave();
+        CaboGame recoveredGame = GameJournal.recover();
+        if (recoveredGame == null)
+            return game;
+        System.out.println("Game recovered from journal!");
+        return recoveredGame;
+    }
+
+    /**
+     * Loads the binary auto-save, or an auto-save serialized by an older version if that fails.
+     *
+     * @return The CaboGame loaded from the auto-save, or a new CaboGame if the load was unsuccessful.
+     */
+    private static CaboGame loadAutoSave() {
+
+        Path saveFile = Paths.get(SAVE_DIRECTORY_NAME, AUTO_SAVE_NAME);
+        if (Files.exists(saveFile)) {
+            try {
+                SaveFile save = SaveFile.decode(Files.readAllBytes(saveFile));
+                SoundPlayer.setSoundIsOn(save.soundIsOn());
+                System.out.println("Auto-save loaded successfully!");
+                return save.getGame();
+            } catch (IOException e) {
+                System.err.println("Couldn't load Cabo game from auto-save: " + e.getLocalizedMessage());
+            }
+        }
+
+        return tryLoadLegacyAutoSave();
+    }
+
+    /**
+     * De-serialize the CaboGame from an auto-save file written with Java serialization by an older version - if one
+     * exists, and it isn't corrupted. This will also load the user last option for sound on/off into SoundPlayer.
+     *
+     * @return The CaboGame loaded from the auto-save, or a new CaboGame if the load was unsuccessful.
+     */
+    private static CaboGame tryLoadLegacyAutoSave() {
+        try (FileInputStream fileInputStream = new FileInputStream(SAVE_DIRECTORY_NAME + "/" + LEGACY_AUTO_SAVE_NAME)) {
             ObjectInputStream objectInputStream = new ObjectInputStream(fileInputStream);
             CaboGame loadedGame = (CaboGame)objectInputStream.readObject();
             boolean soundIsOn = (Boolean)objectInputStream.readObject();
@@ -58,26 +124,90 @@ public class CaboIO {
     }
 
     /**
-     * Serializes the state of the given CaboGame to the auto-save file - overwriting it if it already exists. The
+     * Serializes the state of the given CaboGame to the auto-save file - replacing it if it already exists. The
      * current state of the SoundPlayer (on/off) is also saved in the auto-save file. Both of these will then be loaded
      * by loadCaboGame(). Note that this serialization may fail for any number of reasons in which case it is possible
-     * that no auto-save is made.
+     * that no auto-save is made - but the previous auto-save is then left intact.
      *
      * @param game The CaboGame to serialize to the auto-save file.
      */
     public static void saveCaboGame(CaboGame game) {
-
-        File saveDirectory = new File(SAVE_DIRECTORY_NAME);
-        saveDirectory.mkdir();
-
-        try (FileOutputStream fileOutputStream = new FileOutputStream(SAVE_DIRECTORY_NAME + "/" + AUTO_SAVE_NAME)) {
-            ObjectOutputStream objectOutputStream = new ObjectOutputStream(fileOutputStream);
-            objectOutputStream.writeObject(game);
-            //NOTE(Boris): write/readBoolean() doesn't work here for some reason but write/readObject() does.
-            objectOutputStream.writeObject(SoundPlayer.soundIsOn());
+        try {
+            writeAutoSave(snapshot(game));
             System.out.println("Auto-save successful!");
         } catch (IOException e) {
             System.err.println("Couldn't save game: " + e.getLocalizedMessage());
         }
     }
+
+    /**
+     * Encodes the state of the given CaboGame and the SoundPlayer into memory, exactly like it is stored in the
+     * auto-save file. The returned bytes are never modified afterwards, so they can be handed to another thread and
+     * written with writeAutoSave(). This must be called on the thread that modifies the game - usually the EDT.
+     *
+     * @param game The CaboGame to take a snapshot of.
+     * @return The encoded snapshot.
+     * @throws IOException If the game couldn't be encoded.
+     * @see SaveFile
+     */
+    public static byte[] snapshot(CaboGame game) throws IOException {
+
+        long startTime = System.nanoTime();
+        byte[] snapshot;
+        try {
+            snapshot = SaveFile.encode(game, SoundPlayer.soundIsOn());
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Couldn't encode game: " + e.getLocalizedMessage(), e);
+        }
+
+        saveMetrics.recordSnapshot(System.nanoTime() - startTime);
+        return snapshot;
+    }
+
+    /**
+     * Writes a snapshot taken with snapshot() to the auto-save file. The snapshot is first written to a temporary file
+     * and forced to disk, which then atomically replaces the auto-save file - so the auto-save file always holds either
+     * the previous or the new save, and never a partially written one. This can be called from any thread, but not
+     * from multiple threads at the same time.
+     *
+     * @param snapshot The snapshot to write.
+     * @throws IOException If the snapshot couldn't be written, in which case the previous auto-save is left intact.
+     */
+    public static void writeAutoSave(byte[] snapshot) throws IOException {
+
+        long startTime = System.nanoTime();
+        Path saveDirectory = Paths.get(SAVE_DIRECTORY_NAME);
+        Path tempFile = saveDirectory.resolve(TEMP_SAVE_NAME);
+        Path saveFile = saveDirectory.resolve(AUTO_SAVE_NAME);
+
+        try {
+            Files.createDirectories(saveDirectory);
+            try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buffer = ByteBuffer.wrap(snapshot);
+                while (buffer.hasRemaining())
+                    channel.write(buffer);
+                channel.force(true);
+            }
+
+            try {
+                Files.move(tempFile, saveFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, saveFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+            Files.deleteIfExists(saveDirectory.resolve(LEGACY_AUTO_SAVE_NAME));
+        } catch (IOException e) {
+            saveMetrics.recordFailure();
+            throw e;
+        }
+
+        saveMetrics.recordSave(snapshot.length, System.nanoTime() - startTime);
+    }
+
+    /**
+     * @return The metrics of all the auto-saves written so far.
+     */
+    public static SaveMetrics getSaveMetrics() {
+        return saveMetrics;
+    }
 }
\ No newline at end of file
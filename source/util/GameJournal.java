@@ -0,0 +1,454 @@
+package util;
+
+import model.ActionRecorder;
+import model.CaboGame;
+import model.CompactGameState;
+import model.GameEffects;
+import model.card.Card;
+import view.SoundPlayer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @version 1.2
+ *
+ * An append-only journal of all the actions performed on a CaboGame, used to recover the game after a crash. The
+ * journal is a memory-mapped file of CAPACITY bytes in the savedgames directory, so recording an action only writes a
+ * couple of bytes to memory - the operating system writes them to the file, even if the program crashes right after.
+ *
+ * The journal starts with a header, holding the MAGIC number, the VERSION, whether the journal was closed cleanly, and
+ * the end of the last complete record. The header is followed by records, each made up of a type byte and its
+ * arguments:
+ *
+ * - CHECKPOINT, followed by the full state of the game as a SaveFile.
+ * - SELECT and RELEASE_ONTO, followed by the ordinal of a card, or NO_CARD.
+ * - RELEASE_AT, followed by an insertion index.
+ * - RELEASE, DROP, CABO, SKIP_SWAP and RESET without arguments.
+ * - SHUFFLE, followed by the state of the Shuffler after the shuffle, which is checked when replaying.
+ *
+ * The journal starts with a checkpoint of the game. When it runs out of space, it is compacted into a single new
+ * checkpoint after the action that filled it. To recover a game, recover() replays all actions after the last
+ * checkpoint on the state of that checkpoint. A journal that was closed cleanly is never replayed, since the auto-save
+ * is then at least as new.
+ *
+ * @see ActionRecorder
+ * @see SaveFile
+ * @see CaboIO
+ */
+public class GameJournal implements ActionRecorder, Closeable {
+
+    /**
+     * The first four bytes of every journal - "CBJL" in ASCII.
+     */
+    public static final int MAGIC = 0x43424A4C;
+
+    /**
+     * The version of the journal format.
+     */
+    public static final short VERSION = 2;
+
+    /**
+     * The size of the journal file in bytes.
+     */
+    public static final int CAPACITY = 64 * 1024;
+
+    private static final String SAVE_DIRECTORY_NAME = "savedgames";
+    private static final String JOURNAL_NAME = "journal.bin";
+
+    private static final int CLEAN_OFFSET = 6;
+    private static final int END_OFFSET = 8;
+    private static final int HEADER_SIZE = 16;
+    private static final int RESERVE = 1024;
+    private static final int NO_CARD = 0xFF;
+
+    private static final byte CHECKPOINT = 1;
+    private static final byte SELECT = 2;
+    private static final byte RELEASE = 3;
+    private static final byte RELEASE_ONTO = 4;
+    private static final byte RELEASE_AT = 5;
+    private static final byte DROP = 6;
+    private static final byte CABO = 7;
+    private static final byte SKIP_SWAP = 8;
+    private static final byte RESET = 9;
+    private static final byte SHUFFLE = 10;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private boolean failed;
+
+    private GameJournal(FileChannel channel, MappedByteBuffer buffer) {
+        this.channel = channel;
+        this.buffer = buffer;
+    }
+
+    /**
+     * Starts a new journal for the given game, replacing any existing journal, and installs it as the game's
+     * ActionRecorder. The new journal starts with a checkpoint of the game.
+     *
+     * @param game The CaboGame whose actions to record.
+     * @return The started journal.
+     * @throws IOException If the journal file couldn't be created or mapped.
+     */
+    public static GameJournal start(CaboGame game) throws IOException {
+        return start(game, Paths.get(SAVE_DIRECTORY_NAME));
+    }
+
+    /**
+     * Starts a new journal for the given game in the given directory, as start(CaboGame) does in the savedgames
+     * directory.
+     */
+    static GameJournal start(CaboGame game, Path saveDirectory) throws IOException {
+
+        Files.createDirectories(saveDirectory);
+        FileChannel channel = FileChannel.open(saveDirectory.resolve(JOURNAL_NAME),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        GameJournal journal;
+        try {
+            journal = new GameJournal(channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, CAPACITY));
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+
+        journal.buffer.putInt(0, MAGIC);
+        journal.buffer.putShort(4, VERSION);
+        journal.buffer.put(CLEAN_OFFSET, (byte)0);
+        journal.writeCheckpoint(game);
+        game.setRecorder(journal);
+        return journal;
+    }
+
+    /**
+     * Recovers the game from the journal left behind by a run of the program that didn't close it - i.e. that crashed.
+     * The state of the last checkpoint is restored, and all actions recorded after it are replayed with the GameEffects
+     * disabled. Replaying stops early at a record that can't be read, or at a shuffle that doesn't match.
+     *
+     * @return The recovered CaboGame, or null if there is no journal, it was closed cleanly, or it can't be read.
+     */
+    public static CaboGame recover() {
+        return recover(Paths.get(SAVE_DIRECTORY_NAME));
+    }
+
+    /**
+     * Recovers the game from the journal in the given directory, as recover() does from the savedgames directory.
+     */
+    static CaboGame recover(Path saveDirectory) {
+
+        Path journalFile = saveDirectory.resolve(JOURNAL_NAME);
+        if (!Files.exists(journalFile))
+            return null;
+
+        try (FileChannel channel = FileChannel.open(journalFile, StandardOpenOption.READ)) {
+            if (channel.size() < CAPACITY)
+                return null;
+
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, CAPACITY);
+            if (buffer.getInt(0) != MAGIC || buffer.getShort(4) != VERSION || buffer.get(CLEAN_OFFSET) != 0)
+                return null;
+            int end = buffer.getInt(END_OFFSET);
+            if (end < HEADER_SIZE || end > CAPACITY)
+                return null;
+
+            return replay(buffer, end);
+
+        } catch (IOException e) {
+            System.err.println("Couldn't recover game from journal: " + e.getLocalizedMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Marks the journal as closed cleanly, forces it to disk, and stops recording. The CaboGame should be saved
+     * right before, since the journal is not replayed anymore once it is closed.
+     *
+     * @throws IOException If the journal file couldn't be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        failed = true;
+        buffer.put(CLEAN_OFFSET, (byte)1);
+        buffer.force();
+        channel.close();
+    }
+
+    @Override
+    public void cardSelected(Card card) {
+        append(SELECT, ordinal(card));
+    }
+
+    @Override
+    public void cardReleased() {
+        append(RELEASE);
+    }
+
+    @Override
+    public void cardReleasedOnto(Card cardAtReleasePoint) {
+        append(RELEASE_ONTO, ordinal(cardAtReleasePoint));
+    }
+
+    @Override
+    public void cardReleasedAt(int insertionIndex) {
+        append(RELEASE_AT, insertionIndex);
+    }
+
+    @Override
+    public void cardDropped() {
+        append(DROP);
+    }
+
+    @Override
+    public void caboCalled() {
+        append(CABO);
+    }
+
+    @Override
+    public void swapSkipped() {
+        append(SKIP_SWAP);
+    }
+
+    @Override
+    public void gameReset() {
+        append(RESET);
+    }
+
+    @Override
+    public void deckShuffled(long shufflerState) {
+        if (failed || !hasRoom(1 + Long.BYTES))
+            return;
+        int end = getEnd();
+        buffer.put(end, SHUFFLE);
+        buffer.putLong(end + 1, shufflerState);
+        setEnd(end + 1 + Long.BYTES);
+    }
+
+    /**
+     * Compacts the journal into a single checkpoint of the game once it gets close to running out of space.
+     *
+     * @param game The CaboGame the action was performed on.
+     */
+    @Override
+    public void actionFinished(CaboGame game) {
+        if (!failed && getEnd() > CAPACITY - RESERVE)
+            writeCheckpoint(game);
+    }
+
+    /**
+     * @return The number of bytes currently used by the journal, including the header.
+     */
+    public int getSize() {
+        return getEnd();
+    }
+
+    /**
+     * Appends a record without arguments.
+     */
+    private void append(byte type) {
+        if (failed || !hasRoom(1))
+            return;
+        int end = getEnd();
+        buffer.put(end, type);
+        setEnd(end + 1);
+    }
+
+    /**
+     * Appends a record with a single byte argument.
+     */
+    private void append(byte type, int argument) {
+        if (failed || !hasRoom(2))
+            return;
+        int end = getEnd();
+        buffer.put(end, type);
+        buffer.put(end + 1, (byte)argument);
+        setEnd(end + 2);
+    }
+
+    /**
+     * Replaces all records with a single checkpoint of the game. The journal is emptied before the checkpoint is
+     * written, so a crash in between leaves an empty journal behind rather than a corrupted one.
+     */
+    private void writeCheckpoint(CaboGame game) {
+
+        byte[] save;
+        try {
+            save = SaveFile.encode(game, SoundPlayer.soundIsOn());
+        } catch (IllegalArgumentException e) {
+            fail("Couldn't write journal checkpoint: " + e.getLocalizedMessage());
+            return;
+        }
+
+        setEnd(HEADER_SIZE);
+        ByteBuffer record = buffer.duplicate();
+        record.position(HEADER_SIZE);
+        record.put(CHECKPOINT);
+        record.put(save);
+        setEnd(record.position());
+    }
+
+    /**
+     * @return Whether a record of the given size still fits, disabling the journal if not.
+     */
+    private boolean hasRoom(int recordSize) {
+        if (getEnd() + recordSize <= CAPACITY)
+            return true;
+        fail("Journal is full - no more actions will be recorded");
+        return false;
+    }
+
+    private void fail(String message) {
+        System.err.println(message);
+        failed = true;
+        setEnd(HEADER_SIZE);
+    }
+
+    private int getEnd() {
+        return buffer.getInt(END_OFFSET);
+    }
+
+    private void setEnd(int end) {
+        buffer.putInt(END_OFFSET, end);
+    }
+
+    /**
+     * Restores the last checkpoint before the given end, and replays the records after it.
+     */
+    private static CaboGame replay(MappedByteBuffer buffer, int end) throws IOException {
+
+        int checkpoint = -1;
+        int position = HEADER_SIZE;
+        while (position < end) {
+            int size = recordSize(buffer.get(position));
+            if (size == 0 || position + size > end)
+                break;
+            if (buffer.get(position) == CHECKPOINT)
+                checkpoint = position;
+            position += size;
+        }
+        if (checkpoint == -1)
+            return null;
+
+        byte[] save = new byte[SaveFile.SIZE];
+        ByteBuffer record = buffer.duplicate();
+        record.position(checkpoint + 1);
+        record.get(save);
+        CaboGame game = SaveFile.decode(save).getGame();
+
+        GameEffects effects = CaboGame.getEffects();
+        CaboGame.setEffects(null);
+        try {
+            position = checkpoint + recordSize(CHECKPOINT);
+            while (position < end) {
+                byte type = buffer.get(position);
+                int size = recordSize(type);
+                if (size == 0 || position + size > end)
+                    break;
+                if (!replayRecord(game, type, buffer, position + 1))
+                    break;
+                position += size;
+            }
+        } finally {
+            CaboGame.setEffects(effects);
+        }
+
+        return game;
+    }
+
+    /**
+     * Performs the action of a single record on the game.
+     *
+     * @return Whether the record could be replayed.
+     */
+    private static boolean replayRecord(CaboGame game, byte type, MappedByteBuffer buffer, int arguments) {
+        switch (type) {
+            case SELECT:
+                game.selectCard(findCard(game, buffer.get(arguments) & 0xFF));
+                return true;
+            case RELEASE:
+                game.releaseCard();
+                return true;
+            case RELEASE_ONTO:
+                game.releaseCard(findCard(game, buffer.get(arguments) & 0xFF));
+                return true;
+            case RELEASE_AT:
+                game.releaseCard(buffer.get(arguments));
+                return true;
+            case DROP:
+                game.dropSelectedCard();
+                return true;
+            case CABO:
+                game.callCabo();
+                return true;
+            case SKIP_SWAP:
+                game.skipSwap();
+                return true;
+            case RESET:
+                game.reset();
+                return true;
+            case SHUFFLE:
+                if (game.getShuffler().getState() == buffer.getLong(arguments))
+                    return true;
+                System.err.println("Journal doesn't match the replayed game - stopping replay");
+                return false;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * @return The size of a record of the given type, including the type byte, or 0 if the type is unknown.
+     */
+    private static int recordSize(byte type) {
+        switch (type) {
+            case CHECKPOINT:
+                return 1 + SaveFile.SIZE;
+            case SELECT:
+            case RELEASE_ONTO:
+            case RELEASE_AT:
+                return 2;
+            case RELEASE:
+            case DROP:
+            case CABO:
+            case SKIP_SWAP:
+            case RESET:
+                return 1;
+            case SHUFFLE:
+                return 1 + Long.BYTES;
+            default:
+                return 0;
+        }
+    }
+
+    private static int ordinal(Card card) {
+        return card == null ? NO_CARD : card.getBackingCard().ordinal();
+    }
+
+    /**
+     * @return The Card of the game with the given CaboCard ordinal, or null for NO_CARD.
+     */
+    private static Card findCard(CaboGame game, int ordinal) {
+        if (ordinal == NO_CARD || ordinal >= CompactGameState.CARD_COUNT)
+            return null;
+
+        List<Card> cards = new ArrayList<>(game.getDeck().asList());
+        cards.addAll(game.getDiscardPile().asList());
+        cards.addAll(game.getPlayer1().getCards());
+        cards.addAll(game.getPlayer2().getCards());
+        if (game.getDrawnCard() != null)
+            cards.add(game.getDrawnCard());
+
+        for (Card card : cards)
+            if (card.getBackingCard().ordinal() == ordinal)
+                return card;
+        return null;
+    }
+}
@@ -0,0 +1,269 @@
+package util;
+
+import model.CaboGame;
+import model.CompactGameState;
+import model.card.Shuffler;
+import model.turnphase.TurnPhase;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+
+/**
+ * @version 1.1
+ *
+ * The binary format of the auto-save. A save holds the state of a CaboGame as packed by a CompactGameState, the state
+ * of the game's Shuffler, and whether the sound is on - in a fixed layout of SIZE bytes:
+ *
+ * - the MAGIC number "CABO", and the VERSION of the format as a short.
+ * - a flags byte, holding whether the sound is on.
+ * - the state of the Shuffler as a long.
+ * - the sizes of the deck, discard pile, and the hands of both players as one byte each, followed by the ordinals of
+ *   all 54 CaboCards as one byte each, zone by zone. The cards left after the hand of player 2 are in the draw area.
+ * - the face-up mask, with the bit of every face-up card's ordinal set, as a long.
+ * - the known cards of player 1 and of player 2, with the bit of every card's ordinal set that the player has seen, as
+ *   a long each.
+ * - a player flags byte, holding the current player, who called Cabo, who did their initial peek, and whether the
+ *   game is over.
+ * - the ordinal of the current TurnPhase.PhaseName, followed by its selected card and its two phase-local cards (such
+ *   as the peeked or spied-on cards) as ordinals - then the same for the previous TurnPhase that a PickupPhase or
+ *   TransferCardPhase returns to. Missing phases and cards are stored as NONE.
+ * - a CRC32 of all the preceding bytes as an int.
+ *
+ * Since cards and phases are stored as ordinals, reordering CaboCard or TurnPhase.PhaseName changes the format, and
+ * requires the VERSION to be increased. Saves with a newer version than this one are rejected. Saves of version 1 are
+ * VERSION_1_SIZE bytes, since they don't hold the known cards - both players then only know the face-up cards and the
+ * discard pile.
+ *
+ * @see CaboIO
+ * @see CompactGameState
+ */
+public class SaveFile {
+
+    /**
+     * The first four bytes of every save - "CABO" in ASCII.
+     */
+    public static final int MAGIC = 0x4341424F;
+
+    /**
+     * The version of the format written by encode().
+     */
+    public static final short VERSION = 2;
+
+    /**
+     * The size of a save in bytes.
+     */
+    public static final int SIZE = 110;
+
+    /**
+     * The size of a version 1 save in bytes.
+     */
+    public static final int VERSION_1_SIZE = 94;
+
+    private static final int NONE = 0xFF;
+    private static final int ZONE_COUNT = CompactGameState.DRAW_AREA;
+    private static final TurnPhase.PhaseName[] PHASE_NAMES = TurnPhase.PhaseName.values();
+
+    private static final int SOUND_IS_ON = 1;
+
+    private static final int CURRENT_PLAYER_IS_PLAYER2 = 1;
+    private static final int PLAYER1_CALLED_CABO = 1 << 1;
+    private static final int PLAYER2_CALLED_CABO = 1 << 2;
+    private static final int PLAYER1_DID_INITIAL_PEEK = 1 << 3;
+    private static final int PLAYER2_DID_INITIAL_PEEK = 1 << 4;
+    private static final int GAME_IS_OVER = 1 << 5;
+
+    private final CaboGame game;
+    private final boolean soundIsOn;
+
+    private SaveFile(CaboGame game, boolean soundIsOn) {
+        this.game = game;
+        this.soundIsOn = soundIsOn;
+    }
+
+    /**
+     * @return The CaboGame that was loaded from the save.
+     */
+    public CaboGame getGame() {
+        return game;
+    }
+
+    /**
+     * @return Whether the sound was on when the save was written.
+     */
+    public boolean soundIsOn() {
+        return soundIsOn;
+    }
+
+    /**
+     * Encodes the state of a CaboGame into a save.
+     *
+     * @param game The CaboGame to encode.
+     * @param soundIsOn Whether the sound is on.
+     * @return The encoded save, SIZE bytes long.
+     * @throws IllegalArgumentException If the game can't be packed into a CompactGameState.
+     */
+    public static byte[] encode(CaboGame game, boolean soundIsOn) {
+
+        CompactGameState state = CompactGameState.of(game);
+        ByteBuffer buffer = ByteBuffer.allocate(SIZE);
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+        buffer.put((byte)(soundIsOn ? SOUND_IS_ON : 0));
+        buffer.putLong(game.getShuffler().getState());
+
+        for (int zone = CompactGameState.DECK; zone < ZONE_COUNT; ++zone)
+            buffer.put((byte)state.size(zone));
+        for (int zone = CompactGameState.DECK; zone <= CompactGameState.DRAW_AREA; ++zone)
+            for (int i = 0; i < state.size(zone); ++i)
+                buffer.put((byte)state.cardAt(zone, i));
+        buffer.putLong(state.getFaceUpMask());
+        buffer.putLong(state.getKnownMask(0));
+        buffer.putLong(state.getKnownMask(1));
+
+        int playerFlags = 0;
+        if (state.getCurrentPlayer() == 1)
+            playerFlags |= CURRENT_PLAYER_IS_PLAYER2;
+        if (state.hasCalledCabo(0))
+            playerFlags |= PLAYER1_CALLED_CABO;
+        if (state.hasCalledCabo(1))
+            playerFlags |= PLAYER2_CALLED_CABO;
+        if (state.didInitialPeek(0))
+            playerFlags |= PLAYER1_DID_INITIAL_PEEK;
+        if (state.didInitialPeek(1))
+            playerFlags |= PLAYER2_DID_INITIAL_PEEK;
+        if (state.isOver())
+            playerFlags |= GAME_IS_OVER;
+        buffer.put((byte)playerFlags);
+
+        putPhase(buffer, state.getPhaseName(),
+                state.getSelectedCard(), state.getFirstPhaseCard(), state.getSecondPhaseCard());
+        putPhase(buffer, state.getPreviousPhaseName(),
+                state.getPreviousSelectedCard(), state.getPreviousFirstPhaseCard(), state.getPreviousSecondPhaseCard());
+
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putInt((int)crc.getValue());
+        return buffer.array();
+    }
+
+    /**
+     * Decodes a save written by encode().
+     *
+     * @param data The bytes of the save.
+     * @return The decoded save, holding a new CaboGame.
+     * @throws IOException If the data isn't a save, is corrupted, or has a newer version.
+     */
+    public static SaveFile decode(byte[] data) throws IOException {
+
+        if (data.length < Integer.BYTES + Short.BYTES)
+            throw new IOException("Save is only " + data.length + " bytes");
+
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        if (buffer.getInt() != MAGIC)
+            throw new IOException("Not a Cabo save");
+        short version = buffer.getShort();
+        if (version > VERSION)
+            throw new IOException("Save has version " + version + ", but only up to " + VERSION + " is supported");
+
+        int size = version == 1 ? VERSION_1_SIZE : SIZE;
+        if (data.length != size)
+            throw new IOException("Save is " + data.length + " bytes instead of " + size);
+
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, size - Integer.BYTES);
+        if ((int)crc.getValue() != ByteBuffer.wrap(data, size - Integer.BYTES, Integer.BYTES).getInt())
+            throw new IOException("Save is corrupted");
+
+        try {
+            boolean soundIsOn = (buffer.get() & SOUND_IS_ON) != 0;
+            Shuffler shuffler = new Shuffler(buffer.getLong());
+
+            int[] sizes = new int[ZONE_COUNT];
+            for (int zone = CompactGameState.DECK; zone < ZONE_COUNT; ++zone)
+                sizes[zone] = buffer.get() & 0xFF;
+            byte[] cards = new byte[CompactGameState.CARD_COUNT];
+            buffer.get(cards);
+
+            CompactGameState state = new CompactGameState();
+            state.setCards(cards, sizes);
+            state.setFaceUpMask(buffer.getLong());
+            if (version == 1) {
+                long known = state.getFaceUpMask();
+                for (int i = 0; i < state.size(CompactGameState.DISCARD_PILE); ++i)
+                    known |= 1L << state.cardAt(CompactGameState.DISCARD_PILE, i);
+                state.setKnownMask(0, known);
+                state.setKnownMask(1, known);
+            } else {
+                state.setKnownMask(0, buffer.getLong());
+                state.setKnownMask(1, buffer.getLong());
+            }
+
+            int playerFlags = buffer.get();
+            state.setCurrentPlayer((playerFlags & CURRENT_PLAYER_IS_PLAYER2) != 0 ? 1 : 0);
+            if ((playerFlags & PLAYER1_CALLED_CABO) != 0)
+                state.setCalledCabo(0);
+            if ((playerFlags & PLAYER2_CALLED_CABO) != 0)
+                state.setCalledCabo(1);
+            if ((playerFlags & PLAYER1_DID_INITIAL_PEEK) != 0)
+                state.setDidInitialPeek(0);
+            if ((playerFlags & PLAYER2_DID_INITIAL_PEEK) != 0)
+                state.setDidInitialPeek(1);
+            state.setOver((playerFlags & GAME_IS_OVER) != 0);
+
+            TurnPhase.PhaseName phaseName = getPhaseName(buffer);
+            int[] phaseCards = getPhaseCards(buffer);
+            TurnPhase.PhaseName previousPhaseName = getPhaseName(buffer);
+            int[] previousPhaseCards = getPhaseCards(buffer);
+            if (phaseName == null)
+                throw new IOException("Save has no turn phase");
+
+            if (previousPhaseName != null) {
+                state.setPhaseName(previousPhaseName);
+                setPhaseCards(state, previousPhaseCards);
+                state.pushPhase(phaseName);
+            } else {
+                state.setPhaseName(phaseName);
+            }
+            setPhaseCards(state, phaseCards);
+
+            return new SaveFile(state.toCaboGame(shuffler), soundIsOn);
+
+        } catch (IllegalArgumentException | IllegalStateException | BufferUnderflowException e) {
+            throw new IOException("Save is invalid: " + e.getLocalizedMessage(), e);
+        }
+    }
+
+    private static void putPhase(ByteBuffer buffer, TurnPhase.PhaseName phaseName, int... cards) {
+        buffer.put((byte)(phaseName == null ? NONE : phaseName.ordinal()));
+        for (int card : cards)
+            buffer.put((byte)(card == CompactGameState.NO_CARD ? NONE : card));
+    }
+
+    private static TurnPhase.PhaseName getPhaseName(ByteBuffer buffer) throws IOException {
+        int ordinal = buffer.get() & 0xFF;
+        if (ordinal == NONE)
+            return null;
+        if (ordinal >= PHASE_NAMES.length)
+            throw new IOException("Save has an unknown turn phase " + ordinal);
+        return PHASE_NAMES[ordinal];
+    }
+
+    private static int[] getPhaseCards(ByteBuffer buffer) throws IOException {
+        int[] cards = new int[3];
+        for (int i = 0; i < cards.length; ++i) {
+            int card = buffer.get() & 0xFF;
+            if (card != NONE && card >= CompactGameState.CARD_COUNT)
+                throw new IOException("Save has an unknown card " + card);
+            cards[i] = card == NONE ? CompactGameState.NO_CARD : card;
+        }
+        return cards;
+    }
+
+    private static void setPhaseCards(CompactGameState state, int[] cards) {
+        state.setSelectedCard(cards[0]);
+        state.setFirstPhaseCard(cards[1]);
+        state.setSecondPhaseCard(cards[2]);
+    }
+}
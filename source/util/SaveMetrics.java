@@ -0,0 +1,121 @@
+package util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @version 1.0
+ *
+ * Counters for the auto-saves written by CaboIO - how many saves were written or failed, how many bytes they wrote, how
+ * long writing them took, and how long taking the snapshots they were written from took on the EDT. All counters can
+ * be updated and read from any thread.
+ *
+ * @see CaboIO
+ * @see AutoSaver
+ */
+public class SaveMetrics {
+
+    private final AtomicLong saveCount = new AtomicLong();
+    private final AtomicLong failureCount = new AtomicLong();
+    private final AtomicLong bytesWritten = new AtomicLong();
+    private final AtomicLong totalSaveNanos = new AtomicLong();
+    private final AtomicLong maxSaveNanos = new AtomicLong();
+    private final AtomicLong lastSaveNanos = new AtomicLong();
+    private final AtomicLong snapshotCount = new AtomicLong();
+    private final AtomicLong totalSnapshotNanos = new AtomicLong();
+
+    /**
+     * Records a save that was written successfully.
+     *
+     * @param bytes The number of bytes that were written.
+     * @param nanos The number of nanoseconds writing the save took.
+     */
+    void recordSave(long bytes, long nanos) {
+        saveCount.incrementAndGet();
+        bytesWritten.addAndGet(bytes);
+        totalSaveNanos.addAndGet(nanos);
+        lastSaveNanos.set(nanos);
+        maxSaveNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * Records a save that couldn't be written.
+     */
+    void recordFailure() {
+        failureCount.incrementAndGet();
+    }
+
+    /**
+     * Records a snapshot of the game that was taken to be saved.
+     *
+     * @param nanos The number of nanoseconds taking the snapshot took.
+     */
+    void recordSnapshot(long nanos) {
+        snapshotCount.incrementAndGet();
+        totalSnapshotNanos.addAndGet(nanos);
+    }
+
+    /**
+     * @return The number of saves that were written successfully.
+     */
+    public long getSaveCount() {
+        return saveCount.get();
+    }
+
+    /**
+     * @return The number of saves that couldn't be written.
+     */
+    public long getFailureCount() {
+        return failureCount.get();
+    }
+
+    /**
+     * @return The total number of bytes written by all successful saves.
+     */
+    public long getBytesWritten() {
+        return bytesWritten.get();
+    }
+
+    /**
+     * @return The number of nanoseconds the last successful save took to write, or 0 if there was none.
+     */
+    public long getLastSaveNanos() {
+        return lastSaveNanos.get();
+    }
+
+    /**
+     * @return The longest number of nanoseconds a successful save took to write, or 0 if there was none.
+     */
+    public long getMaxSaveNanos() {
+        return maxSaveNanos.get();
+    }
+
+    /**
+     * @return The average number of nanoseconds a successful save took to write, or 0 if there was none.
+     */
+    public long getAverageSaveNanos() {
+        long count = saveCount.get();
+        return count == 0 ? 0 : totalSaveNanos.get() / count;
+    }
+
+    /**
+     * @return The average number of nanoseconds taking a snapshot took, or 0 if none was taken.
+     */
+    public long getAverageSnapshotNanos() {
+        long count = snapshotCount.get();
+        return count == 0 ? 0 : totalSnapshotNanos.get() / count;
+    }
+
+    /**
+     * @return A one line summary of all the counters.
+     */
+    @Override
+    public String toString() {
+        return String.format("%d saves (%d failed), %d bytes written, save latency avg %.2f ms max %.2f ms, " +
+                        "snapshot avg %.1f us",
+                getSaveCount(), getFailureCount(), getBytesWritten(),
+                getAverageSaveNanos() / (double)TimeUnit.MILLISECONDS.toNanos(1),
+                getMaxSaveNanos() / (double)TimeUnit.MILLISECONDS.toNanos(1),
+                getAverageSnapshotNanos() / (double)TimeUnit.MICROSECONDS.toNanos(1));
+    }
+}
@@ -0,0 +1,127 @@
+package util;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * @version 1.1
+ *
+ * Times the stages of starting up the game, which run concurrently on different threads, and the time it takes until
+ * the first interactive frame is painted. All times are measured from the call to start(), and stages that are started
+ * or finished before that are ignored - so the timer costs nothing unless the game is started through Main.
+ *
+ * If requested, the report is printed as soon as the first interactive frame was painted. Other startup diagnostics,
+ * such as how long the assets took to preload, are only printed along with the report.
+ *
+ * @see view.AssetPreloader
+ */
+public class StartupTimer {
+
+    /**
+     * The stages of starting up, in the order they are reported in.
+     */
+    public enum Stage {
+        LOOK_AND_FEEL("look and feel"),
+        AUTO_SAVE("auto-save"),
+        TEXTURES("textures"),
+        SOUNDS("sounds"),
+        PLACEHOLDER_FRAME("placeholder frame"),
+        GAME_BOARD("game board");
+
+        private final String description;
+
+        Stage(String description) {
+            this.description = description;
+        }
+
+        @Override
+        public String toString() {
+            return description;
+        }
+    }
+
+    private static final Map<Stage, long[]> stages = new EnumMap<>(Stage.class);
+    private static long startNanos;
+    private static long interactiveNanos = -1;
+    private static boolean started;
+    private static boolean printReport;
+
+    private StartupTimer() {}
+
+    /**
+     * Starts timing. Calling this more than once has no effect.
+     *
+     * @param printReport Whether to print the report once the first interactive frame was painted.
+     */
+    public static synchronized void start(boolean printReport) {
+        if (started)
+            return;
+        started = true;
+        startNanos = System.nanoTime();
+        StartupTimer.printReport = printReport;
+    }
+
+    /**
+     * Records that a stage started on the calling thread.
+     *
+     * @param stage The stage that started.
+     */
+    public static synchronized void stageStarted(Stage stage) {
+        if (started)
+            stages.put(stage, new long[] { System.nanoTime(), -1 });
+    }
+
+    /**
+     * Records that a stage finished. Only the first time a stage finishes is recorded.
+     *
+     * @param stage The stage that finished.
+     */
+    public static synchronized void stageFinished(Stage stage) {
+        long[] times = stages.get(stage);
+        if (times != null && times[1] < 0)
+            times[1] = System.nanoTime();
+    }
+
+    /**
+     * Records that the first interactive frame was painted, and prints the report if it was requested. Only the first
+     * call after start() is recorded.
+     */
+    public static synchronized void markInteractive() {
+        if (!started || interactiveNanos >= 0)
+            return;
+        interactiveNanos = System.nanoTime();
+        if (printReport)
+            System.out.println(getReport());
+    }
+
+    /**
+     * @return Whether the report was requested, in which case other startup diagnostics are printed as well.
+     */
+    public static synchronized boolean isReportRequested() {
+        return started && printReport;
+    }
+
+    /**
+     * @return The report of all recorded stages, and the time to the first interactive frame.
+     */
+    public static synchronized String getReport() {
+        StringBuilder report = new StringBuilder("Startup timing (ms since start):\n");
+        for (Map.Entry<Stage, long[]> entry : stages.entrySet()) {
+            long[] times = entry.getValue();
+            if (times[1] < 0)
+                report.append(String.format("  %-18s %8.1f .. unfinished\n", entry.getKey(), millis(times[0])));
+            else
+                report.append(String.format("  %-18s %8.1f .. %8.1f  (%.1f ms)\n", entry.getKey(),
+                        millis(times[0]), millis(times[1]), (times[1] - times[0]) / 1e6));
+        }
+        if (interactiveNanos < 0)
+            report.append("  no interactive frame yet");
+        else
+            report.append(String.format("  first interactive frame after %.1f ms", millis(interactiveNanos)));
+        return report.toString();
+    }
+
+    private static double millis(long nanos) {
+        return (nanos - startNanos) / 1e6;
+    }
+}
@@ -0,0 +1,238 @@
+package util;
+
+import view.CardTextures;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * @version 1.1
+ *
+ * Caches high-quality scaled copies of images. If you just try to paint an image with Graphics2D and it's actually
+ * scaled up or down on the screen, Swing uses nearest-neighbor filtering to scale the image - and it looks absolutely
+ * terrible! So the images are scaled once with a higher quality filter, and the scaled copies are kept around.
+ *
+ * Any number of sizes of the same image can be cached at once, so painting the same image at two sizes doesn't
+ * rescale it over and over again. The cache is bounded by a memory budget - when it is exceeded, the least recently
+ * used scaled images are evicted. The scaled images are compatible with the default screen, so they can be painted
+ * without any conversion. The cache counts its hits, misses and evictions, and can safely be used from any thread.
+ * Images are scaled outside of the cache's lock, so threads that scale different images don't wait for each other.
+ *
+ * @see CardTextures
+ */
+public class TextureCache {
+
+    private final Map<Key, BufferedImage> scaledImages = new LinkedHashMap<>(64, 0.75f, true);
+    private long budgetBytes;
+    private long usedBytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Constructs an empty TextureCache.
+     *
+     * @param budgetBytes The maximum number of bytes the scaled images may take up together.
+     */
+    public TextureCache(long budgetBytes) {
+        this.budgetBytes = budgetBytes;
+    }
+
+    /**
+     * Gets a scaled copy of the given image. If a copy with the given dimensions is cached, it is returned right away.
+     * Otherwise the image is scaled, which can be a rather expensive operation, and the copy is cached - unless it
+     * doesn't fit in the memory budget at all. If another thread cached the same copy while the image was being scaled,
+     * that copy is returned instead.
+     *
+     * @param image The image to scale.
+     * @param width The width to scale the image to.
+     * @param height The height to scale the image to.
+     * @return A high-quality scaled copy of the image.
+     */
+    public BufferedImage getScaled(BufferedImage image, int width, int height) {
+        Key key = new Key(image, width, height);
+        synchronized (this) {
+            BufferedImage scaledImage = scaledImages.get(key);
+            if (scaledImage != null) {
+                ++hits;
+                return scaledImage;
+            }
+            ++misses;
+        }
+
+        BufferedImage scaledImage = scale(image, width, height);
+        long bytes = sizeOf(scaledImage);
+        synchronized (this) {
+            BufferedImage cachedImage = scaledImages.get(key);
+            if (cachedImage != null)
+                return cachedImage;
+            if (bytes <= budgetBytes) {
+                scaledImages.put(key, scaledImage);
+                usedBytes += bytes;
+                evictToBudget();
+            }
+        }
+        return scaledImage;
+    }
+
+    /**
+     * Changes the memory budget of the cache, evicting the least recently used images if they no longer fit.
+     *
+     * @param budgetBytes The maximum number of bytes the scaled images may take up together.
+     */
+    public synchronized void setBudgetBytes(long budgetBytes) {
+        this.budgetBytes = budgetBytes;
+        evictToBudget();
+    }
+
+    /**
+     * @return The maximum number of bytes the scaled images may take up together.
+     */
+    public synchronized long getBudgetBytes() {
+        return budgetBytes;
+    }
+
+    /**
+     * @return The number of bytes the cached scaled images currently take up.
+     */
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    /**
+     * @return The number of cached scaled images.
+     */
+    public synchronized int size() {
+        return scaledImages.size();
+    }
+
+    /**
+     * @return The number of requests that were answered from the cache.
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return The number of requests for which the image had to be scaled.
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return The number of scaled images that were evicted to stay within the memory budget.
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * @return A short summary of the state of the cache and its counters.
+     */
+    @Override
+    public synchronized String toString() {
+        return String.format("%d images, %d/%d KiB, %d hits, %d misses, %d evictions",
+                scaledImages.size(), usedBytes / 1024, budgetBytes / 1024, hits, misses, evictions);
+    }
+
+    /**
+     * Evicts the least recently used images until the cached images fit within the memory budget.
+     */
+    private void evictToBudget() {
+        Iterator<BufferedImage> iterator = scaledImages.values().iterator();
+        while (usedBytes > budgetBytes && iterator.hasNext()) {
+            usedBytes -= sizeOf(iterator.next());
+            iterator.remove();
+            ++evictions;
+        }
+    }
+
+    /**
+     * Scales an image with bilinear filtering. When shrinking, the image is halved in size step by step before
+     * scaling it to the final size, so that every source pixel still contributes to the result - just like the
+     * SCALE_SMOOTH filter of Image.getScaledInstance(), but a lot faster.
+     *
+     * @param image The image to scale.
+     * @param width The width to scale the image to.
+     * @param height The height to scale the image to.
+     * @return The scaled image, which is compatible with the default screen.
+     */
+    private static BufferedImage scale(BufferedImage image, int width, int height) {
+        width = Math.max(width, 1);
+        height = Math.max(height, 1);
+
+        BufferedImage scaledImage = image;
+        int currentWidth = image.getWidth();
+        int currentHeight = image.getHeight();
+        do {
+            currentWidth = currentWidth / 2 >= width ? currentWidth / 2 : width;
+            currentHeight = currentHeight / 2 >= height ? currentHeight / 2 : height;
+
+            BufferedImage step = createCompatibleImage(currentWidth, currentHeight);
+            Graphics2D g = step.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(scaledImage, 0, 0, currentWidth, currentHeight, null);
+            g.dispose();
+            scaledImage = step;
+        } while (currentWidth != width || currentHeight != height);
+
+        return scaledImage;
+    }
+
+    /**
+     * @param width The width of the image.
+     * @param height The height of the image.
+     * @return A new translucent image in the format of the default screen - or a plain ARGB image when running headless.
+     */
+    private static BufferedImage createCompatibleImage(int width, int height) {
+        if (GraphicsEnvironment.isHeadless())
+            return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+
+        GraphicsConfiguration configuration = GraphicsEnvironment.getLocalGraphicsEnvironment()
+                .getDefaultScreenDevice().getDefaultConfiguration();
+        return configuration.createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+    }
+
+    /**
+     * @param image An image.
+     * @return The approximate number of bytes taken up by the pixels of the image.
+     */
+    private static long sizeOf(BufferedImage image) {
+        int bitsPerPixel = image.getColorModel().getPixelSize();
+        return (long)image.getWidth() * image.getHeight() * Math.max(1, (bitsPerPixel + 7) / 8);
+    }
+
+    /**
+     * Identifies a scaled copy by its original image and its dimensions.
+     */
+    private static final class Key {
+
+        private final BufferedImage image;
+        private final int width;
+        private final int height;
+
+        Key(BufferedImage image, int width, int height) {
+            this.image = image;
+            this.width = width;
+            this.height = height;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key))
+                return false;
+            Key key = (Key)other;
+            return image == key.image && width == key.width && height == key.height;
+        }
+
+        @Override
+        public int hashCode() {
+            return (System.identityHashCode(image) * 31 + width) * 31 + height;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package view;
+
+import util.StartupTimer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @version 1.2
+ *
+ * The AssetPreloader decodes all card textures and opens all sound clips at startup, in parallel on a background
+ * executor, so that neither the first paint nor the first sound of the game has to wait on disk or decoding. The
+ * textures and clips end up in the caches of CardTextures and SoundPlayer, which still load any asset lazily if it
+ * wasn't preloaded yet - so the preload is purely an optimization. The textures are only decoded, not scaled, so the
+ * first paint still scales every texture it shows to the size of the cards.
+ *
+ * The readiness future completes once every asset was loaded (or failed to load). The textures and sounds also have
+ * readiness futures of their own, so that the game board can be shown as soon as the textures are ready, without
+ * waiting on the sounds. Nothing on the EDT ever blocks on the preload. The time the preload took is printed with the
+ * startup report, if it was requested.
+ *
+ * @see CardTextures
+ * @see SoundPlayer
+ * @see Panel
+ * @see StartupTimer
+ */
+public class AssetPreloader {
+
+    private static CompletableFuture<Void> readiness;
+    private static CompletableFuture<Void> textureReadiness;
+    private static volatile long loadTimeMillis = -1;
+
+    private AssetPreloader() {}
+
+    /**
+     * Starts preloading all textures and sounds on a background executor. The executor uses daemon threads so it never
+     * keeps the program alive, and is shut down once everything is loaded. Calling this more than once has no effect.
+     *
+     * @return The readiness future, which completes once all assets are loaded.
+     */
+    public static synchronized CompletableFuture<Void> start() {
+
+        if (readiness != null)
+            return readiness;
+
+        long startTime = System.nanoTime();
+        int threadCount = Math.max(1, Runtime.getRuntime().availableProcessors());
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount, runnable -> {
+            Thread thread = new Thread(runnable, "asset-preloader-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        StartupTimer.stageStarted(StartupTimer.Stage.TEXTURES);
+        StartupTimer.stageStarted(StartupTimer.Stage.SOUNDS);
+        List<CompletableFuture<Void>> textureLoads = new ArrayList<>();
+        for (String texture : CardTextures.getTextureFilenames())
+            textureLoads.add(CompletableFuture.runAsync(() -> CardTextures.preloadTexture(texture), executor));
+        List<CompletableFuture<Void>> soundLoads = new ArrayList<>();
+        for (String sound : SoundPlayer.SOUND_FILES)
+            soundLoads.add(CompletableFuture.runAsync(() -> SoundPlayer.preloadSound(sound), executor));
+
+        textureReadiness = allOf(textureLoads, StartupTimer.Stage.TEXTURES);
+        CompletableFuture<Void> soundReadiness = allOf(soundLoads, StartupTimer.Stage.SOUNDS);
+
+        int textureCount = textureLoads.size();
+        readiness = CompletableFuture.allOf(textureReadiness, soundReadiness).handle((result, error) -> {
+            executor.shutdown();
+            loadTimeMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+            if (StartupTimer.isReportRequested())
+                System.out.printf("Preloaded %d textures and %d sounds in %d ms on %d threads\n",
+                        textureCount, SoundPlayer.SOUND_FILES.length, loadTimeMillis, threadCount);
+            return null;
+        });
+        return readiness;
+    }
+
+    /**
+     * @return A future which completes once all textures are loaded, or a completed future if the preload was never
+     *         started.
+     */
+    public static synchronized CompletableFuture<Void> getTextureReadiness() {
+        return textureReadiness == null ? CompletableFuture.completedFuture(null) : textureReadiness;
+    }
+
+    /**
+     * Combines the loads of a kind of asset into a single future, which completes normally even if some loads failed,
+     * since those assets are simply loaded lazily later.
+     */
+    private static CompletableFuture<Void> allOf(List<CompletableFuture<Void>> loads, StartupTimer.Stage stage) {
+        return CompletableFuture.allOf(loads.toArray(new CompletableFuture<?>[0])).handle((result, error) -> {
+            StartupTimer.stageFinished(stage);
+            if (error != null)
+                System.err.println("Couldn't preload all " + stage + ": " + error.getLocalizedMessage());
+            return null;
+        });
+    }
+
+    /**
+     * @return The number of milliseconds it took to preload all assets, or -1 if the preload hasn't completed.
+     */
+    public static long getLoadTimeMillis() {
+        return loadTimeMillis;
+    }
+}
@@ -0,0 +1,266 @@
+package view;
+
+import javax.sound.sampled.*;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * @version 1.0
+ *
+ * A small software mixer which plays any number of overlapping sounds through a single SourceDataLine. The sounds are
+ * decoded to 16 bit stereo PCM in the mixer's FORMAT once with decode(), and are then mixed on a dedicated audio thread
+ * in chunks of CHUNK_FRAMES frames, which keeps the latency between a play request and the sound being heard low.
+ *
+ * Play requests are handed to the audio thread through a lock-free queue, so play() never blocks the calling thread -
+ * all blocking line writes happen on the audio thread. At most MAX_VOICES sounds play at the same time, if another
+ * sound is played then the voice that has been playing for the longest is cut off to make room for it. While no sound
+ * is playing, the audio thread is parked.
+ *
+ * @see SoundPlayer
+ * @see SourceDataLine
+ */
+class AudioMixer implements Runnable {
+
+    /**
+     * The format of the mixed audio - all sounds are converted to this format when decoded.
+     */
+    static final AudioFormat FORMAT = new AudioFormat(44100, 16, 2, true, false);
+
+    /**
+     * The maximum number of sounds that can play at the same time.
+     */
+    static final int MAX_VOICES = 8;
+
+    private static final int CHUNK_FRAMES = 256;
+    private static final int LINE_BUFFER_FRAMES = 4 * CHUNK_FRAMES;
+    private static final short[] STOP_ALL = new short[0];
+
+    private final Queue<short[]> requests = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean started = new AtomicBoolean();
+    private volatile Thread thread;
+    private volatile boolean unavailable;
+
+    // Only touched by the audio thread.
+    private final short[][] voices = new short[MAX_VOICES][];
+    private final int[] voicePositions = new int[MAX_VOICES];
+    private final int[] mixBuffer = new int[CHUNK_FRAMES * 2];
+    private int voiceCount;
+
+    /**
+     * Starts the audio thread and opens the audio line, if this wasn't done already. Returns immediately.
+     */
+    void start() {
+        if (started.compareAndSet(false, true)) {
+            Thread audioThread = new Thread(this, "audio-mixer");
+            audioThread.setDaemon(true);
+            audioThread.setPriority(Thread.MAX_PRIORITY);
+            thread = audioThread;
+            audioThread.start();
+        }
+    }
+
+    /**
+     * Requests a sound to be played, starting the audio thread if needed. Never blocks.
+     *
+     * @param samples The interleaved stereo samples of the sound, as returned by decode().
+     */
+    void play(short[] samples) {
+        if (unavailable)
+            return;
+        requests.offer(samples);
+        start();
+        LockSupport.unpark(thread);
+    }
+
+    /**
+     * Requests all playing sounds to be stopped. Never blocks.
+     */
+    void stopAll() {
+        if (!started.get() || unavailable)
+            return;
+        requests.offer(STOP_ALL);
+        LockSupport.unpark(thread);
+    }
+
+    /**
+     * The loop of the audio thread, which opens the line and then mixes and writes the playing voices to it for as long
+     * as the program runs. If the line can't be opened the mixer is disabled, and all further requests are ignored.
+     */
+    @Override
+    public void run() {
+
+        SourceDataLine line;
+        try {
+            line = AudioSystem.getSourceDataLine(FORMAT);
+            line.open(FORMAT, LINE_BUFFER_FRAMES * FORMAT.getFrameSize());
+        } catch (LineUnavailableException | IllegalArgumentException | SecurityException e) {
+            System.err.printf("Failed to open the audio line (%s) - sound will be disabled\n", e.getLocalizedMessage());
+            unavailable = true;
+            requests.clear();
+            return;
+        }
+
+        line.start();
+        byte[] output = new byte[CHUNK_FRAMES * FORMAT.getFrameSize()];
+        while (true) {
+            if (takeRequests()) {
+                line.stop();
+                line.flush();
+                line.start();
+            }
+
+            if (voiceCount == 0) {
+                LockSupport.park(this);
+                continue;
+            }
+
+            mix(output, CHUNK_FRAMES);
+            line.write(output, 0, output.length);
+        }
+    }
+
+    /**
+     * Takes all pending requests from the queue, starting the requested voices.
+     *
+     * @return Whether all voices were stopped by one of the requests.
+     */
+    boolean takeRequests() {
+        boolean stopped = false;
+        short[] samples;
+        while ((samples = requests.poll()) != null) {
+            if (samples == STOP_ALL) {
+                for (int i = 0; i < MAX_VOICES; ++i)
+                    voices[i] = null;
+                voiceCount = 0;
+                stopped = true;
+            } else {
+                addVoice(samples);
+            }
+        }
+        return stopped;
+    }
+
+    /**
+     * Starts playing a sound in a free voice. If all voices are taken, the voice that has played the longest is
+     * replaced.
+     *
+     * @param samples The interleaved stereo samples of the sound.
+     */
+    private void addVoice(short[] samples) {
+        int slot = -1;
+        for (int i = 0; i < MAX_VOICES; ++i) {
+            if (voices[i] == null) {
+                slot = i;
+                break;
+            }
+            if (slot == -1 || voicePositions[i] > voicePositions[slot])
+                slot = i;
+        }
+
+        if (voices[slot] == null)
+            ++voiceCount;
+        voices[slot] = samples;
+        voicePositions[slot] = 0;
+    }
+
+    /**
+     * Mixes the next frames of all playing voices into the output buffer, clipping the sum to 16 bits, and advances
+     * the voices. Voices that reach their end are freed.
+     *
+     * @param output The buffer to write the frames to, in the mixer's FORMAT.
+     * @param frames The number of frames to mix - at most CHUNK_FRAMES.
+     */
+    void mix(byte[] output, int frames) {
+
+        int sampleCount = frames * 2;
+        Arrays.fill(mixBuffer, 0, sampleCount, 0);
+
+        for (int v = 0; v < MAX_VOICES; ++v) {
+            short[] samples = voices[v];
+            if (samples == null)
+                continue;
+
+            int position = voicePositions[v];
+            int count = Math.min(sampleCount, samples.length - position);
+            for (int i = 0; i < count; ++i)
+                mixBuffer[i] += samples[position + i];
+
+            voicePositions[v] = position + count;
+            if (voicePositions[v] >= samples.length) {
+                voices[v] = null;
+                --voiceCount;
+            }
+        }
+
+        for (int i = 0; i < sampleCount; ++i) {
+            int sample = Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, mixBuffer[i]));
+            output[2 * i] = (byte)sample;
+            output[2 * i + 1] = (byte)(sample >> 8);
+        }
+    }
+
+    /**
+     * @return The number of sounds that are currently playing - only meaningful on the audio thread.
+     */
+    int getVoiceCount() {
+        return voiceCount;
+    }
+
+    /**
+     * Decodes a sound completely into interleaved stereo samples in the mixer's FORMAT. Mono sounds are played on both
+     * channels, and sounds with a different sample rate are resampled with linear interpolation.
+     *
+     * @param inputStream The stream of the sound to decode, in any PCM format supported by AudioSystem.
+     * @return The decoded samples.
+     * @throws IOException If the stream can't be read.
+     * @throws IllegalArgumentException If the stream can't be converted to 16 bit PCM.
+     */
+    static short[] decode(AudioInputStream inputStream) throws IOException {
+
+        AudioFormat sourceFormat = inputStream.getFormat();
+        int channels = sourceFormat.getChannels();
+        AudioFormat pcmFormat = new AudioFormat(sourceFormat.getSampleRate(), 16, channels, true, false);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (AudioInputStream pcmStream = AudioSystem.getAudioInputStream(pcmFormat, inputStream)) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = pcmStream.read(buffer)) != -1)
+                bytes.write(buffer, 0, read);
+        }
+
+        byte[] pcm = bytes.toByteArray();
+        int sourceFrames = pcm.length / (2 * channels);
+        double step = sourceFormat.getSampleRate() / FORMAT.getSampleRate();
+        int frames = (int)(sourceFrames / step);
+        short[] samples = new short[frames * 2];
+
+        for (int frame = 0; frame < frames; ++frame) {
+            double position = frame * step;
+            int index = (int)position;
+            double fraction = position - index;
+            int next = Math.min(index + 1, sourceFrames - 1);
+
+            for (int channel = 0; channel < 2; ++channel) {
+                int sourceChannel = Math.min(channel, channels - 1);
+                int a = sampleAt(pcm, index, sourceChannel, channels);
+                int b = sampleAt(pcm, next, sourceChannel, channels);
+                samples[2 * frame + channel] = (short)Math.round(a + (b - a) * fraction);
+            }
+        }
+        return samples;
+    }
+
+    /**
+     * @return The 16 bit little-endian sample of a channel at a frame in a PCM buffer.
+     */
+    private static int sampleAt(byte[] pcm, int frame, int channel, int channels) {
+        int offset = 2 * (frame * channels + channel);
+        return (pcm[offset] & 0xFF) | (pcm[offset + 1] << 8);
+    }
+}
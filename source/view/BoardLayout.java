@@ -3,12 +3,11 @@ package view;
 import controller.Board;
 import model.CaboGame;
 import model.Player;
-import model.card.Card;
 import model.card.DraggedCard;
 import model.turnphase.InitialPeekPhase;
 
 import java.awt.*;
-import java.util.List;
+import java.util.Arrays;
 import java.util.Observable;
 
 /**
@@ -16,7 +15,11 @@ import java.util.Observable;
  *
  * Stores the layout of the board for a CaboGame. This layout includes the player, deck, draw, and player areas - their
  * exact location and size on the screen, in pixels. It also includes the exact locations of all the players cards. This
- * view class observes the CaboGame and recalculates all of the areas when the game state changes.
+ * view class observes the CaboGame, and only recalculates the areas when they could actually change - which is when the
+ * dimensions of the layout change, or the number of cards in a player's hand changes.
+ *
+ * The areas handed out by the layout are its own Rectangles, which are updated in place, so they must not be modified
+ * by the caller.
  *
  * @see CaboGame
  * @see Panel
@@ -35,11 +38,11 @@ public class BoardLayout extends Observable {
 
     private final CaboGame game;
     private Dimension dimensions;
-    private Rectangle deckArea;
-    private Rectangle discardArea;
-    private Rectangle drawArea;
-    private Rectangle player1Area;
-    private Rectangle player2Area;
+    private final Rectangle deckArea;
+    private final Rectangle discardArea;
+    private final Rectangle drawArea;
+    private final Rectangle player1Area;
+    private final Rectangle player2Area;
     private Rectangle[] player1CardAreas;
     private Rectangle[] player2CardAreas;
     private DraggedCard draggedCard;
@@ -55,29 +58,45 @@ public class BoardLayout extends Observable {
         this.game = game;
         this.dimensions = new Dimension(1000, 1000);
         this.draggedCard = new DraggedCard(null);
-        game.addObserver((observable, message) -> recomputeAreas());
+        this.deckArea = new Rectangle();
+        this.discardArea = new Rectangle();
+        this.drawArea = new Rectangle();
+        this.player1Area = new Rectangle();
+        this.player2Area = new Rectangle();
+        this.player1CardAreas = new Rectangle[0];
+        this.player2CardAreas = new Rectangle[0];
+        game.addObserver((observable, message) -> gameChanged());
         recomputeAreas();
     }
 
     /**
-     * Computes and stores where all of the visual elements of the CaboGame need to be located based on the current
-     * state of the game. This method is called whenever the CaboGame signals an update.
+     * Called whenever the CaboGame signals an update. The areas only depend on the dimensions of the layout and the
+     * number of cards in each hand, so the card areas are only laid out again if the size of a hand changed - flipping
+     * or moving cards between the piles doesn't change any of the areas. The observers of the layout are notified in
+     * any case, since the game still needs to be repainted.
      *
-     * @see Board
      * @see Panel
      */
-    private void recomputeAreas() {
+    private void gameChanged() {
+        if (player1CardAreas.length != game.getPlayer1().getCards().size()
+                || player2CardAreas.length != game.getPlayer2().getCards().size())
+            layoutPlayerCards();
 
-        List<Card> player1Cards = game.getPlayer1().getCards();
-        List<Card> player2Cards = game.getPlayer2().getCards();
+        if (getDraggedCard().getCard() != null && game.getTurnPhase() instanceof InitialPeekPhase)
+            setDraggedCard(new DraggedCard(null));
 
-        deckArea = new Rectangle();
-        discardArea = new Rectangle();
-        drawArea = new Rectangle();
-        player1Area = new Rectangle();
-        player2Area = new Rectangle();
-        player1CardAreas = new Rectangle[player1Cards.size()];
-        player2CardAreas = new Rectangle[player2Cards.size()];
+        setChanged();
+        notifyObservers();
+    }
+
+    /**
+     * Computes where all of the visual elements of the CaboGame need to be located based on the current dimensions of
+     * the layout. The existing areas are updated in place. This method is called whenever the dimensions change.
+     *
+     * @see Board
+     * @see Panel
+     */
+    private void recomputeAreas() {
 
         double centerX = dimensions.width  / 2.0;
         double centerY = dimensions.height / 2.0;
@@ -109,35 +128,53 @@ public class BoardLayout extends Observable {
                 getWidth() - 2 * playerAreaHorizontalPadding,
                 (int)(1.2 * getCardHeight()));
 
-        if (player1Cards.size() > 0) {
-            double spacing = (player1Area.width - getCardWidth()) / (double)player1Cards.size();
-            double baseX = player1Area.x + spacing / 2.0;
-            double baseY = player1Area.getCenterY() - getCardHeight() / 2.0;
-            for (int i = 0; i < player1Cards.size(); ++i) {
-                int posX = (int)(baseX + i * spacing);
-                int posY = (int)(baseY);
-                player1CardAreas[i] = new Rectangle();
-                player1CardAreas[i].setBounds(posX, posY, (int) getCardWidth(), (int) getCardHeight());
-            }
+        layoutPlayerCards();
+
+        if (getDraggedCard().getCard() != null && game.getTurnPhase() instanceof InitialPeekPhase)
+            setDraggedCard(new DraggedCard(null));
+
+        setChanged();
+        notifyObservers();
+    }
+
+    /**
+     * Computes where each card in the hands of both players needs to be located, based on the player areas and the
+     * number of cards in each hand. The existing card areas are reused where possible.
+     */
+    private void layoutPlayerCards() {
+        player1CardAreas = layoutCards(player1Area, player1CardAreas, game.getPlayer1().getCards().size());
+        player2CardAreas = layoutCards(player2Area, player2CardAreas, game.getPlayer2().getCards().size());
+    }
+
+    /**
+     * Spreads a number of cards evenly over a player area.
+     *
+     * @param playerArea The player area to spread the cards over.
+     * @param cardAreas The previous card areas of the player, which are reused if possible.
+     * @param cardCount The number of cards in the player's hand.
+     * @return The card areas of the player, which is the given array if the number of cards didn't change.
+     */
+    private Rectangle[] layoutCards(Rectangle playerArea, Rectangle[] cardAreas, int cardCount) {
+
+        if (cardAreas.length != cardCount) {
+            int reusedCount = Math.min(cardAreas.length, cardCount);
+            cardAreas = Arrays.copyOf(cardAreas, cardCount);
+            for (int i = reusedCount; i < cardCount; ++i)
+                cardAreas[i] = new Rectangle();
         }
 
-        if (player2Cards.size() > 0) {
-            double spacing = (player2Area.width - getCardWidth()) / (double)player2Cards.size();
-            double baseX = player2Area.x + spacing / 2.0;
-            double baseY = player2Area.getCenterY() - getCardHeight() / 2.0;
-            for (int i = 0; i < player2Cards.size(); ++i) {
+        if (cardCount > 0) {
+            double spacing = (playerArea.width - getCardWidth()) / (double)cardCount;
+            double baseX = playerArea.x + spacing / 2.0;
+            double baseY = playerArea.getCenterY() - getCardHeight() / 2.0;
+            for (int i = 0; i < cardCount; ++i) {
                 int posX = (int)(baseX + i * spacing);
                 int posY = (int)(baseY);
-                player2CardAreas[i] = new Rectangle();
-                player2CardAreas[i].setBounds(posX, posY, (int) getCardWidth(), (int) getCardHeight());
+                cardAreas[i].setBounds(posX, posY, (int) getCardWidth(), (int) getCardHeight());
             }
         }
 
-        if (getDraggedCard().getCard() != null && game.getTurnPhase() instanceof InitialPeekPhase)
-            setDraggedCard(new DraggedCard(null));
-
-        setChanged();
-        notifyObservers();
+        return cardAreas;
     }
 
     /**
@@ -148,6 +185,18 @@ public class BoardLayout extends Observable {
         return draggedCard;
     }
 
+    /**
+     * @return The area covered by the DraggedCard of this layout on the screen, or null if no card is being dragged or
+     * it isn't known yet where the card is painted.
+     * @see DraggedCard
+     */
+    public Rectangle getDraggedCardBounds() {
+        if (draggedCard.getCard() == null || !draggedCard.isTethered())
+            return null;
+        return new Rectangle(draggedCard.getX(), draggedCard.getY(),
+                (int)Math.round(getCardWidth()), (int)Math.round(getCardHeight()));
+    }
+
     /**
      * Sets the DraggedCard of this layout.
      * @param card The new DraggedCard for this layout.
@@ -204,24 +253,24 @@ public class BoardLayout extends Observable {
     }
 
     /**
-     * @return The area where the deck of cards should be placed on the screen.
+     * @return The area where the deck of cards should be placed on the screen. The area must not be modified.
      */
     public Rectangle getDeckArea() {
-        return new Rectangle(deckArea);
+        return deckArea;
     }
 
     /**
-     * @return The area where the discard pile should be placed on the screen.
+     * @return The area where the discard pile should be placed on the screen. The area must not be modified.
      */
     public Rectangle getDiscardArea() {
-        return new Rectangle(discardArea);
+        return discardArea;
     }
 
     /**
-     * @return The area where the draw area should be placed on the screen.
+     * @return The area where the draw area should be placed on the screen. The area must not be modified.
      */
     public Rectangle getDrawArea() {
-        return new Rectangle(drawArea);
+        return drawArea;
     }
 
     /**
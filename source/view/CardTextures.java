@@ -2,39 +2,59 @@ package view;
 
 import model.card.Card;
 import model.card.CaboCard;
-import util.ResizableImage;
+import util.TextureCache;
 
 import java.awt.*;
+import java.awt.image.BufferedImage;
 import java.io.InputStream;
-import java.util.EnumMap;
 
 import java.io.IOException;
-import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.imageio.ImageIO;
 
 /**
- * @version 2.0
+ * @version 3.1
  *
  * Contains static methods to load and access card textures for Cabo - which consist of card front and back textures.
- * The textures are loaded in a lazy manner - they will be loaded from disk the first time they are requested. After
- * that the images will be cached inside of the CardTextures class and don't need to be loaded further.
+ * The AssetPreloader loads all textures up front at startup. Any texture that wasn't preloaded yet is loaded from disk
+ * the first time it is requested. After that the images will be cached inside of the CardTextures class and don't
+ * need to be loaded further.
+ *
+ * The scaled copies of the textures are kept in a TextureCache, which is bounded by a memory budget of 32 MiB by
+ * default. The budget can be changed with the "cabo.textureCacheMiB" system property.
+ *
+ * The textures can also be loaded up front with preloadTexture(), which can be called from any thread - so that the
+ * first paint showing a card doesn't have to decode its texture. The texture is decoded outside of the locks of the
+ * texture maps, so that textures can be decoded in parallel - two threads may then decode the same texture at once,
+ * in which case the texture that was stored first wins. Preloading doesn't scale the textures, since their size
+ * isn't known until the board is laid out.
  *
  * @see Card
- * @see ResizableImage
+ * @see TextureCache
+ * @see AssetPreloader
  */
 public class CardTextures {
 
-    private static final Map<String, ResizableImage> allTextures = new HashMap<>();
-    private static final EnumMap<CaboCard, ResizableImage> cardTextures = new EnumMap<>(CaboCard.class);
-    private static final ResizableImage cardBackTexture = loadTexture("CARD_BACK.png");
+    private static final long DEFAULT_CACHE_BUDGET_MIB = 32;
+
+    private static final TextureCache scaledTextures =
+            new TextureCache(Long.getLong("cabo.textureCacheMiB", DEFAULT_CACHE_BUDGET_MIB) * 1024 * 1024);
+    private static final String CARD_BACK_FILENAME = "CARD_BACK.png";
+
+    private static final Map<String, Optional<BufferedImage>> allTextures = new ConcurrentHashMap<>();
+    private static final Map<CaboCard, Optional<BufferedImage>> cardTextures = new ConcurrentHashMap<>();
+    private static final BufferedImage cardBackTexture = loadTexture(CARD_BACK_FILENAME);
 
     /**
      * This method tries to lookup the card texture in the internal texture cache of CardTextures - if an image
      * matching the given card exists in the cache it is immediately returned, otherwise the image is loaded from disk,
-     * placed into the cache, and then returned. The texture is internally stored in a ResizableImage, so it is scaled
-     * lazily to the desired dimensions as well before being returned.
+     * placed into the cache, and then returned. The texture is scaled to the desired dimensions through the TextureCache,
+     * so it is only rescaled if it wasn't recently requested at the same dimensions.
      *
      * If the texture cannot be loaded from disk for whatever reason - this method will instead return the back-face texture
      * of cards. If the back-face texture also couldn't load, then this method returns null.
@@ -44,21 +64,23 @@ public class CardTextures {
      * @param desiredHeight The height to which the fetched texture should be stretched.
      * @return The scaled version of the card front-texture matching the given card and dimensions. Or null if it couldn't be loaded.
      * @see Card
-     * @see ResizableImage
+     * @see TextureCache
      */
     public static Image getCardFrontTexture(Card card, int desiredWidth, int desiredHeight) {
-        CaboCard key = card.getBackingCard();
-        ResizableImage texture = cardTextures.getOrDefault(key, null);
-
-        if (texture == null) {
-            texture = loadTexture(key.value + "_" + key.discardAbility + ".png");
-            cardTextures.put(key, texture);
+        CaboCard caboCard = card.getBackingCard();
+        Optional<BufferedImage> loadedTexture = cardTextures.get(caboCard);
+        if (loadedTexture == null) {
+            Optional<BufferedImage> newTexture = Optional.ofNullable(loadTexture(getTextureFilename(caboCard)));
+            loadedTexture = cardTextures.putIfAbsent(caboCard, newTexture);
+            if (loadedTexture == null)
+                loadedTexture = newTexture;
         }
+        BufferedImage texture = loadedTexture.orElse(null);
 
         if (texture == null)
             return getCardBackTexture(desiredWidth, desiredHeight);
         else
-            return texture.getResized(desiredWidth, desiredHeight);
+            return scaledTextures.getScaled(texture, desiredWidth, desiredHeight);
     }
 
     /**
@@ -73,7 +95,37 @@ public class CardTextures {
         if (cardBackTexture == null)
             return null;
         else
-            return cardBackTexture.getResized(desiredWidth, desiredHeight);
+            return scaledTextures.getScaled(cardBackTexture, desiredWidth, desiredHeight);
+    }
+
+    /**
+     * @return The filenames of all the textures used by the game - the front-face textures of all CaboCards, and the
+     * back-face texture.
+     */
+    public static Set<String> getTextureFilenames() {
+        Set<String> filenames = new LinkedHashSet<>();
+        filenames.add(CARD_BACK_FILENAME);
+        for (CaboCard card : CaboCard.values())
+            filenames.add(getTextureFilename(card));
+        return filenames;
+    }
+
+    /**
+     * Loads a texture from disk into the internal cache, if it wasn't loaded already. This can be called from any
+     * thread.
+     *
+     * @param filename The name of a texture file inside of the texture resources directory.
+     */
+    public static void preloadTexture(String filename) {
+        loadTexture(filename);
+    }
+
+    /**
+     * @return The cache holding the scaled textures, which can be used to inspect its counters or change its budget.
+     * @see TextureCache
+     */
+    public static TextureCache getScaledTextureCache() {
+        return scaledTextures;
     }
 
     /**
@@ -86,25 +138,47 @@ public class CardTextures {
      * @param filename The name of a texture file inside of the texture resources directory from which to load the texture.
      * @return The loaded image if the load from disk was successful, or cardBackTexture if not.
      */
-    private static ResizableImage loadTexture(String filename) {
-        if (allTextures.containsKey(filename))
-            return allTextures.get(filename);
+    private static BufferedImage loadTexture(String filename) {
+        Optional<BufferedImage> texture = allTextures.get(filename);
+        if (texture == null) {
+            Optional<BufferedImage> decodedTexture = Optional.ofNullable(decodeTexture(filename));
+            texture = allTextures.putIfAbsent(filename, decodedTexture);
+            if (texture == null)
+                texture = decodedTexture;
+        }
+        return texture.orElse(null);
+    }
 
-        ResizableImage image;
+    /**
+     * Decodes a texture from the "textures" resources directory.
+     *
+     * @param filename The name of a texture file inside of the texture resources directory.
+     * @return The decoded image, or cardBackTexture if it couldn't be decoded.
+     */
+    private static BufferedImage decodeTexture(String filename) {
+        BufferedImage image;
         try {
             InputStream imageFile = Thread.currentThread().getContextClassLoader().getResourceAsStream(
                     "textures/" + filename);
             if (imageFile == null)
                 throw new IOException("Couldn't find textures/" + filename);
 
-            image = new ResizableImage(ImageIO.read(imageFile));
+            image = ImageIO.read(imageFile);
+            if (image == null)
+                throw new IOException("Couldn't decode textures/" + filename);
         } catch (IOException io) {
             System.err.println("Couldn't load texture: " + io.getLocalizedMessage());
             image = cardBackTexture;
         }
-
-        allTextures.put(filename, image);
         return image;
     }
 
+    /**
+     * @param card A CaboCard.
+     * @return The name of the texture file of the card's front-face, which depends on its value and discard ability.
+     */
+    private static String getTextureFilename(CaboCard card) {
+        return card.value + "_" + card.discardAbility + ".png";
+    }
+
 }
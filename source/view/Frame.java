@@ -1,20 +1,35 @@
 package view;
 
+import bot.IsmctsController;
+import controller.BotDriver;
 import controller.MenuBar;
 import controller.Board;
 import controller.CardDragger;
 import model.CaboGame;
+import util.AutoSaver;
 import util.CaboIO;
+import util.GameJournal;
+import util.StartupTimer;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
+import java.io.IOException;
 
 /**
- * @version 1.5
+ * @version 1.12
  *
- * The main JFrame class used for the Cabo card game application.
+ * The main JFrame class used for the Cabo card game application. The game is auto-saved in the background while it is
+ * played, and saved one last time when the frame is closed. Every action is also recorded in a GameJournal, so that
+ * the game can be recovered if the program crashes. The metrics of the auto-saves are printed on closing if the
+ * "cabo.reportSaveMetrics" system property is set to true.
+ *
+ * Player 2 can be switched to a computer player from the menu, whose moves are chosen by a BotDriver. The computer
+ * player searches with an IsmctsController on all available cores. Its moves are only printed if the
+ * "cabo.reportBotMoves" system property is set to true.
+ *
+ * A frame can be shown before its game is loaded, in which case it shows a PlaceholderPanel until showGame() is called.
  *
  * @see CaboGame
  * @see BoardLayout
@@ -22,10 +37,31 @@ import java.awt.event.WindowEvent;
  * @see Panel
  * @see MenuBar
  * @see CardDragger
+ * @see BotDriver
+ * @see AutoSaver
+ * @see GameJournal
+ * @see PlaceholderPanel
  * @see JFrame
  */
 public class Frame extends JFrame {
 
+    private final PlaceholderPanel placeholder = new PlaceholderPanel();
+
+    /**
+     * Initializes and shows a CaboFrame without a game, which shows a placeholder until showGame() is called.
+     */
+    public Frame() {
+        super("Cabo!");
+        setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        add(placeholder);
+        setMinimumSize(new Dimension(400, 400));
+        setPreferredSize(new Dimension(800, 800));
+        setResizable(true);
+        pack();
+        setLocationRelativeTo(null);
+        setVisible(true);
+    }
+
     /**
      * Initializes a CaboFrame with a given CaboGame. The frame creates a CaboBoardLayout from the game, a CaboBoard and
      * a CaboPanel from this layout. It also sets up a menu bar with buttons to control some aspects of the CaboGame.
@@ -33,28 +69,76 @@ public class Frame extends JFrame {
      * @param game game that is passed to the frame.
      */
     public Frame(CaboGame game) {
-        super("Cabo!");
-        setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-        setJMenuBar(new MenuBar(game));
+        this();
+        showGame(game);
+    }
+
+    /**
+     * Replaces the placeholder with the board of the given CaboGame, and starts saving it. This must only be called
+     * once, on the EDT.
+     *
+     * @param game The CaboGame to show.
+     */
+    public void showGame(CaboGame game) {
+        StartupTimer.stageStarted(StartupTimer.Stage.GAME_BOARD);
+        BotDriver botDriver = new BotDriver(game, BotDriver.DEFAULT_TIME_BUDGET_MILLIS);
+        IsmctsController computer = new IsmctsController(Runtime.getRuntime().availableProcessors(),
+                System.nanoTime(), Boolean.getBoolean("cabo.reportBotMoves"));
+        setJMenuBar(new MenuBar(game, botDriver, computer));
 
         BoardLayout layout = new BoardLayout(game);
         Board board = new Board(layout);
         Panel panel = new Panel(layout);
 
-        new CardDragger(game, board, panel);
+        new CardDragger(game, board, panel, botDriver);
+        AutoSaver autoSaver = new AutoSaver(game);
+        GameJournal journal = startJournal(game);
+        remove(placeholder);
         add(panel);
-        setMinimumSize(new Dimension(400, 400));
-        setPreferredSize(new Dimension(800, 800));
-        setResizable(true);
-        pack();
-        setLocationRelativeTo(null);
-        setVisible(true);
+        revalidate();
+        repaint();
 
         addWindowListener(new WindowAdapter() {
             @Override
             public void windowClosing(WindowEvent e) {
+                botDriver.close();
+                computer.close();
+                autoSaver.close();
                 CaboIO.saveCaboGame(game);
+                if (Boolean.getBoolean("cabo.reportSaveMetrics"))
+                    System.out.println("Auto-save metrics: " + CaboIO.getSaveMetrics());
+                closeJournal(journal);
             }
         });
     }
+
+    /**
+     * Starts recording the actions of the game in a new GameJournal.
+     *
+     * @param game The CaboGame whose actions to record.
+     * @return The started journal, or null if it couldn't be started - the game is then only auto-saved.
+     */
+    private static GameJournal startJournal(CaboGame game) {
+        try {
+            return GameJournal.start(game);
+        } catch (IOException e) {
+            System.err.println("Couldn't start game journal: " + e.getLocalizedMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Closes the GameJournal after the final save, so that it isn't replayed on the next run.
+     *
+     * @param journal The journal to close, may be null.
+     */
+    private static void closeJournal(GameJournal journal) {
+        if (journal == null)
+            return;
+        try {
+            journal.close();
+        } catch (IOException e) {
+            System.err.println("Couldn't close game journal: " + e.getLocalizedMessage());
+        }
+    }
 }
@@ -8,30 +8,49 @@ import model.CaboGame;
 import model.card.DraggedCard;
 import model.card.Deck;
 import model.turnphase.InitialPeekPhase;
+import util.StartupTimer;
 
 import javax.swing.*;
 
 import java.awt.*;
 import java.awt.geom.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.VolatileImage;
 
 /**
- * @version 5.0
+ * @version 5.4
  *
  * This panel is used to display the state of the CaboGame to the user. The panel observes the CaboBoardLayout for
  * a particular CaboGame, and redraws itself when the layout changes.
  *
+ * The panel is painted in two layers. The static layer holds everything that only depends on the size of the panel -
+ * the background, the deck, discard, draw and player areas, and their labels. It is rendered once into an offscreen
+ * VolatileImage, or a BufferedImage if no VolatileImage can be created, and only rendered again when the panel is
+ * resized. Every paint then copies the static layer, and paints the cards and the game state text on top of it.
+ *
+ * When the game is started through Main, the panel is only shown once the AssetPreloader has finished loading the
+ * textures, so the first frame doesn't decode the textures one by one on the EDT - and never waits on the sounds. Once
+ * it is painted, the game is interactive, which is reported to the StartupTimer.
+ *
  * @see CaboGame
  * @see BoardLayout
  * @see CardTextures
  */
 public class Panel extends JPanel {
 
-    private static final Color BACKGROUND_COLOR = new Color(47, 48, 65);
+    static final Color BACKGROUND_COLOR = new Color(47, 48, 65);
     private static final Color CARD_AREA_COLOR = new Color(54, 55, 77);
     private static final Color TEXT_COLOR = new Color(255, 243, 215);
-    private static final Color LABEL_COLOR = new Color(116, 113, 114);
+    static final Color LABEL_COLOR = new Color(116, 113, 114);
 
     private final BoardLayout layout;
+    private final PileSprite deckSprite = new PileSprite();
+    private final PileSprite discardPileSprite = new PileSprite();
+    private VolatileImage volatileStaticLayer;
+    private BufferedImage bufferedStaticLayer;
+    private int staticLayerWidth;
+    private int staticLayerHeight;
+    private boolean painted;
 
     /**
      * Initializes a CaboPanel with a CaboBoardLayout that it will observe, and use to tell where to paint particular
@@ -52,7 +71,8 @@ public class Panel extends JPanel {
 
     /**
      * Repaints the surface of this CaboPanel with up-to-date information from the CaboBoardLayout. This will paint the
-     * game state indicators, discard pile, deck, draw area, player area, as well as the movable card.
+     * static layer, and on top of it the game state indicators, discard pile, deck, draw area, player cards, as well as
+     * the movable card.
      *
      * @param graphics The graphics object used to paint this panel.
      * @see BoardLayout
@@ -60,7 +80,6 @@ public class Panel extends JPanel {
      */
     @Override
     public void paintComponent(Graphics graphics) {
-        super.paintComponent(graphics);
 
         if (layout.getWidth() != getWidth() || layout.getHeight() != getHeight()) {
             layout.setDimensions(getWidth(), getHeight());
@@ -69,6 +88,9 @@ public class Panel extends JPanel {
         CaboGame game = layout.getGame();
         Graphics2D g = (Graphics2D)graphics;
 
+        if (!paintStaticLayer(g))
+            super.paintComponent(graphics);
+
         setupPainting(g);
         paintGameStateIndicator(g);
         paintDiscardPile(g);
@@ -79,6 +101,109 @@ public class Panel extends JPanel {
 
         // The movable card is painted if it exists. It is painted after everything else, so it always appears on top.
         paintDraggedCard(g);
+
+        if (!painted) {
+            painted = true;
+            StartupTimer.stageFinished(StartupTimer.Stage.GAME_BOARD);
+            StartupTimer.markInteractive();
+        }
+    }
+
+    /**
+     * Copies the static layer onto the panel, rendering it first if the panel was resized or the contents of the
+     * VolatileImage were lost.
+     *
+     * @param g The Graphics object used to paint the panel.
+     * @return Whether the static layer was painted - it can't be if the panel has no area.
+     */
+    private boolean paintStaticLayer(Graphics2D g) {
+        int width = getWidth();
+        int height = getHeight();
+        if (width <= 0 || height <= 0)
+            return false;
+
+        if (width != staticLayerWidth || height != staticLayerHeight) {
+            staticLayerWidth = width;
+            staticLayerHeight = height;
+            createStaticLayer();
+        }
+
+        if (volatileStaticLayer == null) {
+            g.drawImage(bufferedStaticLayer, 0, 0, null);
+            return true;
+        }
+
+        do {
+            int status = volatileStaticLayer.validate(getGraphicsConfiguration());
+            if (status == VolatileImage.IMAGE_INCOMPATIBLE) {
+                createStaticLayer();
+                // The new layer may have fallen back to a BufferedImage, which can't lose its contents.
+                if (volatileStaticLayer == null) {
+                    g.drawImage(bufferedStaticLayer, 0, 0, null);
+                    return true;
+                }
+            } else if (status == VolatileImage.IMAGE_RESTORED)
+                renderStaticLayer(volatileStaticLayer.createGraphics());
+            g.drawImage(volatileStaticLayer, 0, 0, null);
+        } while (volatileStaticLayer.contentsLost());
+        return true;
+    }
+
+    /**
+     * Creates a new image for the static layer in the size of the panel, and renders the static layer into it. A
+     * VolatileImage is used if possible, which can live in video memory - otherwise a BufferedImage is used.
+     */
+    private void createStaticLayer() {
+        if (volatileStaticLayer != null)
+            volatileStaticLayer.flush();
+        volatileStaticLayer = null;
+        bufferedStaticLayer = null;
+
+        if (!GraphicsEnvironment.isHeadless())
+            volatileStaticLayer = createVolatileImage(staticLayerWidth, staticLayerHeight);
+
+        if (volatileStaticLayer != null) {
+            renderStaticLayer(volatileStaticLayer.createGraphics());
+        } else {
+            bufferedStaticLayer = new BufferedImage(staticLayerWidth, staticLayerHeight, BufferedImage.TYPE_INT_RGB);
+            renderStaticLayer(bufferedStaticLayer.createGraphics());
+        }
+    }
+
+    /**
+     * Renders the static layer - the background, the deck, discard, draw and player areas, and the labels of the
+     * deck, discard and draw areas.
+     *
+     * @param g A Graphics object of the static layer image, which is disposed afterwards.
+     */
+    private void renderStaticLayer(Graphics2D g) {
+        g.setColor(BACKGROUND_COLOR);
+        g.fillRect(0, 0, staticLayerWidth, staticLayerHeight);
+
+        setupPainting(g);
+        paintCardArea(g, layout.getDiscardArea(), "Discard");
+        paintCardArea(g, layout.getDeckArea(), "Deck");
+        paintCardArea(g, layout.getDrawArea(), "Draw");
+        paintCardArea(g, layout.getPlayerArea(layout.getGame().getPlayer1()), null);
+        paintCardArea(g, layout.getPlayerArea(layout.getGame().getPlayer2()), null);
+        g.dispose();
+    }
+
+    /**
+     * Paints the rounded background of an area where cards are placed, and its label.
+     *
+     * @param g The Graphics object used to paint the area.
+     * @param area The area to paint.
+     * @param label The label to paint below the area, or null if the area has no label.
+     */
+    private void paintCardArea(Graphics2D g, Rectangle area, String label) {
+        g.setColor(CARD_AREA_COLOR);
+        g.fillRoundRect(area.x, area.y, area.width, area.height, 15, 15);
+
+        if (label != null) {
+            g.setColor(LABEL_COLOR);
+            paintCenteredString(g, label, area.getCenterX(), area.y + area.height + layout.getTextOffset());
+        }
     }
 
     /**
@@ -98,7 +223,9 @@ public class Panel extends JPanel {
     }
 
     /**
-     * Paints a given card immediately using an appropriate texture, even if it's a DraggedCard.
+     * Paints a given card immediately using an appropriate texture, even if it's a DraggedCard. Cards that lie
+     * completely outside of the area being repainted are skipped, so repainting the region around a dragged card
+     * doesn't touch any of the other card textures.
      *
      * @param g The Graphics object used to paint the Card.
      * @param x The position of left-most pixel where to paint the Card.
@@ -113,6 +240,8 @@ public class Panel extends JPanel {
 
         int cardW = (int)Math.round(layout.getCardWidth());
         int cardH = (int)Math.round(layout.getCardHeight());
+        if (!g.hitClip(x, y, cardW, cardH))
+            return;
 
         Image cardImage;
         if (card.isFaceUp())
@@ -150,12 +279,13 @@ public class Panel extends JPanel {
      * Paint a given list of cards in an efficient and nice looking manner.
      *
      * @param g The Graphics object used to paint the Cards.
+     * @param sprite The sprite used to paint the edges of this particular pile.
      * @param x The position of the left-most pixel in the card pile's area.
      * @param y The position of the top-most pixel in the card pile's area.
      * @param cards The pile of Cards which to paint.
      * @see Card
      */
-    private void paintCardPile(Graphics2D g, double x, double y, java.util.List<Card> cards) {
+    private void paintCardPile(Graphics2D g, PileSprite sprite, double x, double y, java.util.List<Card> cards) {
 
         if (cards.isEmpty())
             return;
@@ -169,15 +299,10 @@ public class Panel extends JPanel {
         // It also actually ends up looking worse because of aliasing, because the card spacing is not
         // an integer.
 
-        boolean useLightGray = false;
-        for (int scanLine = firstY; scanLine >= lastY; --scanLine) {
-            if (useLightGray)
-                g.setColor(new Color(104, 65, 25));
-            else
-                g.setColor(new Color(50, 50, 50));
-            useLightGray = !useLightGray;
-            g.drawLine(cardX, scanLine, cardX + (int)(layout.getCardWidth() - 0.5), scanLine);
-        }
+        // The lines are pre-rendered into a sprite, so they only cost a single blit.
+
+        int lineWidth = (int)(layout.getCardWidth() - 0.5) + 1;
+        sprite.paint(g, cardX, firstY, lineWidth, firstY - lastY + 1);
 
         //NOTE(Boris): The last *2* cards are drawn out fully. The first will obviously always be visible
         // but the second one will also be visible if the player exposes it by dragging the top card.
@@ -228,7 +353,7 @@ public class Panel extends JPanel {
     }
 
     /**
-     * Paints the DiscardPile of the CaboGame.
+     * Paints the cards of the DiscardPile of the CaboGame.
      *
      * @param g Graphics object used to paint the DiscardPile.
      * @see DiscardPile
@@ -236,23 +361,16 @@ public class Panel extends JPanel {
     private void paintDiscardPile(Graphics2D g) {
         Rectangle discardArea = layout.getDiscardArea();
 
-        g.setColor(CARD_AREA_COLOR);
-        g.fillRoundRect(discardArea.x, discardArea.y, discardArea.width, discardArea.height, 15, 15);
-
-        g.setColor(LABEL_COLOR);
-        double textOffset = layout.getTextOffset();
-        paintCenteredString(g, "Discard", discardArea.getCenterX(), discardArea.y + discardArea.height + textOffset);
-
         double cardWidth = layout.getCardWidth();
         double cardHeight = layout.getCardHeight();
         double baseX = discardArea.getCenterX() - cardWidth / 2;
         double baseY = discardArea.getCenterY() - cardHeight / 2;
         DiscardPile discardPile = layout.getGame().getDiscardPile();
-        paintCardPile(g, baseX, baseY, discardPile.asList());
+        paintCardPile(g, discardPileSprite, baseX, baseY, discardPile.asList());
     }
 
     /**
-     * Paints the Deck of the CaboGame.
+     * Paints the cards of the Deck of the CaboGame.
      *
      * @param g Graphics object used to paint the deck.
      * @see Deck
@@ -260,36 +378,22 @@ public class Panel extends JPanel {
     private void paintDeck(Graphics2D g) {
         Rectangle deckArea = layout.getDeckArea();
 
-        g.setColor(CARD_AREA_COLOR);
-        g.fillRoundRect(deckArea.x, deckArea.y, deckArea.width, deckArea.height, 15, 15);
-
-        g.setColor(LABEL_COLOR);
-        double textOffset = layout.getTextOffset();
-        paintCenteredString(g, "Deck", deckArea.getCenterX(), deckArea.y + deckArea.height + textOffset);
-
         double cardWidth = layout.getCardWidth();
         double cardHeight = layout.getCardHeight();
         double baseX = deckArea.getCenterX() - cardWidth / 2;
         double baseY = deckArea.getCenterY() - cardHeight / 2;
         Deck deck = layout.getGame().getDeck();
-        paintCardPile(g, baseX, baseY, deck.asList());
+        paintCardPile(g, deckSprite, baseX, baseY, deck.asList());
     }
 
     /**
-     * Paints the draw area of the CaboGame.
+     * Paints the drawn card in the draw area of the CaboGame.
      *
      * @param g Graphics object used to paint the draw area.
      */
     private void paintDrawArea(Graphics2D g) {
         Rectangle drawArea = layout.getDrawArea();
 
-        g.setColor(CARD_AREA_COLOR);
-        g.fillRoundRect(drawArea.x, drawArea.y, drawArea.width, drawArea.height, 15, 15);
-
-        double textOffset = layout.getTextOffset();
-        g.setColor(LABEL_COLOR);
-        paintCenteredString(g, "Draw", drawArea.getCenterX(), drawArea.y + drawArea.height + textOffset);
-
         double cardWidth = layout.getCardWidth();
         double cardHeight = layout.getCardHeight();
         double baseX = Math.round(drawArea.getCenterX() - cardWidth / 2);
@@ -299,7 +403,7 @@ public class Panel extends JPanel {
     }
 
     /**
-     * Paint the Player area of the given Player.
+     * Paint the cards in the Player area of the given Player, and the description of the turn phase if it's their turn.
      *
      * @param g Graphics object used to paint the player area.
      * @param player Player whose area to paint.
@@ -312,9 +416,6 @@ public class Panel extends JPanel {
         Rectangle[] cardAreas = layout.getPlayerCardAreas(player);
         java.util.List<Card> cards = player.getCards();
 
-        g.setColor(CARD_AREA_COLOR);
-        g.fillRoundRect(playerArea.x, playerArea.y, playerArea.width, playerArea.height, 15, 15);
-
         for (int i = 0; i < cards.size(); ++i) {
             Card card = cards.get(i);
             Rectangle cardArea = cardAreas[i];
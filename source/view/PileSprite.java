@@ -0,0 +1,67 @@
+package view;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/**
+ * @version 1.0
+ *
+ * A pre-rendered image of the edges of a pile of cards, such as the deck or the discard pile. The edges are drawn as
+ * alternating dark and light lines - one line per pixel of pile height. Instead of drawing all of these lines on every
+ * paint, they are drawn once into an image which is then painted with a single blit. The image is only drawn again when
+ * the width of the cards or the height of the pile changes.
+ *
+ * @see Panel
+ */
+class PileSprite {
+
+    private static final Color DARK_EDGE_COLOR = new Color(50, 50, 50);
+    private static final Color LIGHT_EDGE_COLOR = new Color(104, 65, 25);
+
+    private BufferedImage image;
+    private int width;
+    private int lineCount;
+
+    /**
+     * Paints the edges of a pile of cards. The bottom-most line is dark, and the lines alternate upwards from there.
+     *
+     * @param g The Graphics object used to paint the pile.
+     * @param x The position of the left-most pixel of the lines.
+     * @param bottomY The position of the bottom-most line.
+     * @param width The width of the lines in pixels.
+     * @param lineCount The number of lines to paint.
+     */
+    void paint(Graphics2D g, int x, int bottomY, int width, int lineCount) {
+        if (width <= 0 || lineCount <= 0)
+            return;
+
+        if (image == null || this.width != width || this.lineCount != lineCount)
+            render(g, width, lineCount);
+
+        g.drawImage(image, x, bottomY - lineCount + 1, null);
+    }
+
+    /**
+     * Draws the lines into a new image, using the same rendering hints as the Graphics object the image will be
+     * painted with - so that the result looks exactly the same as drawing the lines directly.
+     *
+     * @param target The Graphics object the image will be painted with.
+     * @param width The width of the lines in pixels.
+     * @param lineCount The number of lines to draw.
+     */
+    private void render(Graphics2D target, int width, int lineCount) {
+        this.width = width;
+        this.lineCount = lineCount;
+        image = new BufferedImage(width, lineCount, BufferedImage.TYPE_INT_ARGB);
+
+        Graphics2D g = image.createGraphics();
+        g.setRenderingHints(target.getRenderingHints());
+        boolean useLightColor = false;
+        for (int line = lineCount - 1; line >= 0; --line) {
+            g.setColor(useLightColor ? LIGHT_EDGE_COLOR : DARK_EDGE_COLOR);
+            useLightColor = !useLightColor;
+            g.drawLine(0, line, width - 1, line);
+        }
+        g.dispose();
+    }
+}
@@ -0,0 +1,48 @@
+package view;
+
+import util.StartupTimer;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.geom.Rectangle2D;
+
+/**
+ * @version 1.0
+ *
+ * The panel shown by the Frame while the game is still being loaded. It only paints the background of the board and a
+ * loading message, so that the window can appear before the saved game and the textures are available.
+ *
+ * @see Frame
+ * @see Panel
+ */
+class PlaceholderPanel extends JPanel {
+
+    private static final long serialVersionUID = 42L;
+
+    private boolean painted;
+
+    PlaceholderPanel() {
+        setBackground(Panel.BACKGROUND_COLOR);
+        setOpaque(true);
+    }
+
+    @Override
+    public void paintComponent(Graphics graphics) {
+        super.paintComponent(graphics);
+
+        Graphics2D g = (Graphics2D)graphics;
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g.setFont(new Font(Font.SERIF, Font.PLAIN, Math.max(12, Math.min(getWidth(), getHeight()) / 30)));
+        g.setColor(Panel.LABEL_COLOR);
+
+        String message = "Loading...";
+        Rectangle2D bounds = g.getFontMetrics().getStringBounds(message, g);
+        g.drawString(message, (int)Math.round((getWidth() - bounds.getWidth()) / 2),
+                (int)Math.round((getHeight() - bounds.getHeight()) / 2));
+
+        if (!painted) {
+            painted = true;
+            StartupTimer.stageFinished(StartupTimer.Stage.PLACEHOLDER_FRAME);
+        }
+    }
+}
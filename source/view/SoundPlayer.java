@@ -3,44 +3,67 @@ package view;
 import javax.sound.sampled.*;
 import java.io.IOException;
 import java.net.URL;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * @version 1.2
+ * @version 2.0
  *
- * The SoundPlayer plays sounds from the "sounds" resources folder. It also caches the sound clips in a map for faster
- * access. The sound output can be toggled on and off if needed.
+ * The SoundPlayer plays sounds from the "sounds" resources folder. The sounds are decoded to PCM once and cached in a
+ * map, and are played through an AudioMixer - so the same sound can overlap with itself, and playing a sound never
+ * blocks the calling thread. The sound output can be toggled on and off if needed. All the sounds of the game can be
+ * loaded up front with preloadSound() from any thread, so that playing a sound for the first time doesn't cause a
+ * hitch.
  *
- * @see Clip
+ * @see AudioMixer
+ * @see AssetPreloader
  */
 public class SoundPlayer {
 
-    private static final Map<String, Clip> soundClips = new HashMap<>();
+    /**
+     * The filenames of all the sounds played by the game.
+     */
+    static final String[] SOUND_FILES = { "deal.wav", "flip.wav", "shuffle.wav" };
+
+    private static final Map<String, Optional<short[]>> sounds = new ConcurrentHashMap<>();
+    private static final AudioMixer mixer = new AudioMixer();
     private static boolean soundIsOn = true;
 
     /**
      * Plays a sound from the given filename - if the sound is toggled on. The requested sound is looked up in an
      * internal cache to avoid loading sounds from disk every time a sound is played. If the cache does not contain the
      * sound, the sound is loaded from disk and then played. If the sound could not be loaded from disk for whatever
-     * reason, that particular sound clip will be unavailable for the rest of the program run. If the requested sound
-     * is already playing - then it is stopped and reset before being started again.
+     * reason, that particular sound will be unavailable for the rest of the program run. If the requested sound is
+     * already playing, then it keeps playing and the new one overlaps it.
      *
-     * @param filename The filename of the sound clip to play - must be located in the "sounds" resources directory.
+     * @param filename The filename of the sound to play - must be located in the "sounds" resources directory.
      */
     public static void playSound(String filename) {
         if (!soundIsOn)
             return;
 
-        if (!soundClips.containsKey(filename))
-            soundClips.put(filename, loadSoundClip("sounds/" + filename));
+        getSound(filename).ifPresent(mixer::play);
+    }
 
-        Clip soundClip = soundClips.get(filename);
-        if (soundClip != null) {
-            soundClip.stop();
-            soundClip.setMicrosecondPosition(0);
-            soundClip.start();
-        }
+    /**
+     * Decodes a sound without playing it, if it wasn't loaded already, and starts up the AudioMixer. This can be
+     * called from any thread.
+     *
+     * @param filename The filename of the sound to load - must be located in the "sounds" resources directory.
+     */
+    public static void preloadSound(String filename) {
+        getSound(filename);
+        mixer.start();
+    }
+
+    /**
+     * @param filename The filename of the sound - must be located in the "sounds" resources directory.
+     * @return The decoded sound from the cache, which is loaded from disk if it isn't cached yet. Empty if it couldn't
+     * be loaded.
+     */
+    private static Optional<short[]> getSound(String filename) {
+        return sounds.computeIfAbsent(filename, name -> Optional.ofNullable(loadSound("sounds/" + name)));
     }
 
     /**
@@ -51,44 +74,35 @@ public class SoundPlayer {
     }
 
     /**
-     * Toggles the sound on/off depending on passed value. If the sound is turned off - all currently playing sound
-     * clips are stopped and further calls to playSound() will do nothing until the sound is turned on again.
+     * Toggles the sound on/off depending on passed value. If the sound is turned off - all currently playing sounds
+     * are stopped and further calls to playSound() will do nothing until the sound is turned on again.
      *
      * @param value Whether to turn sounds on or off.
      */
     public static void setSoundIsOn(boolean value) {
         soundIsOn = value;
         if (!soundIsOn)
-            stopAllSoundClips();
+            mixer.stopAll();
     }
 
     /**
-     * Loads a sound clip from a given file and returns the clip if it loaded successfully.
+     * Loads a sound from a given file and decodes it for the AudioMixer.
      *
-     * @param filename The name of the file from which to load the sound Clip from.
-     * @return The loaded Clip if loading from disk was successful, or null if not.
+     * @param filename The name of the file from which to load the sound from.
+     * @return The decoded sound if loading from disk was successful, or null if not.
      */
-    private static Clip loadSoundClip(String filename) {
+    private static short[] loadSound(String filename) {
         try {
             URL soundFile = Thread.currentThread().getContextClassLoader().getResource(filename);
             if (soundFile == null)
                 throw new IOException("Couldn't find " + filename);
 
-            AudioInputStream inputStream = AudioSystem.getAudioInputStream(soundFile);
-            Clip clip = AudioSystem.getClip();
-            clip.open(inputStream);
-            return clip;
-        } catch (UnsupportedAudioFileException | IOException | LineUnavailableException e) {
+            try (AudioInputStream inputStream = AudioSystem.getAudioInputStream(soundFile)) {
+                return AudioMixer.decode(inputStream);
+            }
+        } catch (UnsupportedAudioFileException | IOException | IllegalArgumentException e) {
             System.err.printf("Failed to load sound (%s) - this sound will be disabled\n", e.getLocalizedMessage());
             return null;
         }
     }
-
-    /**
-     * Stops all active SoundClips from playing.
-     */
-    private static void stopAllSoundClips() {
-        for (Clip clip : soundClips.values())
-            clip.stop();
-    }
 }
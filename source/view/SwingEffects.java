@@ -0,0 +1,59 @@
+package view;
+
+import model.CaboGame;
+import model.GameEffects;
+import model.Player;
+import model.card.Card;
+import model.card.Deck;
+
+import javax.swing.*;
+
+/**
+ * @version 1.0
+ *
+ * The GameEffects used by the GUI. Card flips and shuffles are played through the SoundPlayer, and the end of a game
+ * is announced with a message dialog, after which the game is immediately reset.
+ *
+ * @see GameEffects
+ * @see SoundPlayer
+ */
+public class SwingEffects implements GameEffects {
+
+    /**
+     * Plays the flip sound.
+     *
+     * @param card The Card that was flipped.
+     */
+    @Override
+    public void cardFlipped(Card card) {
+        SoundPlayer.playSound("flip.wav");
+    }
+
+    /**
+     * Plays the shuffle sound.
+     *
+     * @param deck The Deck that was shuffled.
+     */
+    @Override
+    public void deckShuffled(Deck deck) {
+        SoundPlayer.playSound("shuffle.wav");
+    }
+
+    /**
+     * Displays a message about which player won the game, and then resets the game.
+     *
+     * @param game The CaboGame that ended.
+     */
+    @Override
+    public void gameEnded(CaboGame game) {
+
+        Player winner = game.getWinner();
+        String title = winner == null ? "Tie!" : winner + " Won!";
+
+        JOptionPane.showMessageDialog(null,
+                String.format("Player 1: %d\nPlayer 2: %d\n", game.getPlayer1().getPoints(), game.getPlayer2().getPoints()),
+                title, JOptionPane.INFORMATION_MESSAGE);
+
+        game.reset();
+    }
+}
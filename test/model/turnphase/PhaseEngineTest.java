@@ -0,0 +1,85 @@
+package model.turnphase;
+
+import model.CaboGame;
+import model.CompactGameState;
+import org.junit.Test;
+
+import java.util.SplittableRandom;
+
+import static model.CompactGameState.*;
+import static org.junit.Assert.*;
+
+/**
+ * @version 1.0
+ *
+ * Checks that a PhaseEngine follows exactly the same rules as the TurnPhase classes, by playing random legal moves on
+ * a PhaseEngine and a CaboGame in lockstep and comparing their states after every move. The two shuffle the discard
+ * pile back into the deck with different random sources, so after a shuffle only the cards in the deck are compared
+ * regardless of their order, and the engine then continues from the order of the CaboGame.
+ *
+ * After every move, the hash the CaboGame kept up to date is also compared with the hash of the same state restored
+ * into a fresh CaboGame, which hashes all its cards from scratch.
+ *
+ * @see PhaseEngine
+ * @see CaboGame#playMove(int)
+ * @see CaboGame#getHash()
+ */
+public class PhaseEngineTest {
+
+    private static final int GAMES = 2000;
+    private static final int MAX_MOVES = 2000;
+
+    @Test
+    public void playsLikeCaboGame() {
+        SplittableRandom random = new SplittableRandom(7);
+        int[] moves = new int[Move.MAX_MOVES];
+        long playedMoves = 0;
+        int shuffles = 0;
+
+        for (int game = 0; game < GAMES; ++game) {
+            CaboGame cabo = new CaboGame(random.nextLong());
+            CompactGameState state = CompactGameState.of(cabo);
+            PhaseEngine engine = new PhaseEngine(state, new SplittableRandom(game));
+
+            for (int i = 0; i < MAX_MOVES && !state.isOver(); ++i) {
+                int moveCount = engine.getLegalMoves(moves);
+                assertTrue("no legal moves in game " + game, moveCount > 0);
+                int move = moves[random.nextInt(moveCount)];
+                int discardedCards = state.size(DISCARD_PILE);
+
+                engine.play(move);
+                cabo.playMove(move);
+                ++playedMoves;
+
+                CompactGameState expected = CompactGameState.of(cabo);
+                assertEquals("hash after " + Move.toString(move) + " in game " + game + " move " + i,
+                        expected.toCaboGame().getHash(), cabo.getHash());
+                if (expected.equals(state))
+                    continue;
+
+                String message = "state after " + Move.toString(move) + " in game " + game + " move " + i;
+                assertTrue(message, state.size(DISCARD_PILE) < discardedCards);
+                assertEquals(message, sortedDeck(expected), sortedDeck(state));
+                state.copyFrom(expected);
+                ++shuffles;
+            }
+            assertEquals("game " + game + " ended", CompactGameState.of(cabo), state);
+        }
+
+        assertTrue("only " + playedMoves + " moves were played", playedMoves > GAMES * 10L);
+        assertTrue("the discard pile was never shuffled into the deck", shuffles > 0);
+    }
+
+    /**
+     * @return A copy of the state with the cards in the deck sorted, so that states which only differ in the order of
+     *         the deck are equal.
+     */
+    private static CompactGameState sortedDeck(CompactGameState state) {
+        CompactGameState sorted = new CompactGameState(state);
+        int size = sorted.size(DECK);
+        for (int i = 1; i < size; ++i)
+            for (int j = i; j > 0 && sorted.cardAt(DECK, j - 1) > sorted.cardAt(DECK, j); --j)
+                sorted.swapCards(DECK, j - 1, DECK, j);
+        return sorted;
+    }
+}
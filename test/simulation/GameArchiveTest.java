@@ -0,0 +1,137 @@
+package simulation;
+
+import model.CompactGameState;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+/**
+ * @version 1.0
+ *
+ * Checks that games written to a GameArchive by a SelfPlaySimulator can be read back - every archived game replays
+ * from its seed and moves into the outcome that was recorded for it, scanning the archive in parallel adds up to the
+ * same report as visiting it in order and as the simulator's own report - and that broken archives are rejected.
+ *
+ * @see GameArchive
+ * @see GameArchiveWriter
+ * @see ArchivedGame
+ */
+public class GameArchiveTest {
+
+    private static final int GAMES = 3000;
+    private static final long SEED = 11;
+
+    @ClassRule
+    public static final TemporaryFolder folder = new TemporaryFolder();
+
+    private static ForkJoinPool pool;
+    private static Path archiveFile;
+    private static SimulationReport simulated;
+
+    @BeforeClass
+    public static void simulate() throws IOException {
+        pool = new ForkJoinPool(4);
+        archiveFile = folder.getRoot().toPath().resolve("games.bin");
+        try (GameArchiveWriter writer = new GameArchiveWriter(archiveFile)) {
+            simulated = new SelfPlaySimulator(SelfPlayPolicy.RANDOM, pool).run(GAMES, SEED, writer);
+        }
+    }
+
+    @AfterClass
+    public static void shutDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    public void gamesReplayIntoTheirOutcome() throws IOException {
+        CompactGameState state = new CompactGameState();
+        try (GameArchive archive = GameArchive.open(archiveFile)) {
+            assertEquals(GAMES, archive.getGameCount());
+
+            for (long id = 0; id < archive.getGameCount(); ++id) {
+                ArchivedGame game = archive.getGame(id);
+                game.replay(state);
+
+                String message = "game " + id;
+                assertEquals(message, id, game.getId());
+                assertEquals(message, state.isOver(), game.isFinished());
+                assertEquals(message, state.getPoints(0), game.getPoints(0));
+                assertEquals(message, state.getPoints(1), game.getPoints(1));
+                if (game.isFinished())
+                    assertEquals(message, state.hasCalledCabo(0) ? 0 : 1, game.getCaboCaller());
+            }
+        }
+    }
+
+    @Test
+    public void scanAddsUpLikeForEach() throws IOException {
+        try (GameArchive archive = GameArchive.open(archiveFile)) {
+            SimulationReport scanned = archive.scan(pool, SimulationReport::new, GameArchiveTest::record,
+                    SimulationReport::merge);
+            SimulationReport visited = new SimulationReport();
+            archive.forEach(game -> record(visited, game));
+
+            assertSameGames(visited, scanned);
+            assertSameGames(simulated, scanned);
+        }
+    }
+
+    @Test
+    public void rejectsBrokenArchives() throws IOException {
+        byte[] bytes = Files.readAllBytes(archiveFile);
+        long indexOffset = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).getLong(16);
+        assertTrue(indexOffset > GameArchive.HEADER_SIZE && indexOffset < bytes.length);
+
+        assertRejected(Arrays.copyOf(bytes, bytes.length - 1));
+        assertRejected(Arrays.copyOf(bytes, (int)indexOffset));
+        assertRejected(Arrays.copyOf(bytes, GameArchive.HEADER_SIZE - 1));
+
+        byte[] foreign = bytes.clone();
+        foreign[0] = 0;
+        assertRejected(foreign);
+    }
+
+    private static void record(SimulationReport report, ArchivedGame game) {
+        if (game.isFinished())
+            report.recordGame(game.getPoints(0), game.getPoints(1), game.getCaboCaller(), game.getTurns());
+        else
+            report.recordUnfinishedGame();
+    }
+
+    /**
+     * Asserts that two reports counted the same games - but not the same drops, which aren't archived.
+     */
+    private static void assertSameGames(SimulationReport expected, SimulationReport actual) {
+        assertEquals(expected.getGames(), actual.getGames());
+        assertEquals(expected.getUnfinishedGames(), actual.getUnfinishedGames());
+        assertEquals(expected.getTies(), actual.getTies());
+        assertEquals(expected.getAverageTurns(), actual.getAverageTurns(), 0);
+        for (int player = 0; player < 2; ++player) {
+            assertEquals(expected.getWins(player), actual.getWins(player));
+            assertEquals(expected.getAveragePoints(player), actual.getAveragePoints(player), 0);
+            assertEquals(expected.getCaboCalls(player), actual.getCaboCalls(player));
+        }
+    }
+
+    private static void assertRejected(byte[] bytes) throws IOException {
+        Path file = folder.newFile().toPath();
+        Files.write(file, bytes);
+        try (GameArchive archive = GameArchive.open(file)) {
+            fail("a broken archive with " + archive.getGameCount() + " games was opened");
+        } catch (IOException expected) {
+            // The archive was rejected, as it should be.
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package util;
+
+import model.CaboGame;
+import model.CompactGameState;
+import model.GameEffects;
+import model.Player;
+import model.card.Card;
+import model.turnphase.TurnPhase;
+import model.turnphase.TurnPhase.PhaseName;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @version 1.0
+ *
+ * Checks that a GameJournal recovers the game it records at any point - by performing random actions on a CaboGame
+ * the way a user would, long enough for the journal to be compacted several times and for games to end and restart,
+ * and regularly comparing the recovered game with the live one. A journal that was closed cleanly recovers nothing.
+ *
+ * @see GameJournal
+ */
+public class GameJournalTest {
+
+    private static final int ACTIONS = 60000;
+    private static final int RECOVER_INTERVAL = 997;
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private GameEffects previousEffects;
+
+    @Before
+    public void restartFinishedGames() {
+        previousEffects = CaboGame.getEffects();
+        CaboGame.setEffects(new GameEffects() {
+            @Override
+            public void gameEnded(CaboGame game) {
+                game.reset();
+            }
+        });
+    }
+
+    @After
+    public void restoreEffects() {
+        CaboGame.setEffects(previousEffects);
+    }
+
+    @Test
+    public void recoversTheRecordedGame() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        Random random = new Random(5);
+        CaboGame game = new CaboGame(99L);
+        int recoveries = 0;
+        int compactions = 0;
+
+        try (GameJournal journal = GameJournal.start(game, directory)) {
+            int size = journal.getSize();
+            for (int action = 0; action < ACTIONS; ++action) {
+                performRandomAction(game, random);
+                if (journal.getSize() < size)
+                    ++compactions;
+                size = journal.getSize();
+
+                if (action % RECOVER_INTERVAL == 0) {
+                    CaboGame recovered = GameJournal.recover(directory);
+                    assertNotNull("nothing recovered after action " + action, recovered);
+                    assertEquals("state after action " + action,
+                            CompactGameState.of(game), CompactGameState.of(recovered));
+                    assertEquals("shuffler after action " + action,
+                            game.getShuffler().getState(), recovered.getShuffler().getState());
+                    ++recoveries;
+                }
+            }
+        }
+
+        assertTrue("the journal was never compacted", compactions > 0);
+        assertTrue(recoveries > 0);
+        assertNull("a closed journal was recovered", GameJournal.recover(directory));
+    }
+
+    @Test
+    public void recoversNothingWithoutJournal() {
+        assertNull(GameJournal.recover(folder.getRoot().toPath()));
+    }
+
+    /**
+     * Performs one of the actions a user could perform through the user interface, on a random card - most of which
+     * aren't allowed in the current phase, and are then ignored by the game, just like in the user interface.
+     */
+    private static void performRandomAction(CaboGame game, Random random) {
+        TurnPhase phase = game.getTurnPhase();
+        PhaseName phaseName = phase.getPhaseName();
+        Player player = game.getCurrentPlayer();
+        Player opponent = game.getOpponent();
+
+        List<Card> cards = new ArrayList<>();
+        cards.add(null);
+        if (game.getDeck().top() != null)
+            cards.add(game.getDeck().top());
+        if (game.getDiscardPile().top() != null)
+            cards.add(game.getDiscardPile().top());
+        if (game.getDrawnCard() != null) {
+            cards.add(game.getDrawnCard());
+            cards.add(game.getDrawnCard());
+        }
+        cards.addAll(player.getCards());
+        cards.addAll(player.getCards());
+        cards.addAll(opponent.getCards());
+        Card card = cards.get(random.nextInt(cards.size()));
+
+        switch (random.nextInt(9)) {
+            case 0: case 1: case 2:
+                game.selectCard(card);
+                break;
+            case 3:
+                if (phaseName != PhaseName.DISCARD_OR_SWAP || phase.getSelectedCard() == game.getDrawnCard())
+                    game.releaseCard();
+                break;
+            case 4:
+                if (phaseName != PhaseName.DISCARD_OR_SWAP || player.hasCard(card))
+                    game.releaseCard(card);
+                break;
+            case 5:
+                Player target = phaseName == PhaseName.TRANSFER_CARD ? opponent : player;
+                game.releaseCard(random.nextInt(target.getCards().size() + 2) - 1);
+                break;
+            case 6:
+                if (phaseName != PhaseName.INITIAL_PEEK && phaseName != PhaseName.PICKUP
+                        && phaseName != PhaseName.TRANSFER_CARD && !game.getDiscardPile().isEmpty())
+                    game.dropSelectedCard();
+                break;
+            case 7:
+                if (phaseName == PhaseName.SWAP || phaseName == PhaseName.SPY_AND_SWAP)
+                    game.skipSwap();
+                else if (phaseName == PhaseName.DRAW_OR_CABO && random.nextInt(40) == 0)
+                    game.callCabo();
+                break;
+            default:
+                if (random.nextInt(2000) == 0)
+                    game.reset();
+                break;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package util;
+
+import model.CaboGame;
+import model.CompactGameState;
+import model.turnphase.Move;
+import model.turnphase.PhaseEngine;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.zip.CRC32;
+
+import static model.CompactGameState.*;
+import static org.junit.Assert.*;
+
+/**
+ * @version 1.0
+ *
+ * Checks that games survive being encoded into a SaveFile and decoded again at every point of play - including the
+ * state of the Shuffler, so that a loaded game shuffles the discard pile into the deck exactly like the saved game
+ * would have - and that saves of version 1, which don't hold the known cards, still load.
+ *
+ * @see SaveFile
+ */
+public class SaveFileTest {
+
+    private static final int GAMES = 300;
+    private static final int MAX_MOVES = 1000;
+
+    /**
+     * The offset of the known cards of player 1 in a version 2 save, and the number of bytes of both known card masks.
+     */
+    private static final int KNOWN_CARDS_OFFSET = 81;
+    private static final int KNOWN_CARDS_SIZE = 2 * Long.BYTES;
+
+    @Test
+    public void loadedGamesPlayOnLikeSavedGames() throws IOException {
+        SplittableRandom random = new SplittableRandom(3);
+        int[] moves = new int[Move.MAX_MOVES];
+        int finishedGames = 0;
+
+        for (int game = 0; game < GAMES; ++game) {
+            CaboGame played = new CaboGame(random.nextLong());
+            CaboGame loaded = SaveFile.decode(SaveFile.encode(played, true)).getGame();
+
+            for (int i = 0; i < MAX_MOVES && !played.isOver(); ++i) {
+                CompactGameState state = CompactGameState.of(played);
+                int moveCount = new PhaseEngine(state, new SplittableRandom(0)).getLegalMoves(moves);
+                int move = moves[random.nextInt(moveCount)];
+                played.playMove(move);
+                loaded.playMove(move);
+
+                boolean soundIsOn = random.nextBoolean();
+                SaveFile save = SaveFile.decode(SaveFile.encode(loaded, soundIsOn));
+                loaded = save.getGame();
+
+                String message = "game " + game + " after " + Move.toString(move);
+                assertEquals(message, soundIsOn, save.soundIsOn());
+                assertEquals(message, CompactGameState.of(played), CompactGameState.of(loaded));
+                assertEquals(message, played.getShuffler().getState(), loaded.getShuffler().getState());
+            }
+            if (played.isOver())
+                ++finishedGames;
+        }
+        assertTrue("only " + finishedGames + " games finished", finishedGames > GAMES / 2);
+    }
+
+    @Test
+    public void version1SavesLoadWithoutKnownCards() throws IOException {
+        SplittableRandom random = new SplittableRandom(5);
+        int[] moves = new int[Move.MAX_MOVES];
+
+        for (int game = 0; game < 50; ++game) {
+            CaboGame played = new CaboGame(random.nextLong());
+            for (int i = 0; i < 60 && !played.isOver(); ++i) {
+                CompactGameState state = CompactGameState.of(played);
+                int moveCount = new PhaseEngine(state, new SplittableRandom(0)).getLegalMoves(moves);
+                played.playMove(moves[random.nextInt(moveCount)]);
+            }
+
+            byte[] version1 = toVersion1(SaveFile.encode(played, false));
+            CompactGameState loaded = CompactGameState.of(SaveFile.decode(version1).getGame());
+
+            CompactGameState expected = CompactGameState.of(played);
+            long known = expected.getFaceUpMask();
+            for (int i = 0; i < expected.size(DISCARD_PILE); ++i)
+                known |= 1L << expected.cardAt(DISCARD_PILE, i);
+            expected.setKnownMask(0, known);
+            expected.setKnownMask(1, known);
+            assertEquals("game " + game, expected, loaded);
+        }
+    }
+
+    @Test
+    public void rejectsBrokenSaves() {
+        byte[] save = SaveFile.encode(new CaboGame(1L), true);
+
+        byte[] corrupted = save.clone();
+        corrupted[40] ^= 1;
+        assertRejected(corrupted);
+
+        byte[] truncated = Arrays.copyOf(save, save.length - 1);
+        assertRejected(truncated);
+
+        byte[] newer = save.clone();
+        ByteBuffer.wrap(newer).putShort(Integer.BYTES, (short)(SaveFile.VERSION + 1));
+        assertRejected(newer);
+
+        byte[] foreign = save.clone();
+        foreign[0] = 0;
+        assertRejected(foreign);
+    }
+
+    private static void assertRejected(byte[] save) {
+        try {
+            SaveFile.decode(save);
+            fail("a broken save was decoded");
+        } catch (IOException expected) {
+            // The save was rejected, as it should be.
+        }
+    }
+
+    /**
+     * @return The save rewritten in the layout of version 1, which is the same as version 2 without the known cards.
+     */
+    private static byte[] toVersion1(byte[] save) {
+        byte[] version1 = new byte[SaveFile.VERSION_1_SIZE];
+        int rest = SaveFile.SIZE - Integer.BYTES - KNOWN_CARDS_OFFSET - KNOWN_CARDS_SIZE;
+        System.arraycopy(save, 0, version1, 0, KNOWN_CARDS_OFFSET);
+        System.arraycopy(save, KNOWN_CARDS_OFFSET + KNOWN_CARDS_SIZE, version1, KNOWN_CARDS_OFFSET, rest);
+        ByteBuffer buffer = ByteBuffer.wrap(version1);
+        buffer.putShort(Integer.BYTES, (short)1);
+
+        CRC32 crc = new CRC32();
+        crc.update(version1, 0, version1.length - Integer.BYTES);
+        buffer.putInt(version1.length - Integer.BYTES, (int)crc.getValue());
+        return version1;
+    }
+}